@@ -0,0 +1,58 @@
+#!/usr/bin/env bash
+# Distribution center encoding benchmark: for each item page size, compares plain JSON and Smile,
+# with and without gzip.
+#  - wire: bytes transferred and response time for GET /{id}/items against a running API
+#    (the dc-simulator profile speaks both encodings);
+#  - decode: in-process decode time for the same encodings, from PayloadEncodingBenchmark (test tooling,
+#    run locally on the test classpath rather than inside the app).
+# Appends CSV rows to $RESULTS.
+#
+#   scripts/dc-encoding-benchmark.sh [page sizes, default "10 100 1000"]
+#
+# e.g. against an app started with --spring.profiles.active=dc-simulator:
+#   scripts/dc-encoding-benchmark.sh 10 100 1000
+# (wire pages hold at most the center's item count: 200 per center in the simulator by default)
+set -u
+
+SIZES=${*:-10 100 1000}
+BASE_URL=${BASE_URL:-http://localhost:8080}
+DC_API_URL=${DC_API_URL:-$BASE_URL/api/distribution-centers}
+CENTER_ID=${CENTER_ID:-1}
+BENCH_USER=${BENCH_USER:-admin}
+BENCH_PASSWORD=${BENCH_PASSWORD:-admin123}
+ITERATIONS=${ITERATIONS:-500}
+RESULTS=${RESULTS:-target/dc-encoding-benchmark.csv}
+
+mkdir -p "$(dirname "$RESULTS")"
+[ -f "$RESULTS" ] || echo "timestamp,kind,items,format,compression,bytes,time_us" > "$RESULTS"
+ts=$(date -u +%Y-%m-%dT%H:%M:%SZ)
+
+./mvnw -q test-compile dependency:build-classpath -Dmdep.outputFile=target/test-classpath.txt ||
+    { echo "could not build the test classpath" >&2; exit 1; }
+BENCH_CLASSPATH=target/test-classes:target/classes:$(cat target/test-classpath.txt)
+
+for size in $SIZES; do
+    for format in json smile; do
+        accept=application/json
+        [ "$format" = smile ] && accept=application/x-jackson-smile
+        for compression in none gzip; do
+            encoding_header=()
+            [ "$compression" = gzip ] && encoding_header=(-H "Accept-Encoding: gzip")
+            # Raw bytes as sent (curl doesn't decompress without --compressed)
+            read -r bytes seconds status < <(curl -s -o /dev/null -u "$BENCH_USER:$BENCH_PASSWORD" \
+                -H "Accept: $accept" "${encoding_header[@]}" \
+                -w "%{size_download} %{time_total} %{http_code}\n" \
+                "$DC_API_URL/$CENTER_ID/items?page=0&size=$size")
+            [ "$status" = "200" ] || { echo "GET items?size=$size ($format, $compression) returned $status" >&2; exit 1; }
+            micros=$(awk -v s="$seconds" 'BEGIN { printf "%d", s * 1000000 }')
+            echo "$ts,wire,$size,$format,$compression,$bytes,$micros" >> "$RESULTS"
+            printf "wire    %6s items  %-5s %-4s  %9s bytes  %8s us\n" "$size" "$format" "$compression" "$bytes" "$micros"
+        done
+    done
+
+    java -Diterations="$ITERATIONS" -cp "$BENCH_CLASSPATH" com.arjencode.project.service.PayloadEncodingBenchmark "$size" |
+        while IFS=, read -r items format compression bytes micros p95; do
+            echo "$ts,decode,$items,$format,$compression,$bytes,$micros" >> "$RESULTS"
+            printf "decode  %6s items  %-5s %-4s  %9s bytes  %8s us (median)\n" "$items" "$format" "$compression" "$bytes" "$micros"
+        done
+done
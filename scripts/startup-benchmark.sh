@@ -0,0 +1,69 @@
+#!/usr/bin/env bash
+# Startup benchmark: starts the app, then measures the time from launch to the first successful
+# /actuator/health and to the first /items/list page (logged in as a regular user).
+# Appends one CSV row per run to $RESULTS so startup regressions show up over time.
+#
+#   scripts/startup-benchmark.sh <label> <runs> -- <command that starts the app>
+#
+# e.g.
+#   scripts/startup-benchmark.sh baseline 5 -- java -jar target/project-0.0.1-SNAPSHOT.jar
+#   scripts/startup-benchmark.sh aot-cds 5 -- java -XX:SharedArchiveFile=extracted/application.jsa \
+#       -Dspring.aot.enabled=true -Dspring.profiles.active=docker,fast-startup -jar extracted/app.jar
+set -u
+
+LABEL=${1:?label}
+RUNS=${2:?runs}
+shift 2
+[ "${1:-}" = "--" ] && shift
+[ $# -gt 0 ] || { echo "missing command to start the app" >&2; exit 1; }
+
+BASE_URL=${BASE_URL:-http://localhost:8080}
+BENCH_USER=${BENCH_USER:-user}
+BENCH_PASSWORD=${BENCH_PASSWORD:-user123}
+TIMEOUT_S=${TIMEOUT_S:-180}
+RESULTS=${RESULTS:-target/startup-benchmark.csv}
+
+now_ms() { date +%s%3N; }
+
+mkdir -p "$(dirname "$RESULTS")"
+[ -f "$RESULTS" ] || echo "timestamp,label,run,health_ms,items_list_ms" > "$RESULTS"
+COOKIES=$(mktemp)
+LOG=$(mktemp)
+trap 'rm -f "$COOKIES" "$LOG"' EXIT
+
+for run in $(seq 1 "$RUNS"); do
+    start=$(now_ms)
+    "$@" > "$LOG" 2>&1 &
+    pid=$!
+    deadline=$((start + TIMEOUT_S * 1000))
+
+    health_ms=""
+    while [ -z "$health_ms" ]; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "app exited during run $run, last log lines:" >&2; tail -20 "$LOG" >&2; exit 1
+        fi
+        if [ "$(now_ms)" -gt "$deadline" ]; then
+            echo "no healthy response within ${TIMEOUT_S}s" >&2; kill "$pid"; exit 1
+        fi
+        if curl -sf -o /dev/null "$BASE_URL/actuator/health"; then
+            health_ms=$(( $(now_ms) - start ))
+        else
+            sleep 0.05
+        fi
+    done
+
+    rm -f "$COOKIES"
+    token=$(curl -s -c "$COOKIES" -b "$COOKIES" "$BASE_URL/login" | grep -o 'name="_csrf" value="[^"]*' | sed 's/.*value="//')
+    curl -s -o /dev/null -c "$COOKIES" -b "$COOKIES" \
+        --data-urlencode "username=$BENCH_USER" --data-urlencode "password=$BENCH_PASSWORD" \
+        --data-urlencode "_csrf=$token" "$BASE_URL/login"
+    status=$(curl -s -o /dev/null -w "%{http_code}" -b "$COOKIES" "$BASE_URL/items/list")
+    list_ms=$(( $(now_ms) - start ))
+    [ "$status" = "200" ] || { echo "/items/list returned $status in run $run" >&2; kill "$pid"; exit 1; }
+
+    echo "$(date -u +%Y-%m-%dT%H:%M:%SZ),$LABEL,$run,$health_ms,$list_ms" >> "$RESULTS"
+    echo "$LABEL run $run: health ${health_ms} ms, /items/list ${list_ms} ms"
+
+    kill "$pid"
+    wait "$pid" 2>/dev/null
+done
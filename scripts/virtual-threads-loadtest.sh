@@ -0,0 +1,81 @@
+#!/usr/bin/env bash
+# Thread-mode load test: fires a fixed number of requests at each concurrency level against a running app
+# and records throughput, latency percentiles and errors, so platform and virtual threads can be compared.
+# Appends one CSV row per level to $RESULTS.
+#
+#   scripts/virtual-threads-loadtest.sh <label> [concurrency levels, default "50 150 300"]
+#
+# The default mix is a page backed by the database (/items/list) and the simulated distribution center
+# API with a delay, which stands in for a handler blocked on I/O. Run it once per mode, e.g.
+#   java -jar target/project-0.0.1-SNAPSHOT.jar --spring.profiles.active=dc-simulator --dc.simulator.latency-ms=100
+#   scripts/virtual-threads-loadtest.sh platform
+#   java -jar target/project-0.0.1-SNAPSHOT.jar --spring.profiles.active=dc-simulator,virtual-threads --dc.simulator.latency-ms=100
+#   scripts/virtual-threads-loadtest.sh virtual
+# (virtual threads need a Java 21+ runtime)
+set -u
+
+LABEL=${1:?label}
+shift
+LEVELS=${*:-50 150 300}
+BASE_URL=${BASE_URL:-http://localhost:8080}
+PATHS=${PATHS:-/items/list /api/distribution-centers/1}
+REQUESTS=${REQUESTS:-2000}
+BENCH_USER=${BENCH_USER:-admin}
+BENCH_PASSWORD=${BENCH_PASSWORD:-admin123}
+RESULTS=${RESULTS:-target/virtual-threads-loadtest.csv}
+
+mkdir -p "$(dirname "$RESULTS")"
+[ -f "$RESULTS" ] || echo "timestamp,label,concurrency,requests,errors,throughput_rps,p50_ms,p95_ms,p99_ms" > "$RESULTS"
+COOKIES=$(mktemp)
+URLS=$(mktemp)
+TIMINGS=$(mktemp)
+trap 'rm -f "$COOKIES" "$URLS" "$TIMINGS"' EXIT
+
+# Pages need a session; the APIs take basic auth on every request
+token=$(curl -s -c "$COOKIES" -b "$COOKIES" "$BASE_URL/login" | grep -o 'name="_csrf" value="[^"]*' | sed 's/.*value="//')
+curl -s -o /dev/null -c "$COOKIES" -b "$COOKIES" \
+    --data-urlencode "username=$BENCH_USER" --data-urlencode "password=$BENCH_PASSWORD" \
+    --data-urlencode "_csrf=$token" "$BASE_URL/login"
+
+# One option block per request: the session cookie only goes to pages, since authenticating an API
+# call in the same session would rotate its id under the requests still using the old one
+read -r -a path_list <<< "$PATHS"
+for i in $(seq 0 $((REQUESTS - 1))); do
+    path=${path_list[$((i % ${#path_list[@]}))]}
+    [ "$i" -gt 0 ] && echo "next"
+    echo "url = \"$BASE_URL$path\""
+    echo "output = /dev/null"
+    echo "silent"
+    echo "max-time = 60"
+    echo "write-out = \"%{http_code} %{time_total}\\n\""
+    case "$path" in
+        /api/*|/admin/api/*) echo "user = \"$BENCH_USER:$BENCH_PASSWORD\"" ;;
+        *) echo "cookie = \"$COOKIES\"" ;;
+    esac
+done > "$URLS"
+
+for concurrency in $LEVELS; do
+    start=$(date +%s%N)
+    # curl caps --parallel-max at 300
+    curl -s --parallel --parallel-immediate --parallel-max "$concurrency" -K "$URLS" > "$TIMINGS" 2>/dev/null
+    elapsed_ns=$(( $(date +%s%N) - start ))
+
+    row=$(python3 -c '
+import sys
+codes, times = [], []
+for line in open(sys.argv[1]):
+    code, seconds = line.split()
+    codes.append(code)
+    times.append(float(seconds) * 1000)
+times.sort()
+def pct(p):
+    return times[min(len(times) - 1, int(p * len(times)))] if times else 0
+errors = sum(1 for code in codes if code != "200")
+elapsed = int(sys.argv[2]) / 1e9
+print("%d,%d,%.1f,%.1f,%.1f,%.1f" % (len(codes), errors, len(codes) / elapsed, pct(0.5), pct(0.95), pct(0.99)))
+' "$TIMINGS" "$elapsed_ns")
+    echo "$(date -u +%Y-%m-%dT%H:%M:%SZ),$LABEL,$concurrency,$row" >> "$RESULTS"
+    IFS=, read -r requests errors rps p50 p95 p99 <<< "$row"
+    printf "%-10s %4s concurrent  %6s requests  %5s errors  %8s req/s  p50 %7s ms  p95 %7s ms  p99 %7s ms\n" \
+        "$LABEL" "$concurrency" "$requests" "$errors" "$rps" "$p50" "$p95" "$p99"
+done
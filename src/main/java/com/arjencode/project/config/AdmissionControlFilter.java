@@ -0,0 +1,151 @@
+package com.arjencode.project.config;
+
+import com.arjencode.project.service.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Admission control for expensive endpoints (dashboard, distribution center requests, bulk updates).
+// Each endpoint group has a token bucket per user (429 with Retry-After once it's empty) and a cap on
+// concurrent requests across users: a request waits briefly for a slot, then is shed with 503, so a
+// burst can't tie up every Tomcat thread behind the distribution center API. Runs after Spring Security,
+// so limits apply per authenticated user (per client address for anonymous requests).
+@Component
+@EnableConfigurationProperties(AdmissionControlProperties.class)
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private final AdmissionControlProperties properties;
+    private final List<EndpointGroup> groups = new ArrayList<>();
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>(); // group|user -> bucket
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    @Autowired
+    public AdmissionControlFilter(AdmissionControlProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        properties.getGroups().forEach((name, settings) -> groups.add(new EndpointGroup(name, settings, meterRegistry)));
+        Gauge.builder("admission.rate.buckets", buckets, Map::size).register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || groups.isEmpty();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        EndpointGroup group = match(request.getRequestURI().substring(request.getContextPath().length()));
+        if (group == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        if (group.settings.getRequestsPerMinute() > 0) {
+            TokenBucket bucket = buckets.computeIfAbsent(group.name + "|" + clientOf(request),
+                key -> new TokenBucket(group.settings.getRequestsPerMinute(), Math.max(1, group.settings.getBurst())));
+            if (!bucket.tryAcquire()) {
+                group.rateLimited.increment();
+                long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(bucket.nanosUntilAvailable() + 999_999_999L));
+                response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+                response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "Too many requests, try again in " + retryAfterSeconds + " s");
+                return;
+            }
+        }
+
+        if (group.slots == null) {
+            group.admitted.increment();
+            chain.doFilter(request, response);
+            return;
+        }
+        boolean acquired;
+        try {
+            acquired = group.slots.tryAcquire(group.settings.getQueueTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            group.shed.increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Server busy, try again shortly");
+            return;
+        }
+        try {
+            group.admitted.increment();
+            chain.doFilter(request, response);
+        } finally {
+            group.slots.release();
+        }
+    }
+
+    // Drop buckets that have refilled completely; they're recreated full on the next request
+    @Scheduled(fixedDelay = 60000)
+    public void evictIdleBuckets() {
+        buckets.values().removeIf(TokenBucket::isFull);
+    }
+
+    private EndpointGroup match(String path) {
+        for (EndpointGroup group : groups) {
+            for (String pattern : group.settings.getPaths()) {
+                if (pathMatcher.match(pattern, path)) {
+                    return group;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String clientOf(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated() && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return authentication.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private static final class EndpointGroup {
+        private final String name;
+        private final AdmissionControlProperties.Group settings;
+        private final Semaphore slots;
+        private final Counter admitted;
+        private final Counter rateLimited;
+        private final Counter shed;
+
+        private EndpointGroup(String name, AdmissionControlProperties.Group settings, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.settings = settings;
+            this.slots = settings.getMaxConcurrent() > 0 ? new Semaphore(settings.getMaxConcurrent()) : null;
+            this.admitted = meterRegistry.counter("admission.requests", "group", name, "outcome", "admitted");
+            this.rateLimited = meterRegistry.counter("admission.requests", "group", name, "outcome", "rate-limited");
+            this.shed = meterRegistry.counter("admission.requests", "group", name, "outcome", "shed");
+            if (slots != null) {
+                Gauge.builder("admission.in.flight", slots, semaphore -> settings.getMaxConcurrent() - semaphore.availablePermits())
+                    .tag("group", name)
+                    .register(meterRegistry);
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.arjencode.project.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Settings for admission control (admission.* properties): per endpoint group, a per-user token bucket
+// and a cap on concurrent requests. Requests matching no group are not limited.
+@ConfigurationProperties(prefix = "admission")
+public class AdmissionControlProperties {
+
+    private boolean enabled = true;
+
+    private Map<String, Group> groups = new LinkedHashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Map<String, Group> getGroups() {
+        return groups;
+    }
+
+    public void setGroups(Map<String, Group> groups) {
+        this.groups = groups;
+    }
+
+    public static class Group {
+
+        // Ant-style path patterns, e.g. /admin/distribution-center/*
+        private List<String> paths = new ArrayList<>();
+
+        // Sustained rate per user; 0 disables the rate limit
+        private int requestsPerMinute = 0;
+
+        // Requests a user can make at once before the rate applies
+        private int burst = 10;
+
+        // Concurrent requests across all users; 0 disables the concurrency limit
+        private int maxConcurrent = 0;
+
+        // How long a request waits for a free slot before it is shed with 503
+        private long queueTimeoutMs = 100;
+
+        public List<String> getPaths() {
+            return paths;
+        }
+
+        public void setPaths(List<String> paths) {
+            this.paths = paths;
+        }
+
+        public int getRequestsPerMinute() {
+            return requestsPerMinute;
+        }
+
+        public void setRequestsPerMinute(int requestsPerMinute) {
+            this.requestsPerMinute = requestsPerMinute;
+        }
+
+        public int getBurst() {
+            return burst;
+        }
+
+        public void setBurst(int burst) {
+            this.burst = burst;
+        }
+
+        public int getMaxConcurrent() {
+            return maxConcurrent;
+        }
+
+        public void setMaxConcurrent(int maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        public long getQueueTimeoutMs() {
+            return queueTimeoutMs;
+        }
+
+        public void setQueueTimeoutMs(long queueTimeoutMs) {
+            this.queueTimeoutMs = queueTimeoutMs;
+        }
+    }
+}
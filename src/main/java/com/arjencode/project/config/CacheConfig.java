@@ -0,0 +1,62 @@
+package com.arjencode.project.config;
+
+import com.arjencode.project.service.DistributionCenterDetailPrefetcher;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+
+// Enables Spring's cache abstraction; caches are Caffeine-backed and sized via spring.cache.* properties
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    @Value("${distribution.center.availability.cache-ttl-seconds:60}")
+    private long availabilityCacheTtlSeconds;
+
+    @Value("${distribution.center.prefetch.ttl-seconds:120}")
+    private long centerDetailsTtlSeconds;
+
+    @Value("${distribution.center.prefetch.max-cached-items:50000}")
+    private long centerDetailsMaxItems;
+
+    @Value("${rendering.fragment-cache.max-chars:20000000}")
+    private long fragmentCacheMaxChars;
+
+    // Caches that need their own expiry instead of the shared spring.cache.caffeine.spec
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> customCaches() {
+        return cacheManager -> {
+            cacheManager.registerCustomCache("availableItems",
+                Caffeine.newBuilder()
+                    .maximumSize(1)
+                    .expireAfterWrite(Duration.ofSeconds(availabilityCacheTtlSeconds))
+                    .build());
+            // Center details vary from a handful of items to thousands, so the budget counts items, not entries
+            cacheManager.registerCustomCache(DistributionCenterDetailPrefetcher.CACHE_NAME,
+                Caffeine.newBuilder()
+                    .maximumWeight(centerDetailsMaxItems)
+                    .weigher((Object key, Object value) -> 1 + itemCountOf(value))
+                    .expireAfterWrite(Duration.ofSeconds(centerDetailsTtlSeconds))
+                    .build());
+            // Rendered HTML is keyed by data version, so old versions just age out of the size budget
+            cacheManager.registerCustomCache(RenderedFragments.CACHE_NAME,
+                Caffeine.newBuilder()
+                    .maximumWeight(fragmentCacheMaxChars)
+                    .weigher((Object key, Object value) -> ((String) value).length())
+                    .build());
+        };
+    }
+
+    private static int itemCountOf(Object centerDetails) {
+        return centerDetails instanceof Map<?, ?> center && center.get("items") instanceof Collection<?> items
+            ? items.size() : 0;
+    }
+}
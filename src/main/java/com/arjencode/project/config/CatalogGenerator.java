@@ -0,0 +1,211 @@
+package com.arjencode.project.config;
+
+import com.arjencode.project.model.Warehouse;
+import com.arjencode.project.service.WarehouseService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Generates a large synthetic catalog for scale testing and benchmarking.
+// Activate with the "catalog-generator" profile; runs before DataInitializer so the sample seed is skipped.
+@Component
+@Profile("catalog-generator")
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class CatalogGenerator implements CommandLineRunner {
+
+    private static final String INSERT_SQL =
+        "INSERT INTO items (name, brand, category, price, item_year, quantity, warehouse_id, created_at, updated_at, version) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    private static final String[] BRANDS = {
+        "Nike", "Adidas", "Levi's", "Calvin Klein", "Tommy Hilfiger", "Puma", "Under Armour",
+        "Ralph Lauren", "Gap", "Zara", "H&M", "Uniqlo", "Columbia", "The North Face", "Patagonia",
+        "New Balance", "Reebok", "Converse", "Vans", "Lacoste", "Hugo Boss", "Guess", "Diesel",
+        "Wrangler", "Carhartt", "Champion", "Fila", "Asics", "Timberland", "Dr. Martens"
+    };
+
+    // Category name, median price and price spread (log-normal sigma)
+    private static final String[] CATEGORIES = {
+        "Shirts", "Pants", "Shoes", "Jackets", "Sweaters", "Hoodies", "Shorts", "Dresses",
+        "Underwear", "Blazers", "Socks", "Hats", "Skirts", "Coats", "Accessories"
+    };
+    private static final double[] CATEGORY_MEDIAN_PRICE = {
+        35, 70, 110, 120, 75, 65, 35, 90, 20, 180, 12, 28, 55, 220, 40
+    };
+    private static final double[] CATEGORY_PRICE_SIGMA = {
+        0.45, 0.40, 0.45, 0.55, 0.40, 0.35, 0.35, 0.60, 0.30, 0.50, 0.30, 0.35, 0.45, 0.55, 0.70
+    };
+
+    private static final String[] STYLES = {
+        "Classic", "Slim", "Relaxed", "Vintage", "Essential", "Premium", "Sport", "Urban",
+        "Heritage", "Performance", "Original", "Signature", "Everyday", "Tech", "Lightweight"
+    };
+    private static final String[] COLORS = {
+        "Black", "White", "Navy", "Grey", "Olive", "Red", "Blue", "Beige", "Brown", "Green"
+    };
+
+    @Value("${catalog.generator.item-count:1000000}")
+    private long itemCount;
+
+    @Value("${catalog.generator.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${catalog.generator.seed:42}")
+    private long seed;
+
+    // Zipf exponent for brand and category popularity (higher = more skewed)
+    @Value("${catalog.generator.skew:1.1}")
+    private double skew;
+
+    @Value("${catalog.generator.newest-year:2025}")
+    private int newestYear;
+
+    @Value("${catalog.generator.year-span:10}")
+    private int yearSpan;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final WarehouseService warehouseService;
+
+    @Autowired
+    public CatalogGenerator(JdbcTemplate jdbcTemplate, WarehouseService warehouseService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.warehouseService = warehouseService;
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        Long existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM items", Long.class);
+        if (existing != null && existing > 0) {
+            System.out.println("Catalog generator: items table already has " + existing + " rows. Skipping generation.");
+            return;
+        }
+
+        SplittableRandom random = new SplittableRandom(seed);
+        double[] brandWeights = zipfCumulative(BRANDS.length, skew);
+        double[] categoryWeights = zipfCumulative(CATEGORIES.length, skew);
+        double[] yearWeights = zipfCumulative(yearSpan, 0.8); // newest years are the most common
+        long[] warehouseIds = warehouseService.getAllWarehouses().stream().mapToLong(Warehouse::getId).toArray();
+
+        System.out.println("Catalog generator: inserting " + itemCount + " items in batches of " + batchSize + "...");
+        long start = System.nanoTime();
+        long lastReport = start;
+        long inserted = 0;
+        List<Object[]> batch = new ArrayList<>(batchSize);
+
+        while (inserted < itemCount) {
+            batch.clear();
+            int rows = (int) Math.min(batchSize, itemCount - inserted);
+            for (int i = 0; i < rows; i++) {
+                batch.add(nextRow(random, brandWeights, categoryWeights, yearWeights, warehouseIds, inserted + i));
+            }
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+            inserted += rows;
+
+            long now = System.nanoTime();
+            if (now - lastReport > 5_000_000_000L || inserted == itemCount) {
+                System.out.printf("Catalog generator: %,d / %,d rows (%,.0f rows/sec)%n",
+                    inserted, itemCount, inserted / ((now - start) / 1e9));
+                lastReport = now;
+            }
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Catalog generator: inserted %,d items in %.1f s (%,.0f rows/sec)%n",
+            inserted, seconds, inserted / seconds);
+    }
+
+    private Object[] nextRow(SplittableRandom random, double[] brandWeights, double[] categoryWeights,
+                             double[] yearWeights, long[] warehouseIds, long sequence) {
+        String brand = BRANDS[pick(random, brandWeights)];
+        int categoryIndex = pick(random, categoryWeights);
+        String category = CATEGORIES[categoryIndex];
+        int year = newestYear - pick(random, yearWeights);
+
+        // Log-normal price around the category median, floored at $1
+        double price = CATEGORY_MEDIAN_PRICE[categoryIndex]
+            * Math.exp(CATEGORY_PRICE_SIGMA[categoryIndex] * gaussian(random));
+        BigDecimal roundedPrice = BigDecimal.valueOf(Math.max(1.0, Math.floor(price) + 0.99))
+            .setScale(2, RoundingMode.HALF_UP);
+
+        // Most SKUs hold a handful of units, ~5% are out of stock, a few are bulk lines
+        int quantity;
+        double stockRoll = random.nextDouble();
+        if (stockRoll < 0.05) {
+            quantity = 0;
+        } else if (stockRoll < 0.95) {
+            quantity = 1 + (int) Math.floor(-Math.log(1 - random.nextDouble()) * 12);
+        } else {
+            quantity = 50 + random.nextInt(450);
+        }
+
+        String name = brand + " " + STYLES[random.nextInt(STYLES.length)] + " "
+            + COLORS[random.nextInt(COLORS.length)] + " " + singular(category) + " #" + sequence;
+
+        // Spread creation timestamps over the item's model year
+        LocalDateTime createdAt = LocalDateTime.of(year, 1, 1, 0, 0).plusMinutes(random.nextInt(525_600));
+        Timestamp timestamp = Timestamp.valueOf(createdAt);
+
+        // SKUs are spread evenly across the known warehouses
+        long warehouseId = warehouseIds[random.nextInt(warehouseIds.length)];
+
+        return new Object[] { name, brand, category, roundedPrice, year, quantity, warehouseId, timestamp, timestamp };
+    }
+
+    // Cumulative Zipf distribution over n ranks
+    private static double[] zipfCumulative(int n, double exponent) {
+        double[] cumulative = new double[n];
+        double total = 0;
+        for (int rank = 0; rank < n; rank++) {
+            total += 1.0 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = total;
+        }
+        for (int rank = 0; rank < n; rank++) {
+            cumulative[rank] /= total;
+        }
+        return cumulative;
+    }
+
+    private static int pick(SplittableRandom random, double[] cumulative) {
+        double roll = random.nextDouble();
+        int low = 0;
+        int high = cumulative.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulative[mid] < roll) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Box-Muller standard normal sample
+    private static double gaussian(SplittableRandom random) {
+        double u1 = 1.0 - random.nextDouble();
+        double u2 = random.nextDouble();
+        return Math.sqrt(-2.0 * Math.log(u1)) * Math.cos(2.0 * Math.PI * u2);
+    }
+
+    private static String singular(String category) {
+        return switch (category) {
+            case "Accessories" -> "Accessory";
+            case "Dresses" -> "Dress";
+            case "Pants", "Shorts" -> category;
+            default -> category.endsWith("s") ? category.substring(0, category.length() - 1) : category;
+        };
+    }
+}
@@ -0,0 +1,199 @@
+package com.arjencode.project.config;
+
+import com.arjencode.project.event.DistributionCenterChangedEvent;
+import com.arjencode.project.event.ItemChangedEvent;
+import com.arjencode.project.event.ItemSnapshot;
+import com.arjencode.project.event.ItemsBulkChangedEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.UUID;
+
+// Relays item and distribution-center change events between nodes with PostgreSQL LISTEN/NOTIFY,
+// so each node's in-process caches (facets, columnar catalog, availability) stay coherent.
+// Local events are NOTIFYed after commit; notifications from other nodes are republished locally as remote events.
+@Component
+@ConditionalOnProperty(name = "cluster.notify.enabled", havingValue = "true")
+public class ClusterEventBridge {
+
+    private static final String ITEM = "item";
+    private static final String CENTER = "center";
+    private static final String BULK = "bulk";
+
+    @Value("${cluster.notify.channel:catalog_changes}")
+    private String channel;
+
+    @Value("${spring.datasource.url}")
+    private String datasourceUrl;
+
+    @Value("${spring.datasource.username:}")
+    private String datasourceUsername;
+
+    @Value("${spring.datasource.password:}")
+    private String datasourcePassword;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate notifyTransaction;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final String nodeId = UUID.randomUUID().toString();
+    private volatile boolean running = true;
+    private Thread listener;
+
+    @Autowired
+    public ClusterEventBridge(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                              ApplicationEventPublisher eventPublisher, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        // After commit the finished transaction's connection is still bound to the thread and is rolled back
+        // when released, so the NOTIFY gets a transaction (and connection to the primary) of its own
+        this.notifyTransaction = new TransactionTemplate(transactionManager);
+        this.notifyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void start() {
+        listener = new Thread(this::listenLoop, "cluster-event-listener");
+        listener.setDaemon(true);
+        listener.start();
+        System.out.println("Cluster event bridge started on channel '" + channel + "' as node " + nodeId);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        listener.interrupt();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        if (event.isRemote()) {
+            return;
+        }
+        ObjectNode message = newMessage(ITEM);
+        message.put("type", event.getType().name());
+        message.set("before", objectMapper.valueToTree(event.getBefore()));
+        message.set("after", objectMapper.valueToTree(event.getAfter()));
+        notifyNodes(message);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDistributionCenterChanged(DistributionCenterChangedEvent event) {
+        if (event.isRemote()) {
+            return;
+        }
+        ObjectNode message = newMessage(CENTER);
+        message.put("centerId", event.getCenterId());
+        notifyNodes(message);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemsBulkChanged(ItemsBulkChangedEvent event) {
+        if (event.isRemote()) {
+            return;
+        }
+        ObjectNode message = newMessage(BULK);
+        message.put("operation", event.getOperation().name());
+        message.put("affectedRows", event.getAffectedRows());
+        notifyNodes(message);
+    }
+
+    private ObjectNode newMessage(String kind) {
+        ObjectNode message = objectMapper.createObjectNode();
+        message.put("node", nodeId);
+        message.put("kind", kind);
+        return message;
+    }
+
+    private void notifyNodes(ObjectNode message) {
+        try {
+            String payload = objectMapper.writeValueAsString(message);
+            notifyTransaction.executeWithoutResult(status ->
+                jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> { }, channel, payload));
+        } catch (Exception e) {
+            System.err.println("Error broadcasting cluster event: " + e.getMessage());
+        }
+    }
+
+    // Holds one dedicated connection outside the pool and reconnects with backoff if it drops
+    private void listenLoop() {
+        long backoffMs = 1000;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(datasourceUrl, datasourceUsername, datasourcePassword)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                backoffMs = 1000;
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(5000);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            handle(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                System.err.println("Cluster event listener disconnected: " + e.getMessage() + ", retrying in " + backoffMs + " ms");
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+                backoffMs = Math.min(backoffMs * 2, 30_000);
+            }
+        }
+    }
+
+    private void handle(String payload) {
+        try {
+            JsonNode message = objectMapper.readTree(payload);
+            if (nodeId.equals(message.path("node").asText())) {
+                return; // our own notification
+            }
+            if (ITEM.equals(message.path("kind").asText())) {
+                eventPublisher.publishEvent(new ItemChangedEvent(
+                    ItemChangedEvent.Type.valueOf(message.get("type").asText()),
+                    toSnapshot(message.get("before")),
+                    toSnapshot(message.get("after")),
+                    true));
+            } else if (CENTER.equals(message.path("kind").asText())) {
+                JsonNode centerId = message.get("centerId");
+                eventPublisher.publishEvent(new DistributionCenterChangedEvent(
+                    centerId == null || centerId.isNull() ? null : centerId.asLong(), true));
+            } else if (BULK.equals(message.path("kind").asText())) {
+                eventPublisher.publishEvent(new ItemsBulkChangedEvent(
+                    ItemsBulkChangedEvent.Operation.valueOf(message.get("operation").asText()),
+                    message.path("affectedRows").asInt(), true));
+            }
+        } catch (Exception e) {
+            System.err.println("Error handling cluster event: " + e.getMessage());
+        }
+    }
+
+    private ItemSnapshot toSnapshot(JsonNode node) throws Exception {
+        return node == null || node.isNull() ? null : objectMapper.treeToValue(node, ItemSnapshot.class);
+    }
+}
@@ -0,0 +1,115 @@
+package com.arjencode.project.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Caps the connections checked out at once. With virtual threads Tomcat no longer limits how many
+// requests run, so without this thousands of them would queue inside the pool for its full
+// connection timeout. Here they wait briefly for a permit and then fail fast.
+// The permit is returned when the connection is closed (given back to the pool).
+public class ConnectionLimitingDataSource extends DelegatingDataSource implements Closeable {
+
+    private final Semaphore permits;
+    private final int maxConcurrent;
+    private final long maxWaitMs;
+    private final AtomicLong rejected = new AtomicLong();
+
+    public ConnectionLimitingDataSource(DataSource target, int maxConcurrent, long maxWaitMs) {
+        super(target);
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.maxConcurrent = maxConcurrent;
+        this.maxWaitMs = maxWaitMs;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return limited(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return limited(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    // The pool is closed through this wrapper, since it replaced the pool's bean
+    @Override
+    public void close() throws IOException {
+        if (getTargetDataSource() instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+
+    public int getInUse() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    public int getWaiting() {
+        return permits.getQueueLength();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    private void acquire() throws SQLException {
+        try {
+            if (permits.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a database connection", e);
+        }
+        rejected.incrementAndGet();
+        throw new SQLTransientConnectionException(
+            "All " + maxConcurrent + " database connections busy for " + maxWaitMs + " ms");
+    }
+
+    private Connection limited(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return Connection.class.cast(Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class },
+            (proxy, method, args) -> {
+                String name = method.getName();
+                if (name.equals("equals")) {
+                    return proxy == args[0];
+                }
+                if (name.equals("hashCode")) {
+                    return System.identityHashCode(proxy);
+                }
+                try {
+                    return method.invoke(connection, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                } finally {
+                    // Closing twice is allowed by JDBC; release the permit once
+                    if (name.equals("close") && released.compareAndSet(false, true)) {
+                        permits.release();
+                    }
+                }
+            }));
+    }
+}
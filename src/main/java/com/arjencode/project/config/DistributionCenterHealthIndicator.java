@@ -0,0 +1,50 @@
+package com.arjencode.project.config;
+
+import com.arjencode.project.service.CircuitBreaker;
+import com.arjencode.project.service.DistributionCenterClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+// /actuator/health "distributionCenter": circuit breaker states, bulkhead usage and hedging/fallback counts.
+// An open breaker reports DEGRADED (HTTP 200): the app still serves its own pages, so it must not be restarted.
+@Component("distributionCenter")
+public class DistributionCenterHealthIndicator implements HealthIndicator {
+
+    public static final Status DEGRADED = new Status("DEGRADED", "Distribution center API calls are failing fast");
+
+    private final DistributionCenterClient client;
+
+    @Autowired
+    public DistributionCenterHealthIndicator(DistributionCenterClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public Health health() {
+        Map<String, Object> circuits = new TreeMap<>();
+        boolean anyOpen = false;
+        for (CircuitBreaker breaker : client.getCircuitBreakers()) {
+            Map<String, Object> circuit = new LinkedHashMap<>();
+            circuit.put("state", breaker.getState());
+            circuit.put("failureRate", Math.round(breaker.getFailureRate() * 100) + "%");
+            circuit.put("rejectedCalls", breaker.getRejectedCalls());
+            circuits.put(breaker.getName(), circuit);
+            anyOpen |= breaker.getState() == CircuitBreaker.State.OPEN;
+        }
+        return Health.status(anyOpen ? DEGRADED : Status.UP)
+            .withDetail("circuits", circuits)
+            .withDetail("bulkheadAvailable", client.getAvailableBulkheadPermits() + "/" + client.getMaxConcurrentCalls())
+            .withDetail("hedgeDelaysMs", client.getHedgeDelaysMs())
+            .withDetail("hedgedCalls", client.getHedgedCalls())
+            .withDetail("staleResponses", client.getStaleResponses())
+            .withDetail("unknownOutcomes", client.getUnknownOutcomes())
+            .build();
+    }
+}
@@ -0,0 +1,17 @@
+package com.arjencode.project.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Beans that must exist from startup even with spring.main.lazy-initialization=true (fast-startup profile):
+// the cluster bridge must be listening before the first local change. Beans with @Scheduled methods are
+// already kept eager by Spring Boot (ScheduledBeanLazyInitializationExcludeFilter).
+@Configuration
+public class LazyInitializationConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter clusterEventBridgeExcludeFilter() {
+        return LazyInitializationExcludeFilter.forBeanTypes(ClusterEventBridge.class);
+    }
+}
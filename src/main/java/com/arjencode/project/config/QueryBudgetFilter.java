@@ -0,0 +1,80 @@
+package com.arjencode.project.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+
+// Statement budgets per endpoint (diagnostics.queries.budgets.*). Counts the SQL statements each request
+// runs, session lookups included, and warns when a request goes over its budget, naming the statement
+// repeated most (usually an N+1). With fail-on-budget-exceeded=true the request fails instead, so a test
+// that drives the endpoint catches the regression.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class QueryBudgetFilter extends OncePerRequestFilter {
+
+    private static final String DEFAULT_BUDGET = "default";
+
+    private final QueryDiagnostics diagnostics;
+    private final QueryDiagnosticsProperties properties;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    @Autowired
+    public QueryBudgetFilter(QueryDiagnostics diagnostics, QueryDiagnosticsProperties properties) {
+        this.diagnostics = diagnostics;
+        this.properties = properties;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        QueryDiagnostics.RequestQueries queries = diagnostics.beginRequest(request.getMethod() + " " + path);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            diagnostics.endRequest();
+        }
+
+        String budget = DEFAULT_BUDGET;
+        int maxStatements = properties.getDefaultMaxStatements();
+        for (Map.Entry<String, QueryDiagnosticsProperties.Budget> entry : properties.getBudgets().entrySet()) {
+            if (entry.getValue().getPaths().stream().anyMatch(pattern -> pathMatcher.match(pattern, path))) {
+                budget = entry.getKey();
+                maxStatements = entry.getValue().getMaxStatements();
+                break;
+            }
+        }
+        boolean exceeded = maxStatements > 0 && queries.getStatements() > maxStatements;
+        diagnostics.recordRequest(budget, maxStatements, queries, exceeded);
+        if (!exceeded) {
+            return;
+        }
+
+        Map.Entry<String, Integer> repeated = queries.getMostRepeated();
+        String sql = repeated != null ? diagnostics.sqlOf(repeated.getKey()) : null;
+        String message = "Query budget exceeded: " + queries.getDescription() + " ran " + queries.getStatements()
+            + " statements (budget " + budget + ": " + maxStatements + ")"
+            + (repeated != null && repeated.getValue() > 1 && sql != null
+                ? "; most repeated: " + repeated.getValue() + "x [" + repeated.getKey() + "] " + QueryDiagnostics.preview(sql)
+                : "");
+        if (properties.isFailOnBudgetExceeded()) {
+            throw new IllegalStateException(message);
+        }
+        System.err.println(message);
+    }
+}
@@ -0,0 +1,308 @@
+package com.arjencode.project.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+// Statement statistics fed by QueryTimingDataSource. Each statement is reduced to a fingerprint of its
+// normalized SQL (literals and IN lists replaced by "?", so bind values never show up) with a count,
+// total/max time and a latency histogram. Statements slower than slow-query-ms are logged and kept in a
+// small ring for /actuator/queries. Statements run on a request thread also count toward that request
+// (see QueryBudgetFilter).
+@Component
+@EnableConfigurationProperties(QueryDiagnosticsProperties.class)
+public class QueryDiagnostics {
+
+    static final long[] HISTOGRAM_BOUNDS_MS = { 1, 2, 5, 10, 25, 50, 100, 250, 500, 1000 };
+    private static final String OTHER = "other";
+    private static final int SQL_PREVIEW_LENGTH = 160;
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.$])-?\\d+(?:\\.\\d+)?(?![\\w.])");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+
+    private static final ThreadLocal<RequestQueries> CURRENT_REQUEST = new ThreadLocal<>();
+
+    private final QueryDiagnosticsProperties properties;
+    private final MeterRegistry meterRegistry;
+    // Raw SQL -> fingerprint, so each distinct statement string is normalized once
+    private final Map<String, Fingerprint> fingerprintCache = new ConcurrentHashMap<>();
+    private final Map<String, StatementStats> statements = new ConcurrentHashMap<>();
+    private final Map<String, BudgetStats> budgets = new ConcurrentHashMap<>();
+    private final Deque<Map<String, Object>> slowQueries = new ArrayDeque<>();
+    private final LongAdder totalStatements = new LongAdder();
+
+    @Autowired
+    public QueryDiagnostics(QueryDiagnosticsProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    // Called for every executed statement (a batch counts once)
+    public void record(String sql, long nanos) {
+        if (sql == null) {
+            return;
+        }
+        Fingerprint fingerprint = fingerprintOf(sql);
+        totalStatements.increment();
+        statsFor(fingerprint).record(nanos);
+
+        RequestQueries request = CURRENT_REQUEST.get();
+        if (request != null) {
+            request.record(fingerprint.id());
+        }
+        long millis = nanos / 1_000_000L;
+        if (millis >= properties.getSlowQueryMs()) {
+            logSlowQuery(fingerprint, millis, request);
+        }
+    }
+
+    // Start counting statements for the request on this thread
+    public RequestQueries beginRequest(String description) {
+        RequestQueries request = new RequestQueries(description);
+        CURRENT_REQUEST.set(request);
+        return request;
+    }
+
+    public void endRequest() {
+        CURRENT_REQUEST.remove();
+    }
+
+    // Book a finished request against its budget ("default" when none matched)
+    public void recordRequest(String budget, int maxStatements, RequestQueries request, boolean exceeded) {
+        BudgetStats stats = budgets.computeIfAbsent(budget, name -> new BudgetStats(name, meterRegistry));
+        stats.maxStatements = maxStatements;
+        stats.record(request.getStatements(), exceeded);
+    }
+
+    // Normalized SQL of a fingerprint (null if unknown)
+    public String sqlOf(String fingerprintId) {
+        StatementStats stats = statements.get(fingerprintId);
+        return stats != null ? stats.sql : null;
+    }
+
+    // Fingerprints by total time, slow queries (newest first) and budget outcomes
+    public Map<String, Object> getReport(int top) {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("statements", totalStatements.sum());
+        report.put("slowQueryMs", properties.getSlowQueryMs());
+
+        List<Map<String, Object>> fingerprints = new ArrayList<>();
+        statements.values().stream()
+            .sorted(Comparator.comparingLong((StatementStats stats) -> stats.totalNanos.sum()).reversed())
+            .limit(Math.max(1, top))
+            .forEach(stats -> fingerprints.add(stats.toJson()));
+        report.put("fingerprints", fingerprints);
+
+        synchronized (slowQueries) {
+            report.put("slowQueries", new ArrayList<>(slowQueries));
+        }
+        Map<String, Object> budgetReport = new TreeMap<>();
+        budgets.forEach((name, stats) -> budgetReport.put(name, stats.toJson()));
+        report.put("budgets", budgetReport);
+        return report;
+    }
+
+    public void reset() {
+        statements.clear();
+        budgets.values().forEach(BudgetStats::reset);
+        synchronized (slowQueries) {
+            slowQueries.clear();
+        }
+        totalStatements.reset();
+    }
+
+    private void logSlowQuery(Fingerprint fingerprint, long millis, RequestQueries request) {
+        String preview = preview(fingerprint.sql());
+        System.out.println("Slow query (" + millis + " ms) [" + fingerprint.id() + "]"
+            + (request != null ? " during " + request.getDescription() : "") + ": " + preview);
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("at", Instant.now());
+        entry.put("durationMs", millis);
+        entry.put("fingerprint", fingerprint.id());
+        entry.put("sql", fingerprint.sql());
+        entry.put("request", request != null ? request.getDescription() : null);
+        synchronized (slowQueries) {
+            slowQueries.addFirst(entry);
+            while (slowQueries.size() > properties.getSlowLogSize()) {
+                slowQueries.removeLast();
+            }
+        }
+    }
+
+    private StatementStats statsFor(Fingerprint fingerprint) {
+        StatementStats stats = statements.get(fingerprint.id());
+        if (stats != null) {
+            return stats;
+        }
+        if (statements.size() >= properties.getMaxFingerprints()) {
+            return statements.computeIfAbsent(OTHER, id -> new StatementStats(OTHER, "(fingerprints over the limit)"));
+        }
+        return statements.computeIfAbsent(fingerprint.id(), id -> new StatementStats(id, fingerprint.sql()));
+    }
+
+    private Fingerprint fingerprintOf(String sql) {
+        Fingerprint cached = fingerprintCache.get(sql);
+        if (cached != null) {
+            return cached;
+        }
+        // Statements built with inlined literals would otherwise fill the cache
+        if (fingerprintCache.size() >= properties.getMaxFingerprints() * 4) {
+            fingerprintCache.clear();
+        }
+        String normalized = normalize(sql);
+        Fingerprint fingerprint = new Fingerprint(hash(normalized), normalized);
+        fingerprintCache.put(sql, fingerprint);
+        return fingerprint;
+    }
+
+    static String normalize(String sql) {
+        String normalized = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        normalized = STRING_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = IN_LIST.matcher(normalized).replaceAll("in (?)");
+        return normalized.toLowerCase(Locale.ROOT);
+    }
+
+    static String preview(String sql) {
+        return sql.length() <= SQL_PREVIEW_LENGTH ? sql : sql.substring(0, SQL_PREVIEW_LENGTH) + "...";
+    }
+
+    private static String hash(String normalized) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(normalized.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 6);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    private record Fingerprint(String id, String sql) {
+    }
+
+    // Statements run by one request; only touched by the request's own thread
+    public static final class RequestQueries {
+        private final String description;
+        private final Map<String, Integer> byFingerprint = new HashMap<>();
+        private int statements;
+
+        private RequestQueries(String description) {
+            this.description = description;
+        }
+
+        private void record(String fingerprintId) {
+            statements++;
+            byFingerprint.merge(fingerprintId, 1, Integer::sum);
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public int getStatements() {
+            return statements;
+        }
+
+        // The fingerprint run most often, e.g. the per-row query of an N+1 pattern
+        public Map.Entry<String, Integer> getMostRepeated() {
+            return byFingerprint.entrySet().stream().max(Map.Entry.comparingByValue()).orElse(null);
+        }
+    }
+
+    private static final class StatementStats {
+        private final String id;
+        private final String sql;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        // One counter per bound in HISTOGRAM_BOUNDS_MS, plus one for slower statements
+        private final AtomicLongArray histogram = new AtomicLongArray(HISTOGRAM_BOUNDS_MS.length + 1);
+
+        private StatementStats(String id, String sql) {
+            this.id = id;
+            this.sql = sql;
+        }
+
+        private void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            int bucket = 0;
+            while (bucket < HISTOGRAM_BOUNDS_MS.length && nanos > HISTOGRAM_BOUNDS_MS[bucket] * 1_000_000L) {
+                bucket++;
+            }
+            histogram.incrementAndGet(bucket);
+        }
+
+        private Map<String, Object> toJson() {
+            long executions = count.sum();
+            long total = totalNanos.sum();
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("fingerprint", id);
+            json.put("sql", sql);
+            json.put("count", executions);
+            json.put("totalMs", total / 1_000_000.0);
+            json.put("meanMs", executions > 0 ? total / 1_000_000.0 / executions : 0);
+            json.put("maxMs", maxNanos.get() / 1_000_000.0);
+            Map<String, Long> buckets = new LinkedHashMap<>();
+            for (int i = 0; i < HISTOGRAM_BOUNDS_MS.length; i++) {
+                buckets.put("le" + HISTOGRAM_BOUNDS_MS[i] + "ms", histogram.get(i));
+            }
+            buckets.put("over" + HISTOGRAM_BOUNDS_MS[HISTOGRAM_BOUNDS_MS.length - 1] + "ms", histogram.get(HISTOGRAM_BOUNDS_MS.length));
+            json.put("histogram", buckets);
+            return json;
+        }
+    }
+
+    private static final class BudgetStats {
+        private final LongAdder requests = new LongAdder();
+        private final AtomicInteger mostStatements = new AtomicInteger();
+        private final DistributionSummary perRequest;
+        private final Counter exceeded;
+        private volatile int maxStatements;
+
+        private BudgetStats(String name, MeterRegistry meterRegistry) {
+            this.perRequest = DistributionSummary.builder("db.statements.per.request").tag("budget", name).register(meterRegistry);
+            this.exceeded = meterRegistry.counter("db.statements.budget.exceeded", "budget", name);
+        }
+
+        private void record(int statements, boolean overBudget) {
+            requests.increment();
+            mostStatements.accumulateAndGet(statements, Math::max);
+            perRequest.record(statements);
+            if (overBudget) {
+                exceeded.increment();
+            }
+        }
+
+        private void reset() {
+            requests.reset();
+            mostStatements.set(0);
+        }
+
+        private Map<String, Object> toJson() {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("maxStatements", maxStatements);
+            json.put("requests", requests.sum());
+            json.put("mostStatements", mostStatements.get());
+            json.put("exceeded", (long) exceeded.count());
+            return json;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.arjencode.project.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+// Wraps the application's DataSource ("dataSource": the pool, or the read/write router in replica mode)
+// so every statement is timed. Pools behind the router aren't wrapped again.
+@Configuration
+public class QueryDiagnosticsConfig {
+
+    @Bean
+    public static BeanPostProcessor queryTimingDataSourcePostProcessor(ObjectProvider<QueryDiagnostics> diagnostics,
+                                                                       Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof QueryTimingDataSource)
+                        && "dataSource".equals(beanName)
+                        && environment.getProperty("diagnostics.queries.enabled", Boolean.class, true)) {
+                    return new QueryTimingDataSource(dataSource, diagnostics.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
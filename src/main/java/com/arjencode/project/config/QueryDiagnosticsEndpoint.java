@@ -0,0 +1,92 @@
+package com.arjencode.project.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+// /actuator/queries: statement fingerprints with latency histograms, the slow-query log and statement
+// budget outcomes (QueryDiagnostics), next to Hibernate's own statistics (statements prepared, entity and
+// collection loads, second-level cache, slowest HQL). DELETE resets both.
+@Component
+@Endpoint(id = "queries")
+public class QueryDiagnosticsEndpoint {
+
+    private final QueryDiagnostics diagnostics;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    public QueryDiagnosticsEndpoint(QueryDiagnostics diagnostics, EntityManagerFactory entityManagerFactory) {
+        this.diagnostics = diagnostics;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @ReadOperation
+    public Map<String, Object> queries(@Nullable Integer top) {
+        int limit = top != null ? top : 20;
+        Map<String, Object> report = diagnostics.getReport(limit);
+        report.put("hibernate", hibernateStatistics(limit));
+        return report;
+    }
+
+    @DeleteOperation
+    public void reset() {
+        diagnostics.reset();
+        statistics().clear();
+    }
+
+    private Map<String, Object> hibernateStatistics(int limit) {
+        Statistics statistics = statistics();
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("enabled", statistics.isStatisticsEnabled());
+        if (!statistics.isStatisticsEnabled()) {
+            return json;
+        }
+        json.put("since", statistics.getStart().toString());
+        json.put("sessionsOpened", statistics.getSessionOpenCount());
+        json.put("transactions", statistics.getTransactionCount());
+        json.put("statementsPrepared", statistics.getPrepareStatementCount());
+        json.put("flushes", statistics.getFlushCount());
+        json.put("entityLoads", statistics.getEntityLoadCount());
+        json.put("entityFetches", statistics.getEntityFetchCount());
+        json.put("collectionFetches", statistics.getCollectionFetchCount());
+        json.put("queryExecutions", statistics.getQueryExecutionCount());
+        json.put("queryExecutionMaxMs", statistics.getQueryExecutionMaxTime());
+        json.put("slowestQuery", statistics.getQueryExecutionMaxTimeQueryString());
+        json.put("secondLevelCacheHits", statistics.getSecondLevelCacheHitCount());
+        json.put("secondLevelCacheMisses", statistics.getSecondLevelCacheMissCount());
+
+        // Per-query statistics are keyed by HQL (or native SQL), with the time Hibernate measured
+        List<Map<String, Object>> queries = new ArrayList<>();
+        Arrays.stream(statistics.getQueries())
+            .map(query -> Map.entry(query, statistics.getQueryStatistics(query)))
+            .sorted(Comparator.comparingLong((Map.Entry<String, QueryStatistics> entry) ->
+                entry.getValue().getExecutionTotalTime()).reversed())
+            .limit(limit)
+            .forEach(entry -> {
+                QueryStatistics query = entry.getValue();
+                Map<String, Object> queryJson = new LinkedHashMap<>();
+                queryJson.put("query", entry.getKey());
+                queryJson.put("executions", query.getExecutionCount());
+                queryJson.put("rows", query.getExecutionRowCount());
+                queryJson.put("totalMs", query.getExecutionTotalTime());
+                queryJson.put("meanMs", query.getExecutionAvgTimeAsDouble());
+                queryJson.put("maxMs", query.getExecutionMaxTime());
+                queries.add(queryJson);
+            });
+        json.put("queries", queries);
+        return json;
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
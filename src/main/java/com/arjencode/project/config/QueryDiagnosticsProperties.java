@@ -0,0 +1,114 @@
+package com.arjencode.project.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Settings for SQL diagnostics (diagnostics.queries.* properties): the slow-query log and per-endpoint
+// statement budgets. A request matching no budget is checked against default-max-statements.
+@ConfigurationProperties(prefix = "diagnostics.queries")
+public class QueryDiagnosticsProperties {
+
+    private boolean enabled = true;
+
+    // Statements slower than this go to the slow-query log
+    private long slowQueryMs = 200;
+
+    // Slow queries kept for the actuator endpoint (oldest dropped first)
+    private int slowLogSize = 100;
+
+    // Distinct statement fingerprints tracked; later ones are counted under "other"
+    private int maxFingerprints = 500;
+
+    // Budget for requests matching no budget below; 0 means unchecked
+    private int defaultMaxStatements = 0;
+
+    // Throw instead of warning when a request goes over budget (for tests)
+    private boolean failOnBudgetExceeded = false;
+
+    private Map<String, Budget> budgets = new LinkedHashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getSlowQueryMs() {
+        return slowQueryMs;
+    }
+
+    public void setSlowQueryMs(long slowQueryMs) {
+        this.slowQueryMs = slowQueryMs;
+    }
+
+    public int getSlowLogSize() {
+        return slowLogSize;
+    }
+
+    public void setSlowLogSize(int slowLogSize) {
+        this.slowLogSize = slowLogSize;
+    }
+
+    public int getMaxFingerprints() {
+        return maxFingerprints;
+    }
+
+    public void setMaxFingerprints(int maxFingerprints) {
+        this.maxFingerprints = maxFingerprints;
+    }
+
+    public int getDefaultMaxStatements() {
+        return defaultMaxStatements;
+    }
+
+    public void setDefaultMaxStatements(int defaultMaxStatements) {
+        this.defaultMaxStatements = defaultMaxStatements;
+    }
+
+    public boolean isFailOnBudgetExceeded() {
+        return failOnBudgetExceeded;
+    }
+
+    public void setFailOnBudgetExceeded(boolean failOnBudgetExceeded) {
+        this.failOnBudgetExceeded = failOnBudgetExceeded;
+    }
+
+    public Map<String, Budget> getBudgets() {
+        return budgets;
+    }
+
+    public void setBudgets(Map<String, Budget> budgets) {
+        this.budgets = budgets;
+    }
+
+    public static class Budget {
+
+        // Ant-style path patterns, e.g. /items/brand/*
+        private List<String> paths = new ArrayList<>();
+
+        // Most SQL statements one request may run
+        private int maxStatements = 10;
+
+        public List<String> getPaths() {
+            return paths;
+        }
+
+        public void setPaths(List<String> paths) {
+            this.paths = paths;
+        }
+
+        public int getMaxStatements() {
+            return maxStatements;
+        }
+
+        public void setMaxStatements(int maxStatements) {
+            this.maxStatements = maxStatements;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.arjencode.project.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+// Times every statement executed through the application's DataSource (JPA, JdbcTemplate and Spring
+// Session alike) and reports it to QueryDiagnostics. Connections and statements are thin JDK proxies;
+// everything except execute* passes straight through.
+public class QueryTimingDataSource extends DelegatingDataSource implements Closeable {
+
+    private final QueryDiagnostics diagnostics;
+
+    public QueryTimingDataSource(DataSource target, QueryDiagnostics diagnostics) {
+        super(target);
+        this.diagnostics = diagnostics;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return timed(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return timed(super.getConnection(username, password));
+    }
+
+    // The pool is closed through this wrapper, since it replaced the pool's bean
+    @Override
+    public void close() throws IOException {
+        if (getTargetDataSource() instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+
+    private Connection timed(Connection connection) {
+        return Connection.class.cast(Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class },
+            (proxy, method, args) -> {
+                String name = method.getName();
+                if (name.equals("equals")) {
+                    return proxy == args[0];
+                }
+                if (name.equals("hashCode")) {
+                    return System.identityHashCode(proxy);
+                }
+                Object result = invoke(connection, method, args);
+                if (name.equals("prepareStatement") || name.equals("prepareCall")) {
+                    return statement(result, method.getReturnType(), (String) args[0]);
+                }
+                if (name.equals("createStatement")) {
+                    return statement(result, method.getReturnType(), null);
+                }
+                return result;
+            }));
+    }
+
+    // Prepared statements carry their SQL; plain statements get it with each execute (or addBatch)
+    private Object statement(Object statement, Class<?> type, String preparedSql) {
+        InvocationHandler handler = new InvocationHandler() {
+            private String batchSql = preparedSql;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                String name = method.getName();
+                if (name.equals("addBatch") && args != null && args.length == 1 && args[0] instanceof String sql) {
+                    batchSql = sql;
+                }
+                if (!name.startsWith("execute")) {
+                    return QueryTimingDataSource.invoke(statement, method, args);
+                }
+                String sql = args != null && args.length > 0 && args[0] instanceof String executed ? executed : batchSql;
+                long start = System.nanoTime();
+                try {
+                    return QueryTimingDataSource.invoke(statement, method, args);
+                } finally {
+                    diagnostics.record(sql, System.nanoTime() - start);
+                }
+            }
+        };
+        return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { type }, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
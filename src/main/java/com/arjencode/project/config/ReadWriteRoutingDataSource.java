@@ -0,0 +1,32 @@
+package com.arjencode.project.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Sends connections for read-only transactions to the replica and everything else to the primary.
+// Must sit behind a LazyConnectionDataSourceProxy so the connection is fetched after the
+// transaction's read-only flag is known.
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+    public static final String REPLICA = "replica";
+
+    // Set for requests that must read their own recent writes
+    private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = ThreadLocal.withInitial(() -> false);
+
+    public static void pinToPrimary(boolean pinned) {
+        PINNED_TO_PRIMARY.set(pinned);
+    }
+
+    public static void clearPin() {
+        PINNED_TO_PRIMARY.remove();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !PINNED_TO_PRIMARY.get()) {
+            return REPLICA;
+        }
+        return PRIMARY;
+    }
+}
@@ -0,0 +1,76 @@
+package com.arjencode.project.config;
+
+import com.arjencode.project.event.DistributionCenterChangedEvent;
+import com.arjencode.project.event.ItemChangedEvent;
+import com.arjencode.project.event.ItemsBulkChangedEvent;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Keeps a session on the primary for a short window after it writes, so the redirect after
+// a save doesn't read a replica that hasn't caught up yet.
+@Component
+@ConditionalOnProperty(name = "datasource.replica.enabled", havingValue = "true")
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private static final String PINNED_UNTIL = "primaryPinnedUntil";
+
+    @Value("${datasource.replica.read-your-writes-ms:5000}")
+    private long readYourWritesMs;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        HttpSession session = request.getSession(false);
+        Object pinnedUntil = session == null ? null : session.getAttribute(PINNED_UNTIL);
+        ReadWriteRoutingDataSource.pinToPrimary(pinnedUntil instanceof Long until && until > System.currentTimeMillis());
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReadWriteRoutingDataSource.clearPin();
+        }
+    }
+
+    @EventListener
+    public void onItemChanged(ItemChangedEvent event) {
+        if (!event.isRemote()) {
+            pinCurrentSession();
+        }
+    }
+
+    @EventListener
+    public void onDistributionCenterChanged(DistributionCenterChangedEvent event) {
+        if (!event.isRemote()) {
+            pinCurrentSession();
+        }
+    }
+
+    @EventListener
+    public void onItemsBulkChanged(ItemsBulkChangedEvent event) {
+        if (!event.isRemote()) {
+            pinCurrentSession();
+        }
+    }
+
+    // Reads later in this request and in the session's next requests go to the primary
+    private void pinCurrentSession() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return; // not a web request (startup seeding, scheduled jobs, remote replays)
+        }
+        ReadWriteRoutingDataSource.pinToPrimary(true);
+        attributes.setAttribute(PINNED_UNTIL, System.currentTimeMillis() + readYourWritesMs,
+            RequestAttributes.SCOPE_SESSION);
+    }
+}
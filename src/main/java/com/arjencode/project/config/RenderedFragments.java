@@ -0,0 +1,114 @@
+package com.arjencode.project.config;
+
+import com.arjencode.project.model.Item;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Renders the repeated parts of the item and dashboard pages (list rows, detail cards, center rows,
+// brand options) from templates/fragments/* and, with rendering.fragment-cache.enabled, keeps the HTML.
+// Keys carry the version of the data shown, so a change renders a new entry instead of invalidating one:
+// item id + updatedAt (plus version and quantity, which can change within the same timestamp), and for
+// the dashboard the center snapshot itself. Role-dependent markup is cached per role.
+// Pages call it as ${@renderedFragments...} with th:utext; the fragments escape their own values.
+@Component("renderedFragments")
+public class RenderedFragments {
+
+    public static final String CACHE_NAME = "renderedFragments";
+
+    private static final String ITEM_FRAGMENTS = "fragments/items";
+    private static final String ADMIN_FRAGMENTS = "fragments/admin";
+
+    @Value("${rendering.fragment-cache.enabled:false}")
+    private boolean enabled;
+
+    private final ITemplateEngine templateEngine;
+    private final Cache cache;
+    private final Counter hits;
+    private final Counter misses;
+
+    @Autowired
+    public RenderedFragments(ITemplateEngine templateEngine, CacheManager cacheManager, MeterRegistry meterRegistry) {
+        this.templateEngine = templateEngine;
+        this.cache = cacheManager.getCache(CACHE_NAME);
+        this.hits = meterRegistry.counter("rendering.fragments", "result", "hit");
+        this.misses = meterRegistry.counter("rendering.fragments", "result", "miss");
+    }
+
+    // Cells of an /items/list row; the admin column depends on the role
+    public String itemRow(Item item) {
+        return render(ITEM_FRAGMENTS, "item-row", isAdmin(), versionOf(item), Map.of("item", item));
+    }
+
+    // Detail cards of /items/{id}
+    public String itemDetails(Item item) {
+        return render(ITEM_FRAGMENTS, "item-details", false, versionOf(item), Map.of("item", item));
+    }
+
+    // Rows of the dashboard's distribution center table, as seen from one warehouse
+    public String centerRows(Long warehouseId, List<Map<String, Object>> centers) {
+        return render(ADMIN_FRAGMENTS, "center-rows", false, Arrays.asList(warehouseId, List.copyOf(centers)),
+            Map.of("distributionCenters", centers));
+    }
+
+    // Brand options of the dashboard's request form
+    public String brandOptions(List<String> brands) {
+        return render(ADMIN_FRAGMENTS, "brand-options", false, List.copyOf(brands), Map.of("availableBrands", brands));
+    }
+
+    private String render(String template, String fragment, boolean admin, Object version, Map<String, Object> variables) {
+        if (!enabled) {
+            return process(template, fragment, variables);
+        }
+        FragmentKey key = new FragmentKey(fragment, admin, version);
+        String html = cache.get(key, String.class);
+        if (html != null) {
+            hits.increment();
+            return html;
+        }
+        misses.increment();
+        html = process(template, fragment, variables);
+        cache.put(key, html);
+        return html;
+    }
+
+    // Rendered against the current request, so links, #temporals and sec:authorize work as in the page
+    private String process(String template, String fragment, Map<String, Object> variables) {
+        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.currentRequestAttributes();
+        HttpServletRequest request = attributes.getRequest();
+        WebContext context = new WebContext(
+            JakartaServletWebApplication.buildApplication(request.getServletContext()).buildExchange(request, attributes.getResponse()),
+            request.getLocale(), variables);
+        return templateEngine.process(template, Set.of(fragment), context);
+    }
+
+    private static Object versionOf(Item item) {
+        return Arrays.asList(item.getId(), item.getUpdatedAt(), item.getVersion(), item.getQuantity());
+    }
+
+    private static boolean isAdmin() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getAuthorities().stream()
+            .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+    }
+
+    private record FragmentKey(String fragment, boolean admin, Object version) {
+    }
+}
@@ -0,0 +1,10 @@
+package com.arjencode.project.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+// Binds the reorder.* properties for the ReorderEngine
+@Configuration
+@EnableConfigurationProperties(ReorderProperties.class)
+public class ReorderConfig {
+}
@@ -0,0 +1,109 @@
+package com.arjencode.project.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Settings for the automatic reorder engine (reorder.* properties).
+// Thresholds resolve per item id first, then per category, then the default.
+@ConfigurationProperties(prefix = "reorder")
+public class ReorderProperties {
+
+    private boolean enabled = false;
+
+    // Reorder when stock drops below this many units
+    private int defaultThreshold = 5;
+
+    // Order enough to bring stock back up to this level
+    private int defaultTarget = 20;
+
+    private Map<String, Integer> categoryThresholds = new HashMap<>();
+
+    private Map<Long, Integer> itemThresholds = new HashMap<>();
+
+    // How often queued reorder lines are grouped per center and sent
+    private long batchIntervalMs = 30000;
+
+    // Upper bound on distribution center requests per minute
+    private int maxRequestsPerMinute = 30;
+
+    // An item that was just reordered isn't reordered again within this window
+    private long dedupWindowMinutes = 30;
+
+    public int thresholdFor(Long itemId, String category) {
+        Integer threshold = itemThresholds.get(itemId);
+        if (threshold == null && category != null) {
+            threshold = categoryThresholds.get(category);
+        }
+        return threshold != null ? threshold : defaultThreshold;
+    }
+
+    public int targetFor(int threshold) {
+        return Math.max(defaultTarget, threshold * 2);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getDefaultThreshold() {
+        return defaultThreshold;
+    }
+
+    public void setDefaultThreshold(int defaultThreshold) {
+        this.defaultThreshold = defaultThreshold;
+    }
+
+    public int getDefaultTarget() {
+        return defaultTarget;
+    }
+
+    public void setDefaultTarget(int defaultTarget) {
+        this.defaultTarget = defaultTarget;
+    }
+
+    public Map<String, Integer> getCategoryThresholds() {
+        return categoryThresholds;
+    }
+
+    public void setCategoryThresholds(Map<String, Integer> categoryThresholds) {
+        this.categoryThresholds = categoryThresholds;
+    }
+
+    public Map<Long, Integer> getItemThresholds() {
+        return itemThresholds;
+    }
+
+    public void setItemThresholds(Map<Long, Integer> itemThresholds) {
+        this.itemThresholds = itemThresholds;
+    }
+
+    public long getBatchIntervalMs() {
+        return batchIntervalMs;
+    }
+
+    public void setBatchIntervalMs(long batchIntervalMs) {
+        this.batchIntervalMs = batchIntervalMs;
+    }
+
+    public int getMaxRequestsPerMinute() {
+        return maxRequestsPerMinute;
+    }
+
+    public void setMaxRequestsPerMinute(int maxRequestsPerMinute) {
+        this.maxRequestsPerMinute = maxRequestsPerMinute;
+    }
+
+    public long getDedupWindowMinutes() {
+        return dedupWindowMinutes;
+    }
+
+    public void setDedupWindowMinutes(long dedupWindowMinutes) {
+        this.dedupWindowMinutes = dedupWindowMinutes;
+    }
+}
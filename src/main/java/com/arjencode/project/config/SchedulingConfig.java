@@ -0,0 +1,10 @@
+package com.arjencode.project.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Enables @Scheduled background jobs (stream heartbeats, periodic refreshes)
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
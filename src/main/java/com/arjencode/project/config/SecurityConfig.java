@@ -1,28 +1,83 @@
 package com.arjencode.project.config;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+import org.springframework.security.provisioning.JdbcUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.Session;
+import org.springframework.session.security.SpringSessionBackedSessionRegistry;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
+    @Value("${security.api.credential-cache.ttl-seconds:60}")
+    private long credentialCacheTtlSeconds;
+
+    @Value("${security.api.credential-cache.max-entries:1000}")
+    private long credentialCacheMaxEntries;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
     }
 
+    // Built-in accounts held by each node (single instance)
     @Bean
+    @ConditionalOnProperty(name = "security.users.store", havingValue = "memory", matchIfMissing = true)
     public UserDetailsService userDetailsService() {
+        return new InMemoryUserDetailsManager(defaultUsers());
+    }
+
+    // Accounts in the shared database (scale-out profile), so a password change or a disabled account
+    // applies on every node. Tables are created and seeded with the built-in accounts when missing.
+    @Bean
+    @ConditionalOnProperty(name = "security.users.store", havingValue = "jdbc")
+    public UserDetailsService jdbcUserDetailsService(DataSource dataSource) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS users (username VARCHAR(50) NOT NULL PRIMARY KEY, "
+            + "password VARCHAR(500) NOT NULL, enabled BOOLEAN NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS authorities (username VARCHAR(50) NOT NULL REFERENCES users (username), "
+            + "authority VARCHAR(50) NOT NULL)");
+        jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS ix_auth_username ON authorities (username, authority)");
+
+        JdbcUserDetailsManager manager = new JdbcUserDetailsManager(dataSource);
+        for (UserDetails user : defaultUsers()) {
+            if (!manager.userExists(user.getUsername())) {
+                try {
+                    manager.createUser(user);
+                } catch (DuplicateKeyException e) {
+                    // another node seeded it first
+                }
+            }
+        }
+        return manager;
+    }
+
+    private List<UserDetails> defaultUsers() {
         UserDetails admin = User.builder()
                 .username("admin")
                 .password(passwordEncoder().encode("admin123"))
@@ -35,15 +90,46 @@ public class SecurityConfig {
                 .roles("USER")
                 .build();
 
-        return new InMemoryUserDetailsManager(admin, user);
+        return List.of(admin, user);
+    }
+
+    // Machine clients (REST APIs): basic auth on every request, no session, no CSRF token and no
+    // login redirect. Verified credentials are cached briefly so BCrypt doesn't run per request.
+    @Bean
+    @Order(1)
+    public SecurityFilterChain apiSecurityFilterChain(HttpSecurity http, UserDetailsService userDetailsService) throws Exception {
+        DaoAuthenticationProvider bcryptProvider = new DaoAuthenticationProvider(userDetailsService);
+        bcryptProvider.setPasswordEncoder(passwordEncoder());
+        CachedCredentialsAuthenticationProvider cachedProvider = new CachedCredentialsAuthenticationProvider(
+            bcryptProvider, Duration.ofSeconds(credentialCacheTtlSeconds), credentialCacheMaxEntries);
+
+        http
+            .securityMatcher("/api/**", "/admin/api/**")
+            .authorizeHttpRequests(authz -> authz
+                .requestMatchers("/admin/api/**", "/api/distribution-centers/**").hasRole("ADMIN")
+                .anyRequest().authenticated()
+            )
+            .authenticationManager(new ProviderManager(cachedProvider))
+            .httpBasic(Customizer.withDefaults())
+            .csrf(csrf -> csrf.disable())
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS));
+
+        return http.build();
     }
 
+    // Browser pages: form login with an HTTP session
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    @Order(2)
+    public SecurityFilterChain securityFilterChain(HttpSecurity http,
+            ObjectProvider<FindByIndexNameSessionRepository<? extends Session>> sessionRepository) throws Exception {
         http
             .authorizeHttpRequests(authz -> authz
                 .requestMatchers("/login", "/register", "/logout", "/error", "/access-denied",
                                 "/css/**", "/js/**", "/images/**").permitAll()
+                // Status only for anonymous callers (load balancers, container health checks); details need a login
+                .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                // Statement fingerprints and slow SQL are for admins only
+                .requestMatchers("/actuator/queries", "/actuator/queries/**").hasRole("ADMIN")
                 .requestMatchers("/admin/**").hasRole("ADMIN")
                 .requestMatchers("/items/add", "/items/edit/**", "/items/delete/**").hasRole("ADMIN")
                 .anyRequest().authenticated()
@@ -61,10 +147,14 @@ public class SecurityConfig {
                 .deleteCookies("JSESSIONID")
                 .permitAll()
             )
-            .sessionManagement(session -> session
-                .maximumSessions(1)
-                .maxSessionsPreventsLogin(false)
-            )
+            .sessionManagement(session -> {
+                var concurrency = session
+                    .maximumSessions(1)
+                    .maxSessionsPreventsLogin(false);
+                // With shared sessions (scale-out profile) the one-session limit must hold across nodes
+                sessionRepository.ifAvailable(repository ->
+                    concurrency.sessionRegistry(new SpringSessionBackedSessionRegistry<>(repository)));
+            })
             .exceptionHandling(exceptions -> exceptions
                 .accessDeniedPage("/access-denied")
             );
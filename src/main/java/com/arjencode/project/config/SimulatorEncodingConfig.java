@@ -0,0 +1,18 @@
+package com.arjencode.project.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+// Lets the embedded distribution center simulator answer in Smile (binary JSON) when the client prefers it;
+// clients that only accept JSON still get JSON. Gzip is Tomcat's response compression (see the profile's properties).
+@Configuration
+@Profile("dc-simulator")
+public class SimulatorEncodingConfig {
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter() {
+        return new MappingJackson2SmileHttpMessageConverter();
+    }
+}
@@ -0,0 +1,71 @@
+package com.arjencode.project.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+
+// Virtual-thread mode (spring.threads.virtual.enabled=true on Java 21+, see the virtual-threads profile).
+// Spring Boot moves Tomcat, @Scheduled and @Async onto virtual threads and the distribution center
+// executors follow (BlockingTaskExecutors). What the thread pools used to bound is bounded by
+// semaphores instead: the client bulkhead for the remote API, and here the database connections.
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadsConfig {
+
+    // Wraps the application's DataSource ("dataSource": the pool, or the read/write router in replica mode)
+    @Bean
+    public static BeanPostProcessor connectionLimitingDataSourcePostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConnectionLimitingDataSource)
+                        && "dataSource".equals(beanName)) {
+                    // Defaults to the pool size, so requests wait here rather than inside the pool
+                    int maxConcurrent = environment.getProperty("datasource.connection-limit.max-concurrent", Integer.class,
+                        environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10));
+                    long maxWaitMs = environment.getProperty("datasource.connection-limit.max-wait-ms", Long.class, 2000L);
+                    System.out.println("Virtual threads enabled; database connections limited to " + maxConcurrent);
+                    return new ConnectionLimitingDataSource(dataSource, maxConcurrent, maxWaitMs);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder connectionLimitMetrics(DataSource dataSource) {
+        return registry -> {
+            ConnectionLimitingDataSource limiter = findLimiter(dataSource);
+            if (limiter == null) {
+                return;
+            }
+            Gauge.builder("datasource.connection.limit.in.use", limiter, ConnectionLimitingDataSource::getInUse)
+                .register(registry);
+            Gauge.builder("datasource.connection.limit.waiting", limiter, ConnectionLimitingDataSource::getWaiting)
+                .register(registry);
+            FunctionCounter.builder("datasource.connection.limit.rejected", limiter, ConnectionLimitingDataSource::getRejected)
+                .register(registry);
+        };
+    }
+
+    // The limiter may sit under other wrappers (statement timing)
+    private static ConnectionLimitingDataSource findLimiter(DataSource dataSource) {
+        DataSource current = dataSource;
+        while (current instanceof DelegatingDataSource delegating) {
+            if (delegating instanceof ConnectionLimitingDataSource limiter) {
+                return limiter;
+            }
+            current = delegating.getTargetDataSource();
+        }
+        return null;
+    }
+}
@@ -1,12 +1,28 @@
 package com.arjencode.project.controller;
 
+import com.arjencode.project.model.Warehouse;
+import com.arjencode.project.service.AvailableItemsService;
+import com.arjencode.project.service.BulkItemFilter;
+import com.arjencode.project.service.BulkItemService;
+import com.arjencode.project.service.DistributionCenterDetailPrefetcher;
+import com.arjencode.project.service.InventorySummaryService;
 import com.arjencode.project.service.ItemService;
+import com.arjencode.project.service.ReorderEngine;
+import com.arjencode.project.service.StockLedgerService;
+import com.arjencode.project.service.TrafficAnalyticsService;
+import com.arjencode.project.service.WarehouseService;
 import com.arjencode.project.service.DistributionCenterIntegrationService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 
 @Controller
@@ -15,41 +31,82 @@ public class AdminController {
     
     private final ItemService itemService;
     private final DistributionCenterIntegrationService distributionCenterService;
+    private final AvailableItemsService availableItemsService;
+    private final BulkItemService bulkItemService;
+    private final StockLedgerService stockLedgerService;
+    private final ReorderEngine reorderEngine;
+    private final WarehouseService warehouseService;
+    private final DistributionCenterDetailPrefetcher detailPrefetcher;
+    private final TrafficAnalyticsService trafficAnalytics;
+    private final InventorySummaryService inventorySummary;
     
     @Autowired
     public AdminController(ItemService itemService, 
-                          DistributionCenterIntegrationService distributionCenterService) {
+                          DistributionCenterIntegrationService distributionCenterService,
+                          AvailableItemsService availableItemsService,
+                          BulkItemService bulkItemService,
+                          StockLedgerService stockLedgerService,
+                          ReorderEngine reorderEngine,
+                          WarehouseService warehouseService,
+                          DistributionCenterDetailPrefetcher detailPrefetcher,
+                          TrafficAnalyticsService trafficAnalytics,
+                          InventorySummaryService inventorySummary) {
         this.itemService = itemService;
         this.distributionCenterService = distributionCenterService;
+        this.availableItemsService = availableItemsService;
+        this.bulkItemService = bulkItemService;
+        this.stockLedgerService = stockLedgerService;
+        this.reorderEngine = reorderEngine;
+        this.warehouseService = warehouseService;
+        this.detailPrefetcher = detailPrefetcher;
+        this.trafficAnalytics = trafficAnalytics;
+        this.inventorySummary = inventorySummary;
     }
     
-    // Show admin dashboard with distribution centers
+    // Show admin dashboard with distribution centers, as seen from one warehouse (default if none selected)
     @GetMapping("/dashboard")
-    public String showAdminDashboard(Model model) {
+    public String showAdminDashboard(@RequestParam(required = false) Long warehouseId, Model model) {
+        Warehouse warehouse = warehouseService.getWarehouse(warehouseService.resolve(warehouseId));
+        model.addAttribute("warehouses", warehouseService.getAllWarehouses());
+        model.addAttribute("selectedWarehouse", warehouse);
+        // Running totals from the inventory summary; a count query only while it is still loading
+        Map<String, Object> totals = inventorySummary.getWarehouseTotals(warehouse.getId())
+            .orElseGet(() -> Map.of("skus", itemService.countItemsInWarehouse(warehouse.getId())));
+        model.addAttribute("totalWarehouseItems", totals.get("skus"));
+        model.addAttribute("totalWarehouseUnits", totals.get("units"));
+        model.addAttribute("totalWarehouseValue", totals.get("value"));
         try {
-            model.addAttribute("distributionCenters", distributionCenterService.getAllDistributionCenters());
-            model.addAttribute("totalWarehouseItems", itemService.getAllItemsList().size());
-            // Get available items organized by brand from distribution centers for dropdowns
-            Map<String, Object> itemsData = distributionCenterService.getAvailableItemsByBrand();
-            model.addAttribute("availableBrands", itemsData.get("brands"));
-            model.addAttribute("itemsByBrand", itemsData.get("itemsByBrand"));
+            model.addAttribute("distributionCenters", distributionCenterService.getAllDistributionCenters(warehouse.getId()));
+            // Only the brand list ships with the page; items are fetched per brand on selection
+            model.addAttribute("availableBrands", availableItemsService.getAvailableBrands());
+            // Warm the detail pages of the centers likely to be opened next
+            detailPrefetcher.prefetchFor(warehouse.getId());
         } catch (Exception e) {
             model.addAttribute("error", "Unable to load distribution centers: " + e.getMessage());
             model.addAttribute("distributionCenters", java.util.Collections.emptyList());
-            model.addAttribute("totalWarehouseItems", itemService.getAllItemsList().size());
             model.addAttribute("availableBrands", java.util.Collections.emptyList());
-            model.addAttribute("itemsByBrand", java.util.Collections.emptyMap());
         }
         return "admin-dashboard";
     }
     
+    // Available items for one brand, paged and filtered by name (JSON, used by the request form)
+    @GetMapping("/available-items")
+    @ResponseBody
+    public Map<String, Object> getAvailableItems(@RequestParam String brand,
+                                                 @RequestParam(required = false) String q,
+                                                 @RequestParam(defaultValue = "0") int page,
+                                                 @RequestParam(defaultValue = "25") int size) {
+        return availableItemsService.getAvailableItems(brand, q, page, size);
+    }
+    
     // Request item from distribution center
     @PostMapping("/request-item")
     public String requestItem(@RequestParam String brand, 
                             @RequestParam String name,
+                            @RequestParam(required = false) Long warehouseId,
                             RedirectAttributes redirectAttributes) {
         try {
-            boolean success = distributionCenterService.requestItemFromClosestCenter(brand, name);
+            boolean success = distributionCenterService.requestItemFromClosestCenterWithQuantity(warehouseId, brand, name, 1);
             if (success) {
                 redirectAttributes.addFlashAttribute("successMessage", 
                     "Item '" + name + "' by " + brand + " successfully requested and added to warehouse stock!");
@@ -61,7 +118,7 @@ public class AdminController {
             redirectAttributes.addFlashAttribute("errorMessage", 
                 "Error requesting item: " + e.getMessage());
         }
-        return "redirect:/admin/dashboard";
+        return redirectToDashboard(warehouseId, redirectAttributes);
     }
     
 
@@ -70,7 +127,7 @@ public class AdminController {
     @GetMapping("/distribution-center/{id}")
     public String showDistributionCenterDetails(@PathVariable Long id, Model model) {
         try {
-            Map<String, Object> center = distributionCenterService.getDistributionCenterById(id);
+            Map<String, Object> center = detailPrefetcher.getCenterDetails(id);
             model.addAttribute("distributionCenter", center);
         } catch (Exception e) {
             model.addAttribute("errorMessage", "Unable to load distribution center details: " + e.getMessage());
@@ -131,9 +188,10 @@ public class AdminController {
     public String requestItemWithQuantity(@RequestParam String brand, 
                                         @RequestParam String name,
                                         @RequestParam Integer quantity,
+                                        @RequestParam(required = false) Long warehouseId,
                                         RedirectAttributes redirectAttributes) {
         try {
-            boolean success = distributionCenterService.requestItemFromClosestCenterWithQuantity(brand, name, quantity);
+            boolean success = distributionCenterService.requestItemFromClosestCenterWithQuantity(warehouseId, brand, name, quantity);
             if (success) {
                 redirectAttributes.addFlashAttribute("successMessage", 
                     "Successfully requested " + quantity + " x '" + name + "' by " + brand + " and added to warehouse stock!");
@@ -145,8 +203,169 @@ public class AdminController {
             redirectAttributes.addFlashAttribute("errorMessage", 
                 "Error requesting item: " + e.getMessage());
         }
+        return redirectToDashboard(warehouseId, redirectAttributes);
+    }
+    
+    private static String redirectToDashboard(Long warehouseId, RedirectAttributes redirectAttributes) {
+        if (warehouseId != null) {
+            redirectAttributes.addAttribute("warehouseId", warehouseId);
+        }
+        return "redirect:/admin/dashboard";
+    }
+
+    // Run a set-based price/quantity/delete operation over a brand/category/year filter (or just count it)
+    @PostMapping("/items/bulk")
+    public String bulkUpdateItems(@RequestParam String operation,
+                                  @RequestParam(required = false) String brand,
+                                  @RequestParam(required = false) String category,
+                                  @RequestParam(required = false) Integer year,
+                                  @RequestParam(required = false) BigDecimal value,
+                                  @RequestParam(defaultValue = "false") boolean dryRun,
+                                  RedirectAttributes redirectAttributes) {
+        try {
+            Map<String, Object> result = runBulkOperation(operation, BulkItemFilter.of(brand, category, year), value, dryRun);
+            if (dryRun) {
+                redirectAttributes.addFlashAttribute("successMessage", 
+                    "Dry run: '" + result.get("operation") + "' would affect " + result.get("matchingItems")
+                        + " items (" + result.get("filter") + ").");
+            } else {
+                redirectAttributes.addFlashAttribute("successMessage", 
+                    "'" + result.get("operation") + "' affected " + result.get("affectedItems")
+                        + " items (" + result.get("filter") + ") in " + result.get("elapsedMs") + " ms.");
+            }
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute("errorMessage", 
+                "Bulk operation failed: " + e.getMessage());
+        }
         return "redirect:/admin/dashboard";
     }
+    
+    // Same as above, returning the affected-row report as JSON
+    @PostMapping("/api/items/bulk")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> bulkUpdateItemsJson(@RequestParam String operation,
+                                                                   @RequestParam(required = false) String brand,
+                                                                   @RequestParam(required = false) String category,
+                                                                   @RequestParam(required = false) Integer year,
+                                                                   @RequestParam(required = false) BigDecimal value,
+                                                                   @RequestParam(defaultValue = "false") boolean dryRun) {
+        try {
+            return ResponseEntity.ok(runBulkOperation(operation, BulkItemFilter.of(brand, category, year), value, dryRun));
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    private Map<String, Object> runBulkOperation(String operation, BulkItemFilter filter, BigDecimal value, boolean dryRun) {
+        switch (operation) {
+            case "adjust-price":
+                return bulkItemService.adjustPrices(filter, value, dryRun);
+            case "set-quantity":
+                if (value == null) {
+                    throw new IllegalArgumentException("Quantity is required");
+                }
+                return bulkItemService.setQuantity(filter, value.intValueExact(), dryRun);
+            case "delete":
+                return bulkItemService.deleteMatching(filter, dryRun);
+            default:
+                throw new IllegalArgumentException("Unknown bulk operation: " + operation);
+        }
+    }
+
+    // Stock of an item at a point in time, from the stock ledger (JSON)
+    @GetMapping("/stock/at")
+    @ResponseBody
+    public Map<String, Object> getStockAt(@RequestParam Long itemId,
+                                          @RequestParam(required = false)
+                                          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        return stockLedgerService.getStockAt(itemId, at != null ? at : LocalDateTime.now());
+    }
+    
+    // Units replenished per distribution center in a time window, last 7 days by default (JSON)
+    @GetMapping("/stock/replenishment")
+    @ResponseBody
+    public List<Map<String, Object>> getReplenishmentByCenter(@RequestParam(required = false)
+                                                              @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                              @RequestParam(required = false)
+                                                              @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        return stockLedgerService.getReplenishmentByCenter(from != null ? from : end.minusDays(7), end);
+    }
+    
+    // Take a stock snapshot now instead of waiting for the scheduled one (JSON)
+    @PostMapping("/stock/snapshot")
+    @ResponseBody
+    public Map<String, Object> takeStockSnapshot() {
+        return Map.of("snapshotItems", stockLedgerService.takeSnapshots());
+    }
+    
+    // Queued automatic reorder lines and recent reorders (JSON)
+    @GetMapping("/reorders")
+    @ResponseBody
+    public Map<String, Object> getReorders() {
+        return reorderEngine.getStatus();
+    }
+    
+    // Send queued reorder lines now instead of waiting for the next batch (JSON)
+    @PostMapping("/reorders/send")
+    @ResponseBody
+    public Map<String, Object> sendReorders() {
+        reorderEngine.sendBatches();
+        return reorderEngine.getStatus();
+    }
+
+    // Most replenished SKUs and hottest search terms over a recent window
+    @GetMapping("/analytics")
+    public String showAnalytics(@RequestParam(defaultValue = "60") int windowMinutes,
+                                @RequestParam(defaultValue = "20") int limit, Model model) {
+        model.addAttribute("report", trafficAnalytics.getReport(windowMinutes, limit));
+        model.addAttribute("windowMinutes", windowMinutes);
+        return "admin-analytics";
+    }
+    
+    // Same report as JSON
+    @GetMapping("/analytics/heavy-hitters")
+    @ResponseBody
+    public Map<String, Object> getHeavyHitters(@RequestParam(defaultValue = "60") int windowMinutes,
+                                               @RequestParam(defaultValue = "20") int limit) {
+        return trafficAnalytics.getReport(windowMinutes, limit);
+    }
+
+    // Inventory totals with a breakdown by brand, category or year, for all warehouses or one (JSON)
+    @GetMapping("/inventory/summary")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> getInventorySummary(@RequestParam(required = false) Long warehouseId,
+                                                                   @RequestParam(defaultValue = "brand") String groupBy) {
+        try {
+            return ResponseEntity.ok(inventorySummary.getSummary(warehouseId, groupBy));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Warehouses with item counts and nearest distribution centers (JSON)
+    @GetMapping("/warehouses")
+    @ResponseBody
+    public List<Map<String, Object>> getWarehouses(@RequestParam(defaultValue = "3") int nearest) {
+        return warehouseService.getWarehouseSummaries(nearest);
+    }
+    
+    // Add a warehouse (JSON)
+    @PostMapping("/warehouses")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> createWarehouse(@RequestParam String code,
+                                                               @RequestParam String name,
+                                                               @RequestParam Double latitude,
+                                                               @RequestParam Double longitude) {
+        try {
+            Warehouse warehouse = warehouseService.createWarehouse(code, name, latitude, longitude);
+            return ResponseEntity.ok(Map.of("id", warehouse.getId(), "code", warehouse.getCode(), "name", warehouse.getName()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
 
     // Show error page
     @GetMapping("/error")
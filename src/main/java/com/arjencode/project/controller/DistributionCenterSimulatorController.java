@@ -0,0 +1,284 @@
+package com.arjencode.project.controller;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.annotation.PostConstruct;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+// In-process stand-in for the Distribution Center Manager API, for local runs and load tests without
+// the separate service. Serves the paged form (center summaries, then /{id}/items pages) as well as
+// the original full listing. Activate with the "dc-simulator" profile, which points the integration at it.
+@RestController
+@RequestMapping("/api/distribution-centers")
+@Profile("dc-simulator")
+public class DistributionCenterSimulatorController {
+
+    private static final String[][] GTA_CENTERS = {
+        { "North York", "43.7615", "-79.4111" },
+        { "Mississauga", "43.5890", "-79.6441" },
+        { "Scarborough", "43.7764", "-79.2318" },
+        { "Etobicoke", "43.6205", "-79.5132" },
+        { "Markham", "43.8561", "-79.3370" }
+    };
+    private static final String[] BRANDS = { "Nike", "Adidas", "Levi's", "Calvin Klein", "Tommy Hilfiger", "Puma" };
+    private static final String[] CATEGORIES = { "Shoes", "Shirts", "Pants", "Jackets", "Hoodies", "Shorts" };
+    private static final String[] STYLES = { "Classic", "Slim", "Sport", "Essential", "Vintage", "Premium", "Urban" };
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    @Value("${dc.simulator.centers:5}")
+    private int centerCount;
+
+    @Value("${dc.simulator.items-per-center:200}")
+    private int itemsPerCenter;
+
+    @Value("${dc.simulator.seed:7}")
+    private long seed;
+
+    // Added to every response, to stand in for a remote API (and load-test blocking request handling)
+    @Value("${dc.simulator.latency-ms:0}")
+    private long latencyMs;
+
+    private final Map<Long, SimulatedCenter> centers = new LinkedHashMap<>();
+    private final AtomicLong itemIds = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        SplittableRandom random = new SplittableRandom(seed);
+        for (long id = 1; id <= centerCount; id++) {
+            String[] gta = GTA_CENTERS[(int) ((id - 1) % GTA_CENTERS.length)];
+            // Centers beyond the five GTA sites are scattered around southern Ontario
+            double latitude = id <= GTA_CENTERS.length ? Double.parseDouble(gta[1]) : 42.5 + random.nextDouble() * 3;
+            double longitude = id <= GTA_CENTERS.length ? Double.parseDouble(gta[2]) : -83 + random.nextDouble() * 7;
+            String name = id <= GTA_CENTERS.length ? gta[0] : gta[0] + " " + id;
+            SimulatedCenter center = new SimulatedCenter(id, name, latitude, longitude);
+            for (int i = 0; i < itemsPerCenter; i++) {
+                String brand = BRANDS[random.nextInt(BRANDS.length)];
+                String category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+                String itemName = brand + " " + STYLES[random.nextInt(STYLES.length)] + " " + category + " " + random.nextInt(500);
+                BigDecimal price = BigDecimal.valueOf(10 + random.nextDouble() * 190).setScale(2, RoundingMode.HALF_UP);
+                center.items.add(newItem(itemName, brand, category, price, 2020 + random.nextInt(6), random.nextInt(40)));
+            }
+            centers.put(id, center);
+        }
+        System.out.println("Distribution center simulator: " + centerCount + " centers x " + itemsPerCenter + " items");
+    }
+
+    // Full listing with every center's items (the original, unpaged form)
+    @GetMapping
+    public List<Map<String, Object>> getAllCenters() {
+        simulateLatency();
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (SimulatedCenter center : centers.values()) {
+            synchronized (center) {
+                Map<String, Object> json = center.summary();
+                json.put("items", new ArrayList<>(center.items));
+                result.add(json);
+            }
+        }
+        return result;
+    }
+
+    // Centers without items
+    @GetMapping("/summaries")
+    public List<Map<String, Object>> getSummaries() {
+        simulateLatency();
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (SimulatedCenter center : centers.values()) {
+            synchronized (center) {
+                result.add(center.summary());
+            }
+        }
+        return result;
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<Map<String, Object>> getCenter(@PathVariable Long id) {
+        simulateLatency();
+        SimulatedCenter center = centers.get(id);
+        if (center == null) {
+            return ResponseEntity.notFound().build();
+        }
+        synchronized (center) {
+            return ResponseEntity.ok(center.summary());
+        }
+    }
+
+    // One page of a center's items, ordered by id
+    @GetMapping("/{id}/items")
+    public ResponseEntity<Map<String, Object>> getItems(@PathVariable Long id,
+                                                        @RequestParam(defaultValue = "0") int page,
+                                                        @RequestParam(defaultValue = "100") int size) {
+        simulateLatency();
+        SimulatedCenter center = centers.get(id);
+        if (center == null) {
+            return ResponseEntity.notFound().build();
+        }
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        synchronized (center) {
+            int total = center.items.size();
+            int from = Math.min(Math.max(page, 0) * pageSize, total);
+            int to = Math.min(from + pageSize, total);
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("content", new ArrayList<>(center.items.subList(from, to)));
+            result.put("number", page);
+            result.put("size", pageSize);
+            result.put("totalElements", total);
+            result.put("totalPages", Math.max(1, (total + pageSize - 1) / pageSize));
+            return ResponseEntity.ok(result);
+        }
+    }
+
+    // Closest center with the item in stock; the response carries only the matched item
+    @PostMapping("/find-closest")
+    public ResponseEntity<Map<String, Object>> findClosest(@RequestParam double warehouseLatitude,
+                                                           @RequestParam double warehouseLongitude,
+                                                           @RequestBody Map<String, Object> request) {
+        simulateLatency();
+        SimulatedCenter closest = null;
+        Map<String, Object> closestItem = null;
+        double closestDistance = Double.MAX_VALUE;
+        for (SimulatedCenter center : centers.values()) {
+            synchronized (center) {
+                Map<String, Object> item = center.find(request.get("brand"), request.get("name"));
+                if (item == null || (Integer) item.get("quantity") <= 0) {
+                    continue;
+                }
+                double distance = distanceKm(warehouseLatitude, warehouseLongitude, center.latitude, center.longitude);
+                if (distance < closestDistance) {
+                    closest = center;
+                    closestItem = new LinkedHashMap<>(item);
+                    closestDistance = distance;
+                }
+            }
+        }
+        if (closest == null) {
+            return ResponseEntity.notFound().build();
+        }
+        Map<String, Object> result = closest.summary();
+        result.put("item", closestItem);
+        return ResponseEntity.ok(result);
+    }
+
+    // Take stock out of a center
+    @PostMapping("/{id}/request")
+    public ResponseEntity<Map<String, Object>> requestItem(@PathVariable Long id,
+                                                           @RequestParam(defaultValue = "1") int quantity,
+                                                           @RequestBody Map<String, Object> request) {
+        simulateLatency();
+        SimulatedCenter center = centers.get(id);
+        if (center == null) {
+            return ResponseEntity.notFound().build();
+        }
+        synchronized (center) {
+            Map<String, Object> item = center.find(request.get("brand"), request.get("name"));
+            if (item == null || quantity <= 0 || (Integer) item.get("quantity") < quantity) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Insufficient stock"));
+            }
+            item.put("quantity", (Integer) item.get("quantity") - quantity);
+            return ResponseEntity.ok(new LinkedHashMap<>(item));
+        }
+    }
+
+    @PostMapping("/{id}/items")
+    public ResponseEntity<Map<String, Object>> addItem(@PathVariable Long id, @RequestBody Map<String, Object> request) {
+        simulateLatency();
+        SimulatedCenter center = centers.get(id);
+        if (center == null) {
+            return ResponseEntity.notFound().build();
+        }
+        Map<String, Object> item = newItem(String.valueOf(request.get("name")), String.valueOf(request.get("brand")),
+            String.valueOf(request.get("category")), new BigDecimal(String.valueOf(request.get("price"))),
+            ((Number) request.get("year")).intValue(), ((Number) request.get("quantity")).intValue());
+        synchronized (center) {
+            center.items.add(item);
+        }
+        return ResponseEntity.status(HttpStatus.CREATED).body(item);
+    }
+
+    @DeleteMapping("/{id}/items/{itemId}")
+    public ResponseEntity<Void> deleteItem(@PathVariable Long id, @PathVariable Long itemId) {
+        simulateLatency();
+        SimulatedCenter center = centers.get(id);
+        if (center == null) {
+            return ResponseEntity.notFound().build();
+        }
+        synchronized (center) {
+            boolean removed = center.items.removeIf(item -> itemId.equals(item.get("id")));
+            return removed ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+        }
+    }
+
+    // Blocks the request thread, like waiting on a slow downstream would
+    private void simulateLatency() {
+        if (latencyMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(latencyMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Map<String, Object> newItem(String name, String brand, String category, BigDecimal price, int year, int quantity) {
+        Map<String, Object> item = new LinkedHashMap<>();
+        item.put("id", itemIds.incrementAndGet());
+        item.put("name", name);
+        item.put("brand", brand);
+        item.put("category", category);
+        item.put("price", price);
+        item.put("year", year);
+        item.put("quantity", quantity);
+        return item;
+    }
+
+    private static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double latDistance = Math.toRadians(lat2 - lat1);
+        double lonDistance = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(lonDistance / 2) * Math.sin(lonDistance / 2);
+        return 6371 * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+
+    private static final class SimulatedCenter {
+        private final long id;
+        private final String name;
+        private final double latitude;
+        private final double longitude;
+        private final List<Map<String, Object>> items = new ArrayList<>();
+
+        private SimulatedCenter(long id, String name, double latitude, double longitude) {
+            this.id = id;
+            this.name = name;
+            this.latitude = latitude;
+            this.longitude = longitude;
+        }
+
+        private Map<String, Object> summary() {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("id", id);
+            json.put("name", name);
+            json.put("latitude", latitude);
+            json.put("longitude", longitude);
+            json.put("itemCount", items.size());
+            return json;
+        }
+
+        private Map<String, Object> find(Object brand, Object name) {
+            for (Map<String, Object> item : items) {
+                if (item.get("brand").equals(brand) && item.get("name").equals(name)) {
+                    return item;
+                }
+            }
+            return null;
+        }
+    }
+}
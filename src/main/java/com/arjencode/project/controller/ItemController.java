@@ -1,14 +1,22 @@
 package com.arjencode.project.controller;
 
 import com.arjencode.project.model.Item;
+import com.arjencode.project.service.FacetCounts;
+import com.arjencode.project.service.FacetFilter;
+import com.arjencode.project.service.FacetService;
+import com.arjencode.project.service.ItemEventStreamService;
 import com.arjencode.project.service.ItemService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -17,10 +25,15 @@ import java.util.List;
 public class ItemController {
     
     private final ItemService itemService;
+    private final FacetService facetService;
+    private final ItemEventStreamService itemEventStreamService;
     
     @Autowired
-    public ItemController(ItemService itemService) {
+    public ItemController(ItemService itemService, FacetService facetService,
+                          ItemEventStreamService itemEventStreamService) {
         this.itemService = itemService;
+        this.facetService = facetService;
+        this.itemEventStreamService = itemEventStreamService;
     }
     
     // Show form to add new item
@@ -60,10 +73,28 @@ public class ItemController {
         model.addAttribute("sortBy", sortBy);
         model.addAttribute("sortDir", sortDir);
         model.addAttribute("reverseSortDir", sortDir.equals("asc") ? "desc" : "asc");
+        model.addAttribute("facets", facetService.getFacets(FacetFilter.none()));
         
         return "list-items";
     }
     
+    // Facet counts per brand, category, year and price bucket for the given filters (JSON)
+    @GetMapping("/facets")
+    @ResponseBody
+    public FacetCounts getFacets(@RequestParam(required = false) String brand,
+                                 @RequestParam(required = false) String category,
+                                 @RequestParam(required = false) Integer year,
+                                 @RequestParam(required = false) Integer priceBucket) {
+        return facetService.getFacets(FacetFilter.of(brand, category, year, priceBucket));
+    }
+    
+    // Live item changes as server-sent events, optionally for one brand only
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ResponseBody
+    public SseEmitter streamItemChanges(@RequestParam(required = false) String brand) {
+        return itemEventStreamService.subscribe(brand);
+    }
+    
     // Show items filtered by brand and year 2022
     @GetMapping("/filter")
     public String filterItemsByBrandAndYear2022(@RequestParam String brand, Model model) {
@@ -71,6 +102,7 @@ public class ItemController {
         model.addAttribute("items", filteredItems);
         model.addAttribute("filteredBrand", brand);
         model.addAttribute("filteredYear", 2022);
+        model.addAttribute("facets", facetService.getFacets(FacetFilter.of(brand, null, 2022, null)));
         return "list-items";
     }
     
@@ -93,6 +125,7 @@ public class ItemController {
         model.addAttribute("sortDir", sortDir);
         model.addAttribute("reverseSortDir", sortDir.equals("asc") ? "desc" : "asc");
         model.addAttribute("filteredBrand", brand);
+        model.addAttribute("facets", facetService.getFacets(FacetFilter.of(brand, null, null, null)));
         
         return "list-items";
     }
@@ -116,6 +149,7 @@ public class ItemController {
         model.addAttribute("sortDir", sortDir);
         model.addAttribute("reverseSortDir", sortDir.equals("asc") ? "desc" : "asc");
         model.addAttribute("filteredYear", year);
+        model.addAttribute("facets", facetService.getFacets(FacetFilter.of(null, null, year, null)));
         
         return "list-items";
     }
@@ -141,14 +175,25 @@ public class ItemController {
     public String updateItem(@PathVariable Long id,
                            @Valid @ModelAttribute("item") Item item,
                            BindingResult result,
-                           Model model) {
+                           @RequestParam(required = false) Integer originalQuantity,
+                           Model model,
+                           HttpServletResponse response) {
         if (result.hasErrors()) {
             item.setId(id); // Ensure the ID is preserved
+            model.addAttribute("originalQuantity", originalQuantity);
             return "edit-item";
         }
         
-        item.setId(id); // Ensure the ID is set for update
-        itemService.saveItem(item);
+        try {
+            itemService.updateItem(id, item, originalQuantity);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // Someone else saved this item since the form was loaded: show their version instead of overwriting it
+            response.setStatus(HttpServletResponse.SC_CONFLICT);
+            model.addAttribute("item", itemService.getItemById(id));
+            model.addAttribute("conflictMessage",
+                "This item was changed by someone else while you were editing. The latest values are shown; re-apply your changes and save again.");
+            return "edit-item";
+        }
         return "redirect:/items/list";
     }
     
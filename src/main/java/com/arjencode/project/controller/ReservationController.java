@@ -0,0 +1,68 @@
+package com.arjencode.project.controller;
+
+import com.arjencode.project.service.ReservationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Supplier;
+
+// Stock holds for the order flow: reserve, then confirm or release before the hold expires
+@RestController
+@RequestMapping("/api/reservations")
+public class ReservationController {
+
+    private final ReservationService reservationService;
+
+    @Autowired
+    public ReservationController(ReservationService reservationService) {
+        this.reservationService = reservationService;
+    }
+
+    // Hold stock; 409 when not enough is available to promise
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> reserve(@RequestParam Long itemId,
+                                                       @RequestParam(defaultValue = "1") int quantity,
+                                                       @RequestParam(required = false) Long ttlSeconds) {
+        return handle(() -> reservationService.reserve(itemId, quantity, ttlSeconds)
+            .map(hold -> ResponseEntity.status(HttpStatus.CREATED).body(hold))
+            .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("error", "Not enough stock available", "availability", reservationService.getAvailability(itemId)))));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<Map<String, Object>> getReservation(@PathVariable String id) {
+        return handle(() -> ResponseEntity.ok(reservationService.getReservation(id)));
+    }
+
+    @PostMapping("/{id}/confirm")
+    public ResponseEntity<Map<String, Object>> confirm(@PathVariable String id) {
+        return handle(() -> ResponseEntity.ok(reservationService.confirm(id)));
+    }
+
+    @PostMapping("/{id}/release")
+    public ResponseEntity<Map<String, Object>> release(@PathVariable String id) {
+        return handle(() -> ResponseEntity.ok(reservationService.release(id)));
+    }
+
+    // On-hand, reserved and available-to-promise stock of an item
+    @GetMapping("/availability/{itemId}")
+    public ResponseEntity<Map<String, Object>> getAvailability(@PathVariable Long itemId) {
+        return handle(() -> ResponseEntity.ok(reservationService.getAvailability(itemId)));
+    }
+
+    private ResponseEntity<Map<String, Object>> handle(Supplier<ResponseEntity<Map<String, Object>>> action) {
+        try {
+            return action.get();
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.arjencode.project.event;
+
+// Published after stock at a distribution center changes through this application
+// (replenishment requests, items added or deleted). centerId is null when unknown.
+public class DistributionCenterChangedEvent {
+
+    private final Long centerId;
+    private final boolean remote;
+
+    public DistributionCenterChangedEvent(Long centerId) {
+        this(centerId, false);
+    }
+
+    public DistributionCenterChangedEvent(Long centerId, boolean remote) {
+        this.centerId = centerId;
+        this.remote = remote;
+    }
+
+    public Long getCenterId() {
+        return centerId;
+    }
+
+    public boolean isRemote() {
+        return remote;
+    }
+
+    @Override
+    public String toString() {
+        return "DistributionCenterChangedEvent{" +
+                "centerId=" + centerId +
+                ", remote=" + remote +
+                '}';
+    }
+}
@@ -0,0 +1,97 @@
+package com.arjencode.project.event;
+
+// Published after an item is created, edited, deleted or has its stock changed.
+// "before" is null for creations and "after" is null for deletions.
+// Remote events are replays of changes made on another node (scale-out mode); they exist to keep
+// local caches coherent, so listeners with side effects (writes, outbound calls) should skip them.
+public class ItemChangedEvent {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED,
+        STOCK_CHANGED
+    }
+
+    private final Type type;
+    private final ItemSnapshot before;
+    private final ItemSnapshot after;
+    private final boolean remote;
+    // Distribution center the stock came from, for replenishments
+    private final Long centerId;
+
+    public ItemChangedEvent(Type type, ItemSnapshot before, ItemSnapshot after) {
+        this(type, before, after, false, null);
+    }
+
+    public ItemChangedEvent(Type type, ItemSnapshot before, ItemSnapshot after, boolean remote) {
+        this(type, before, after, remote, null);
+    }
+
+    public ItemChangedEvent(Type type, ItemSnapshot before, ItemSnapshot after, boolean remote, Long centerId) {
+        this.type = type;
+        this.before = before;
+        this.after = after;
+        this.remote = remote;
+        this.centerId = centerId;
+    }
+
+    public static ItemChangedEvent created(ItemSnapshot after) {
+        return new ItemChangedEvent(Type.CREATED, null, after);
+    }
+
+    public static ItemChangedEvent updated(ItemSnapshot before, ItemSnapshot after) {
+        return new ItemChangedEvent(Type.UPDATED, before, after);
+    }
+
+    public static ItemChangedEvent deleted(ItemSnapshot before) {
+        return new ItemChangedEvent(Type.DELETED, before, null);
+    }
+
+    public static ItemChangedEvent stockChanged(ItemSnapshot before, ItemSnapshot after) {
+        return new ItemChangedEvent(Type.STOCK_CHANGED, before, after);
+    }
+
+    // Stock received from a distribution center; the item is created if it wasn't stocked before
+    public static ItemChangedEvent replenished(ItemSnapshot before, ItemSnapshot after, Long centerId) {
+        return new ItemChangedEvent(before == null ? Type.CREATED : Type.STOCK_CHANGED, before, after, false, centerId);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public ItemSnapshot getBefore() {
+        return before;
+    }
+
+    public ItemSnapshot getAfter() {
+        return after;
+    }
+
+    public boolean isRemote() {
+        return remote;
+    }
+
+    public Long getCenterId() {
+        return centerId;
+    }
+
+    public Long getItemId() {
+        return after != null ? after.id() : before.id();
+    }
+
+    public String getBrand() {
+        return after != null ? after.brand() : before.brand();
+    }
+
+    @Override
+    public String toString() {
+        return "ItemChangedEvent{" +
+                "type=" + type +
+                ", itemId=" + getItemId() +
+                ", brand='" + getBrand() + '\'' +
+                ", remote=" + remote +
+                '}';
+    }
+}
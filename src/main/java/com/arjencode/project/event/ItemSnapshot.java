@@ -0,0 +1,26 @@
+package com.arjencode.project.event;
+
+import com.arjencode.project.model.Item;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Immutable copy of an item's state at the time of a change, safe to hand to async listeners
+public record ItemSnapshot(Long id,
+                           String name,
+                           String brand,
+                           String category,
+                           BigDecimal price,
+                           Integer year,
+                           Integer quantity,
+                           Long warehouseId,
+                           LocalDateTime createdAt,
+                           LocalDateTime updatedAt,
+                           Long version) {
+
+    public static ItemSnapshot of(Item item) {
+        return new ItemSnapshot(item.getId(), item.getName(), item.getBrand(), item.getCategory(),
+            item.getPrice(), item.getYear(), item.getQuantity(), item.getWarehouseId(), item.getCreatedAt(), item.getUpdatedAt(),
+            item.getVersion());
+    }
+}
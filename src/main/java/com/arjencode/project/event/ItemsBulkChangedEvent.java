@@ -0,0 +1,47 @@
+package com.arjencode.project.event;
+
+// Published after a set-based update or delete touched many items at once.
+// There are no per-item snapshots, so listeners should drop or reload whatever they derive from the catalog.
+public class ItemsBulkChangedEvent {
+
+    public enum Operation {
+        PRICE_ADJUSTED,
+        QUANTITY_SET,
+        DELETED
+    }
+
+    private final Operation operation;
+    private final int affectedRows;
+    private final boolean remote;
+
+    public ItemsBulkChangedEvent(Operation operation, int affectedRows) {
+        this(operation, affectedRows, false);
+    }
+
+    public ItemsBulkChangedEvent(Operation operation, int affectedRows, boolean remote) {
+        this.operation = operation;
+        this.affectedRows = affectedRows;
+        this.remote = remote;
+    }
+
+    public Operation getOperation() {
+        return operation;
+    }
+
+    public int getAffectedRows() {
+        return affectedRows;
+    }
+
+    public boolean isRemote() {
+        return remote;
+    }
+
+    @Override
+    public String toString() {
+        return "ItemsBulkChangedEvent{" +
+                "operation=" + operation +
+                ", affectedRows=" + affectedRows +
+                ", remote=" + remote +
+                '}';
+    }
+}
@@ -5,11 +5,20 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.OptimisticLock;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+// Edits are optimistically locked on "version" and only write the columns that changed.
+// Stock (quantity) is excluded from the version check: it's adjusted atomically in the database
+// by replenishment, so stock updates never conflict with someone editing the item's details.
+// Stock is partitioned by warehouse: the same brand/name held in two warehouses is two rows.
 @Entity
-@Table(name = "items")
+@Table(name = "items", indexes = {
+    @Index(name = "idx_items_warehouse_brand_name", columnList = "warehouse_id, brand, name")
+})
+@DynamicUpdate
 public class Item {
     
     @Id
@@ -40,14 +49,21 @@ public class Item {
     @NotNull(message = "Quantity is required")
     @PositiveOrZero(message = "Quantity must be zero or positive")
     @Column(nullable = false)
+    @OptimisticLock(excluded = true)
     private Integer quantity = 0;
     
+    @Column(name = "warehouse_id")
+    private Long warehouseId;
+    
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    @Version
+    private Long version;
+    
     // Default constructor
     public Item() {
         this.createdAt = LocalDateTime.now();
@@ -133,6 +149,14 @@ public class Item {
         this.quantity = quantity;
     }
     
+    public Long getWarehouseId() {
+        return warehouseId;
+    }
+    
+    public void setWarehouseId(Long warehouseId) {
+        this.warehouseId = warehouseId;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -149,6 +173,14 @@ public class Item {
         this.updatedAt = updatedAt;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     @PreUpdate
     public void preUpdate() {
         this.updatedAt = LocalDateTime.now();
@@ -164,6 +196,7 @@ public class Item {
                 ", price=" + price +
                 ", year=" + year +
                 ", quantity=" + quantity +
+                ", warehouseId=" + warehouseId +
                 ", createdAt=" + createdAt +
                 ", updatedAt=" + updatedAt +
                 '}';
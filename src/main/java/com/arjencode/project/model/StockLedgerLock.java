@@ -0,0 +1,21 @@
+package com.arjencode.project.model;
+
+import jakarta.persistence.*;
+
+// Single row that serializes appends to the stock ledger with the snapshot job's watermark read.
+// Movement ids come from an identity column and are assigned before commit, so MAX(id) alone can
+// cover a row that commits later; writers hold this row until they commit, and the snapshot job
+// reads MAX(id) while holding it, so every movement up to the watermark is already committed.
+@Entity
+@Table(name = "stock_ledger_lock")
+public class StockLedgerLock {
+
+    public static final long ID = 1L;
+
+    @Id
+    private Long id;
+
+    public Long getId() {
+        return id;
+    }
+}
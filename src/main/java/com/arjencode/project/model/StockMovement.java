@@ -0,0 +1,70 @@
+package com.arjencode.project.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// One append-only entry in the stock ledger: a signed quantity change for an item.
+// Current stock of an item is the sum of its deltas; rows are never updated or deleted.
+@Entity
+@Table(name = "stock_movements", indexes = {
+    @Index(name = "idx_stock_movements_item", columnList = "item_id, id"),
+    @Index(name = "idx_stock_movements_occurred", columnList = "occurred_at")
+})
+public class StockMovement {
+
+    public enum Reason {
+        OPENING,
+        CREATED,
+        EDITED,
+        REPLENISHED,
+        ADJUSTED,
+        DELETED,
+        BULK_SET,
+        BULK_DELETED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "item_id", nullable = false)
+    private Long itemId;
+
+    @Column(nullable = false)
+    private Integer delta;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Reason reason;
+
+    // Distribution center the stock came from, for replenishments
+    @Column(name = "center_id")
+    private Long centerId;
+
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getItemId() {
+        return itemId;
+    }
+
+    public Integer getDelta() {
+        return delta;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    public Long getCenterId() {
+        return centerId;
+    }
+
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+}
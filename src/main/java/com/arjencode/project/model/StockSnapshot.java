@@ -0,0 +1,49 @@
+package com.arjencode.project.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Periodic checkpoint of an item's stock: the sum of its ledger deltas up to lastMovementId.
+// asOf is the latest occurredAt covered, so the snapshot is valid for any point in time at or after it.
+@Entity
+@Table(name = "stock_snapshots", indexes = {
+    @Index(name = "idx_stock_snapshots_item", columnList = "item_id, last_movement_id")
+})
+public class StockSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "item_id", nullable = false)
+    private Long itemId;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(name = "last_movement_id", nullable = false)
+    private Long lastMovementId;
+
+    @Column(name = "as_of", nullable = false)
+    private LocalDateTime asOf;
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getItemId() {
+        return itemId;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public Long getLastMovementId() {
+        return lastMovementId;
+    }
+
+    public LocalDateTime getAsOf() {
+        return asOf;
+    }
+}
@@ -1,14 +1,20 @@
 package com.arjencode.project.repository;
 
 import com.arjencode.project.model.Item;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
@@ -28,6 +34,12 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
     // Find items by brand and name (for integration service)
     List<Item> findByBrandAndName(String brand, String name);
     
+    // Find a warehouse's stock of an item
+    List<Item> findByBrandAndNameAndWarehouseId(String brand, String name, Long warehouseId);
+    
+    // Count items stocked in a warehouse
+    long countByWarehouseId(Long warehouseId);
+    
     // Custom query to find items by specific brand and year 2022
     @Query("SELECT i FROM Item i WHERE i.brand = :brand AND i.year = 2022 ORDER BY i.name ASC")
     List<Item> findItemsByBrandAndYear2022(@Param("brand") String brand);
@@ -43,4 +55,16 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
     
     // Find items by name containing (case-insensitive search)
     Page<Item> findByNameContainingIgnoreCase(String name, Pageable pageable);
+    
+    // Load an item and lock its row until the transaction ends (SELECT ... FOR UPDATE)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Item i WHERE i.id = :id")
+    Optional<Item> findByIdForUpdate(@Param("id") Long id);
+    
+    // Atomically add to (or take from) an item's stock, never going below zero
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Item i SET i.quantity = CASE WHEN i.quantity + :delta < 0 THEN 0 ELSE i.quantity + :delta END, " +
+           "i.updatedAt = :now WHERE i.id = :id")
+    int adjustQuantity(@Param("id") Long id, @Param("delta") int delta, @Param("now") LocalDateTime now);
 } 
\ No newline at end of file
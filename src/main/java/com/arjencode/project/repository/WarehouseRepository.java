@@ -0,0 +1,14 @@
+package com.arjencode.project.repository;
+
+import com.arjencode.project.model.Warehouse;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface WarehouseRepository extends JpaRepository<Warehouse, Long> {
+
+    // Find a warehouse by its unique code
+    Optional<Warehouse> findByCode(String code);
+}
@@ -0,0 +1,75 @@
+package com.arjencode.project.service;
+
+import com.arjencode.project.event.DistributionCenterChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+// Brand -> item lookups for the replenishment form, served page by page from the
+// cached distribution-center availability aggregate instead of inlined into the dashboard
+@Service
+public class AvailableItemsService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final DistributionCenterIntegrationService distributionCenterService;
+
+    @Autowired
+    public AvailableItemsService(DistributionCenterIntegrationService distributionCenterService) {
+        this.distributionCenterService = distributionCenterService;
+    }
+
+    // Get the brands that have at least one item in stock
+    @SuppressWarnings("unchecked")
+    public List<String> getAvailableBrands() {
+        Object brands = distributionCenterService.getAvailableItemsByBrand().get("brands");
+        return brands != null ? (List<String>) brands : Collections.emptyList();
+    }
+
+    // Get one page of a brand's available items, filtered by a case-insensitive name fragment
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> getAvailableItems(String brand, String query, int page, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        int pageNumber = Math.max(0, page);
+        String needle = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+
+        Map<String, Map<String, Integer>> itemsByBrand = (Map<String, Map<String, Integer>>)
+            distributionCenterService.getAvailableItemsByBrand().getOrDefault("itemsByBrand", Collections.emptyMap());
+        Map<String, Integer> brandItems = itemsByBrand.getOrDefault(brand, Collections.emptyMap());
+
+        List<Map<String, Object>> items = new ArrayList<>(pageSize);
+        long offset = (long) pageNumber * pageSize;
+        int matched = 0;
+        for (Map.Entry<String, Integer> entry : brandItems.entrySet()) {
+            if (!needle.isEmpty() && !entry.getKey().toLowerCase(Locale.ROOT).contains(needle)) {
+                continue;
+            }
+            if (matched >= offset && items.size() < pageSize) {
+                Map<String, Object> item = new HashMap<>();
+                item.put("name", entry.getKey());
+                item.put("quantity", entry.getValue());
+                items.add(item);
+            }
+            matched++;
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("brand", brand);
+        result.put("query", needle);
+        result.put("page", pageNumber);
+        result.put("size", pageSize);
+        result.put("totalItems", matched);
+        result.put("totalPages", (matched + pageSize - 1) / pageSize);
+        result.put("items", items);
+        return result;
+    }
+
+    // Stock at a center changed (here or on another node), so the availability aggregate is stale
+    @EventListener
+    @CacheEvict(cacheNames = "availableItems", allEntries = true)
+    public void onDistributionCenterChanged(DistributionCenterChangedEvent event) {
+    }
+}
@@ -0,0 +1,90 @@
+package com.arjencode.project.service;
+
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Executors for blocking work (distribution center calls, page reads) that follow the execution mode.
+// With platform threads the pool size is the concurrency limit. With spring.threads.virtual.enabled on
+// Java 21+ every task gets a virtual thread and a semaphore takes over the limit, so a task waiting
+// for a permit costs no pooled thread.
+final class BlockingTaskExecutors {
+
+    private BlockingTaskExecutors() {
+    }
+
+    static ExecutorService create(Environment environment, String threadNamePrefix, int maxConcurrent) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return new BoundedVirtualThreadExecutor(threadNamePrefix, maxConcurrent);
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        return Executors.newFixedThreadPool(maxConcurrent, runnable -> {
+            Thread thread = new Thread(runnable, threadNamePrefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Starts each task on a virtual thread, which then waits for one of maxConcurrent permits
+    private static final class BoundedVirtualThreadExecutor extends AbstractExecutorService {
+
+        private final ExecutorService threads;
+        private final Semaphore permits;
+
+        private BoundedVirtualThreadExecutor(String threadNamePrefix, int maxConcurrent) {
+            // Idle virtual threads are cheap, so a cached pool is as good as a thread per task
+            this.threads = Executors.newCachedThreadPool(new VirtualThreadTaskExecutor(threadNamePrefix).getVirtualThreadFactory());
+            this.permits = new Semaphore(maxConcurrent);
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            threads.execute(() -> {
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                try {
+                    command.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        }
+
+        @Override
+        public void shutdown() {
+            threads.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return threads.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return threads.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return threads.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return threads.awaitTermination(timeout, unit);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.arjencode.project.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Selects the items a bulk operation applies to; null means "any".
+public record BulkItemFilter(String brand, String category, Integer year) {
+
+    public static BulkItemFilter of(String brand, String category, Integer year) {
+        return new BulkItemFilter(blankToNull(brand), blankToNull(category), year);
+    }
+
+    public boolean isEmpty() {
+        return brand == null && category == null && year == null;
+    }
+
+    @Override
+    public String toString() {
+        if (isEmpty()) {
+            return "all items";
+        }
+        List<String> parts = new ArrayList<>();
+        if (brand != null) {
+            parts.add("brand=" + brand);
+        }
+        if (category != null) {
+            parts.add("category=" + category);
+        }
+        if (year != null) {
+            parts.add("year=" + year);
+        }
+        return String.join(", ", parts);
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+}
@@ -0,0 +1,216 @@
+package com.arjencode.project.service;
+
+import com.arjencode.project.event.ItemsBulkChangedEvent;
+import com.arjencode.project.model.StockMovement;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntSupplier;
+import java.util.function.ToIntFunction;
+
+// Set-based admin operations: each one is a single UPDATE or DELETE over the filtered items (stock
+// changes: over their locked ids, in chunks) instead of a load-and-save per item. Bulk statements
+// bypass entity callbacks, so updatedAt is set explicitly, and price changes bump the version so an
+// edit form opened earlier can't overwrite them.
+@Service
+public class BulkItemService {
+
+    private static final BigDecimal MIN_PRICE = new BigDecimal("0.01");
+    private static final int ID_CHUNK_SIZE = 1000;
+
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final StockLedgerService stockLedgerService;
+
+    @Autowired
+    public BulkItemService(EntityManager entityManager, ApplicationEventPublisher eventPublisher,
+                           StockLedgerService stockLedgerService) {
+        this.entityManager = entityManager;
+        this.eventPublisher = eventPublisher;
+        this.stockLedgerService = stockLedgerService;
+    }
+
+    // Count the items a bulk operation would touch
+    @Transactional(readOnly = true)
+    public long countMatching(BulkItemFilter filter) {
+        TypedQuery<Long> query = entityManager.createQuery("SELECT COUNT(i) FROM Item i" + whereClause(filter), Long.class);
+        bindFilter(query, filter);
+        return query.getSingleResult();
+    }
+
+    // Raise or lower prices by a percentage, rounded to cents and never below $0.01
+    @Transactional
+    public Map<String, Object> adjustPrices(BulkItemFilter filter, BigDecimal percent, boolean dryRun) {
+        if (percent == null || percent.compareTo(BigDecimal.valueOf(-100)) <= 0) {
+            throw new IllegalArgumentException("Price adjustment must be greater than -100%");
+        }
+        String description = "Adjust price by " + percent.stripTrailingZeros().toPlainString() + "%";
+        if (dryRun) {
+            return result(description, filter, true, countMatching(filter));
+        }
+        requireFilter(filter);
+
+        BigDecimal factor = BigDecimal.ONE.add(percent.movePointLeft(2));
+        Query query = entityManager.createQuery(
+            "UPDATE Item i SET i.price = CASE WHEN ROUND(i.price * :factor, 2) < :minPrice THEN :minPrice " +
+            "ELSE ROUND(i.price * :factor, 2) END, i.updatedAt = :now, i.version = i.version + 1" + whereClause(filter));
+        query.setParameter("factor", factor);
+        query.setParameter("minPrice", MIN_PRICE);
+        query.setParameter("now", LocalDateTime.now());
+        bindFilter(query, filter);
+        return execute(query::executeUpdate, description, filter, ItemsBulkChangedEvent.Operation.PRICE_ADJUSTED);
+    }
+
+    // Set the same stock quantity on every matching item
+    @Transactional
+    public Map<String, Object> setQuantity(BulkItemFilter filter, int quantity, boolean dryRun) {
+        if (quantity < 0) {
+            throw new IllegalArgumentException("Quantity must be zero or positive");
+        }
+        String description = "Set quantity to " + quantity;
+        if (dryRun) {
+            return result(description, filter, true, countMatching(filter));
+        }
+        requireFilter(filter);
+        LocalDateTime now = LocalDateTime.now();
+
+        // Ledger entries for the changed rows, set-based like the update itself. Both statements cover
+        // exactly the locked rows, so no concurrent write lands between the ledger's read and the update.
+        List<Long> ids = lockMatching(filter);
+        stockLedgerService.lockForAppend();
+        forEachChunk(ids, chunk -> {
+            Query ledger = entityManager.createQuery(
+                "INSERT INTO StockMovement (itemId, delta, reason, occurredAt) " +
+                "SELECT i.id, :quantity - i.quantity, :reason, :now FROM Item i WHERE i.id IN :ids AND i.quantity <> :quantity");
+            ledger.setParameter("quantity", quantity);
+            ledger.setParameter("reason", StockMovement.Reason.BULK_SET);
+            ledger.setParameter("now", now);
+            ledger.setParameter("ids", chunk);
+            return ledger.executeUpdate();
+        });
+
+        return execute(() -> forEachChunk(ids, chunk -> {
+            Query query = entityManager.createQuery(
+                "UPDATE Item i SET i.quantity = :quantity, i.updatedAt = :now WHERE i.id IN :ids");
+            query.setParameter("quantity", quantity);
+            query.setParameter("now", now);
+            query.setParameter("ids", chunk);
+            return query.executeUpdate();
+        }), description, filter, ItemsBulkChangedEvent.Operation.QUANTITY_SET);
+    }
+
+    // Delete every matching item
+    @Transactional
+    public Map<String, Object> deleteMatching(BulkItemFilter filter, boolean dryRun) {
+        String description = "Delete";
+        if (dryRun) {
+            return result(description, filter, true, countMatching(filter));
+        }
+        requireFilter(filter);
+
+        List<Long> ids = lockMatching(filter);
+        stockLedgerService.lockForAppend();
+        LocalDateTime now = LocalDateTime.now();
+        forEachChunk(ids, chunk -> {
+            Query ledger = entityManager.createQuery(
+                "INSERT INTO StockMovement (itemId, delta, reason, occurredAt) " +
+                "SELECT i.id, -i.quantity, :reason, :now FROM Item i WHERE i.id IN :ids AND i.quantity <> 0");
+            ledger.setParameter("reason", StockMovement.Reason.BULK_DELETED);
+            ledger.setParameter("now", now);
+            ledger.setParameter("ids", chunk);
+            return ledger.executeUpdate();
+        });
+
+        return execute(() -> forEachChunk(ids, chunk -> {
+            Query query = entityManager.createQuery("DELETE FROM Item i WHERE i.id IN :ids");
+            query.setParameter("ids", chunk);
+            return query.executeUpdate();
+        }), description, filter, ItemsBulkChangedEvent.Operation.DELETED);
+    }
+
+    // Lock the matching rows until the transaction ends (SELECT ... FOR UPDATE, in id order so two bulk
+    // operations over overlapping filters can't deadlock). Single-item writers lock their row the same way.
+    private List<Long> lockMatching(BulkItemFilter filter) {
+        TypedQuery<Long> query = entityManager.createQuery("SELECT i.id FROM Item i" + whereClause(filter) + " ORDER BY i.id", Long.class);
+        query.setLockMode(LockModeType.PESSIMISTIC_WRITE);
+        bindFilter(query, filter);
+        return query.getResultList();
+    }
+
+    // Run a statement per chunk of ids (keeps IN lists within driver parameter limits); returns the rows affected
+    private static int forEachChunk(List<Long> ids, ToIntFunction<List<Long>> statement) {
+        int affected = 0;
+        for (int from = 0; from < ids.size(); from += ID_CHUNK_SIZE) {
+            affected += statement.applyAsInt(ids.subList(from, Math.min(from + ID_CHUNK_SIZE, ids.size())));
+        }
+        return affected;
+    }
+
+    private Map<String, Object> execute(IntSupplier statement, String description, BulkItemFilter filter,
+                                        ItemsBulkChangedEvent.Operation operation) {
+        long start = System.nanoTime();
+        int affected = statement.getAsInt();
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("Bulk operation '" + description + "' on " + filter + ": " + affected + " rows in " + elapsedMs + " ms");
+
+        if (affected > 0) {
+            eventPublisher.publishEvent(new ItemsBulkChangedEvent(operation, affected));
+        }
+        Map<String, Object> result = result(description, filter, false, affected);
+        result.put("elapsedMs", elapsedMs);
+        return result;
+    }
+
+    // A whole-catalog bulk write is almost always a mistake in the form, so one filter is required
+    private static void requireFilter(BulkItemFilter filter) {
+        if (filter.isEmpty()) {
+            throw new IllegalArgumentException("Select at least a brand, category or year for bulk changes");
+        }
+    }
+
+    private static String whereClause(BulkItemFilter filter) {
+        StringBuilder where = new StringBuilder();
+        if (filter.brand() != null) {
+            where.append(" AND i.brand = :brand");
+        }
+        if (filter.category() != null) {
+            where.append(" AND i.category = :category");
+        }
+        if (filter.year() != null) {
+            where.append(" AND i.year = :year");
+        }
+        return where.isEmpty() ? "" : " WHERE" + where.substring(4);
+    }
+
+    private static void bindFilter(Query query, BulkItemFilter filter) {
+        if (filter.brand() != null) {
+            query.setParameter("brand", filter.brand());
+        }
+        if (filter.category() != null) {
+            query.setParameter("category", filter.category());
+        }
+        if (filter.year() != null) {
+            query.setParameter("year", filter.year());
+        }
+    }
+
+    private static Map<String, Object> result(String description, BulkItemFilter filter, boolean dryRun, long rows) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("operation", description);
+        result.put("filter", filter.toString());
+        result.put("dryRun", dryRun);
+        result.put(dryRun ? "matchingItems" : "affectedItems", rows);
+        return result;
+    }
+}
@@ -0,0 +1,138 @@
+package com.arjencode.project.service;
+
+// Count-based circuit breaker for one outbound operation. Opens when the failure rate over the last
+// windowSize calls reaches the threshold, fails fast while open, then lets a single trial call through
+// (half-open) after the open duration: success closes it again, failure re-opens it.
+// Permissions are tagged with the state period they were granted in, so a slow call that started
+// before a transition can't decide the trial or count towards the new window.
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    // Returned by tryAcquirePermission when the call must not proceed
+    public static final long REJECTED = -1;
+
+    private final String name;
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openDurationNanos;
+
+    // Ring buffer of recent outcomes (true = failure)
+    private final boolean[] outcomes;
+    private int position;
+    private int recorded;
+    private int failures;
+
+    private State state = State.CLOSED;
+    // Bumped on every transition; permissions carry the value they were granted under
+    private long period;
+    private long openedAt;
+    private boolean trialInFlight;
+    private long rejectedCalls;
+
+    public CircuitBreaker(String name, int windowSize, int minimumCalls, double failureRateThreshold, long openDurationMs) {
+        this.name = name;
+        this.windowSize = windowSize;
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDurationNanos = openDurationMs * 1_000_000L;
+        this.outcomes = new boolean[windowSize];
+    }
+
+    // A permission for one call, or REJECTED; every permitted call must end in onSuccess, onError or
+    // onIgnored with the permission it was given
+    public synchronized long tryAcquirePermission() {
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openDurationNanos) {
+            state = State.HALF_OPEN;
+            period++;
+            trialInFlight = false;
+        }
+        if (state == State.CLOSED) {
+            return period;
+        }
+        if (state == State.HALF_OPEN && !trialInFlight) {
+            trialInFlight = true;
+            return period;
+        }
+        rejectedCalls++;
+        return REJECTED;
+    }
+
+    public synchronized void onSuccess(long permission) {
+        if (permission != period) {
+            return; // granted before the last transition
+        }
+        if (state == State.HALF_OPEN) {
+            transitionTo(State.CLOSED);
+            return;
+        }
+        record(false);
+    }
+
+    public synchronized void onError(long permission) {
+        if (permission != period) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            transitionTo(State.OPEN);
+            return;
+        }
+        record(true);
+        if (state == State.CLOSED && recorded >= minimumCalls && getFailureRate() >= failureRateThreshold) {
+            transitionTo(State.OPEN);
+        }
+    }
+
+    // The call never reached the remote side (e.g. no bulkhead slot); give back a half-open trial
+    public synchronized void onIgnored(long permission) {
+        if (permission == period && state == State.HALF_OPEN) {
+            trialInFlight = false;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized double getFailureRate() {
+        return recorded == 0 ? 0 : (double) failures / recorded;
+    }
+
+    public synchronized long getRejectedCalls() {
+        return rejectedCalls;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    private void record(boolean failure) {
+        if (recorded == windowSize && outcomes[position]) {
+            failures--;
+        }
+        outcomes[position] = failure;
+        if (failure) {
+            failures++;
+        }
+        position = (position + 1) % windowSize;
+        recorded = Math.min(recorded + 1, windowSize);
+    }
+
+    private void transitionTo(State next) {
+        System.out.println("Circuit breaker '" + name + "': " + state + " -> " + next
+            + String.format(" (failure rate %.0f%%)", getFailureRate() * 100));
+        state = next;
+        period++;
+        trialInFlight = false;
+        if (next == State.OPEN) {
+            openedAt = System.nanoTime();
+        } else {
+            // A closed breaker starts with a fresh window
+            java.util.Arrays.fill(outcomes, false);
+            position = 0;
+            recorded = 0;
+            failures = 0;
+        }
+    }
+}
@@ -0,0 +1,656 @@
+package com.arjencode.project.service;
+
+import com.arjencode.project.event.ItemChangedEvent;
+import com.arjencode.project.event.ItemSnapshot;
+import com.arjencode.project.event.ItemsBulkChangedEvent;
+import com.arjencode.project.model.Item;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Optional in-memory columnar replica of the items table for browse traffic.
+// Prices are stored as cents, brand/category are dictionary-encoded, and every sortable
+// field has a precomputed sort permutation that is repaired incrementally on item change events.
+// Full loads run on a background thread and read the primary; changes committed while a load runs
+// are replayed onto the new snapshot before it replaces the old one. A bulk change drops the snapshot
+// until a load that started after it completes, so reads go to the database meanwhile.
+// Strings sort by code point (String.compareTo), which matches the database only under a binary
+// collation such as PostgreSQL's "C"; see the README.
+@Service
+@ConditionalOnProperty(name = "catalog.columnar.enabled", havingValue = "true")
+public class ColumnarCatalog {
+
+    private static final String LOAD_SQL =
+        "SELECT id, name, brand, category, price, item_year, quantity, created_at, updated_at, version, warehouse_id FROM items";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate primaryTransaction;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // One loader thread, so loads never overlap; a reload requested while one runs is queued once
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "columnar-catalog-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean reloadQueued = new AtomicBoolean();
+
+    private volatile Columns columns;
+    // Changes committed while a load runs (guarded by the write lock); null when no load is running
+    private List<ItemChangedEvent> committedDuringLoad;
+    // Bulk changes seen so far (guarded by the write lock); a load that started before the latest one is discarded
+    private long bulkChanges;
+
+    @Autowired
+    public ColumnarCatalog(DataSource dataSource, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(10_000);
+        // Read-write, so a replica (datasource.replica.enabled) can't serve a snapshot that lags behind the events
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    // Build the snapshot once the sample/generated data is in place; queries use the database until then
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reloadInBackground();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        loader.shutdownNow();
+    }
+
+    // Read the whole table into a new snapshot, replay what committed meanwhile, then swap it in
+    public void load() {
+        long start = System.nanoTime();
+        long bulkChangesAtStart;
+        lock.writeLock().lock();
+        try {
+            committedDuringLoad = new ArrayList<>();
+            bulkChangesAtStart = bulkChanges;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Columns loaded;
+        try {
+            // A transaction lets the driver stream rows with the fetch size instead of buffering the table
+            loaded = primaryTransaction.execute(status -> {
+                Columns building = new Columns(1024);
+                jdbcTemplate.query(LOAD_SQL, rs -> {
+                    building.append(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                        toCents(rs.getBigDecimal(5)), rs.getInt(6), rs.getInt(7),
+                        toMillis(rs.getTimestamp(8)), toMillis(rs.getTimestamp(9)),
+                        toVersion(rs.getObject(10, Long.class)), toWarehouse(rs.getObject(11, Long.class)));
+                });
+                return building;
+            });
+            loaded.buildPermutations();
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                committedDuringLoad = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        int replayed;
+        lock.writeLock().lock();
+        try {
+            if (bulkChanges != bulkChangesAtStart) {
+                // The query may have run before the bulk statement committed; the reload it queued replaces this one
+                committedDuringLoad = null;
+                System.out.println("Columnar catalog load discarded: a bulk change committed while it ran");
+                return;
+            }
+            // Events for rows the query already saw are skipped by the version check in upsert()
+            replayed = committedDuringLoad.size();
+            committedDuringLoad.forEach(loaded::apply);
+            committedDuringLoad = null;
+            columns = loaded;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        System.out.printf("Columnar catalog loaded %,d items in %d ms (%d changes replayed)%n",
+            loaded.liveCount, (System.nanoTime() - start) / 1_000_000, replayed);
+    }
+
+    private void reloadInBackground() {
+        if (reloadQueued.compareAndSet(false, true)) {
+            loader.execute(() -> {
+                reloadQueued.set(false);
+                try {
+                    load();
+                } catch (RuntimeException e) {
+                    System.err.println("Error loading columnar catalog: " + e.getMessage());
+                }
+            });
+        }
+    }
+
+    // Apply a committed item change to the columns and repair the affected sort permutations
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        boolean compact;
+        lock.writeLock().lock();
+        try {
+            if (committedDuringLoad != null) {
+                committedDuringLoad.add(event);
+            }
+            Columns current = columns;
+            if (current == null) {
+                return;
+            }
+            current.apply(event);
+            compact = current.shouldCompact();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (compact) {
+            reloadInBackground();
+        }
+    }
+
+    // A bulk statement may have touched any row, so stop serving the snapshot and rebuild from the database
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemsBulkChanged(ItemsBulkChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            bulkChanges++;
+            columns = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        reloadInBackground();
+    }
+
+    public boolean isLoaded() {
+        return columns != null;
+    }
+
+    // Answer a filter/sort/page request from memory; empty if the sort field isn't indexed or the catalog isn't loaded
+    public Optional<Page<Item>> findPage(String brand, String category, Integer year,
+                                         int page, int size, String sortBy, String sortDir) {
+        SortField field = SortField.fromProperty(sortBy);
+        if (field == null || size <= 0 || page < 0) {
+            return Optional.empty();
+        }
+        boolean ascending = sortDir.equalsIgnoreCase(Sort.Direction.ASC.name());
+        Sort sort = ascending ? Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
+        PageRequest pageable = PageRequest.of(page, size, sort);
+
+        lock.readLock().lock();
+        try {
+            Columns current = columns;
+            if (current == null) {
+                return Optional.empty();
+            }
+            return Optional.of(current.page(brand, category, year, field, ascending, pageable));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static long toCents(BigDecimal price) {
+        return price == null ? 0 : price.movePointRight(2).longValue();
+    }
+
+    private static long toMillis(Timestamp timestamp) {
+        return timestamp == null ? Long.MIN_VALUE : toMillis(timestamp.toLocalDateTime());
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime == null ? Long.MIN_VALUE : dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static LocalDateTime fromMillis(long millis) {
+        return millis == Long.MIN_VALUE ? null
+            : LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000), Math.floorMod(millis, 1000) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    // Nullable longs are stored with Long.MIN_VALUE standing for null
+    private static long toVersion(Long version) {
+        return version == null ? Long.MIN_VALUE : version;
+    }
+
+    private static long toWarehouse(Long warehouseId) {
+        return warehouseId == null ? Long.MIN_VALUE : warehouseId;
+    }
+
+    private static Long fromNullable(long value) {
+        return value == Long.MIN_VALUE ? null : value;
+    }
+
+    enum SortField {
+        ID("id"), NAME("name"), BRAND("brand"), CATEGORY("category"),
+        PRICE("price"), YEAR("year"), QUANTITY("quantity");
+
+        private final String property;
+
+        SortField(String property) {
+            this.property = property;
+        }
+
+        static SortField fromProperty(String property) {
+            for (SortField field : values()) {
+                if (field.property.equals(property)) {
+                    return field;
+                }
+            }
+            return null;
+        }
+    }
+
+    // Column storage; all mutation happens under the outer write lock
+    private static final class Columns {
+        private int rowCount;
+        private int liveCount;
+        private long[] ids;
+        private String[] names;
+        private int[] brandCodes;
+        private int[] categoryCodes;
+        private long[] priceCents;
+        private int[] years;
+        private int[] quantities;
+        private long[] createdAt;
+        private long[] updatedAt;
+        private long[] versions;
+        private long[] warehouseIds;
+        private final BitSet deleted = new BitSet();
+        private final Dictionary brands = new Dictionary();
+        private final Dictionary categories = new Dictionary();
+        private final Map<Integer, Integer> yearCounts = new HashMap<>();
+        private final LongIntMap rowsById = new LongIntMap();
+        // One array of live row numbers per sort field, ascending by (field, id)
+        private final int[][] permutations = new int[SortField.values().length][];
+
+        private Columns(int capacity) {
+            ids = new long[capacity];
+            names = new String[capacity];
+            brandCodes = new int[capacity];
+            categoryCodes = new int[capacity];
+            priceCents = new long[capacity];
+            years = new int[capacity];
+            quantities = new int[capacity];
+            createdAt = new long[capacity];
+            updatedAt = new long[capacity];
+            versions = new long[capacity];
+            warehouseIds = new long[capacity];
+        }
+
+        private int append(long id, String name, String brand, String category, long cents,
+                           int year, int quantity, long created, long updated, long version, long warehouseId) {
+            if (rowCount == ids.length) {
+                grow();
+            }
+            int row = rowCount++;
+            ids[row] = id;
+            names[row] = name;
+            brandCodes[row] = brands.encode(brand);
+            categoryCodes[row] = categories.encode(category);
+            priceCents[row] = cents;
+            years[row] = year;
+            quantities[row] = quantity;
+            createdAt[row] = created;
+            updatedAt[row] = updated;
+            versions[row] = version;
+            warehouseIds[row] = warehouseId;
+            rowsById.put(id, row);
+            countRow(row, 1);
+            liveCount++;
+            return row;
+        }
+
+        private void buildPermutations() {
+            int[] live = new int[liveCount];
+            int next = 0;
+            for (int row = 0; row < rowCount; row++) {
+                if (!deleted.get(row)) {
+                    live[next++] = row;
+                }
+            }
+            for (SortField field : SortField.values()) {
+                int[] permutation = Arrays.copyOf(live, Math.max(16, liveCount + liveCount / 4));
+                mergeSort(permutation, liveCount, field);
+                permutations[field.ordinal()] = permutation;
+            }
+        }
+
+        private void apply(ItemChangedEvent event) {
+            if (event.getType() == ItemChangedEvent.Type.DELETED) {
+                delete(event.getItemId());
+            } else {
+                upsert(event.getAfter());
+            }
+        }
+
+        private void upsert(ItemSnapshot item) {
+            int row = rowsById.get(item.id());
+            long updated = toMillis(item.updatedAt());
+            long version = toVersion(item.version());
+            if (row < 0) {
+                row = append(item.id(), item.name(), item.brand(), item.category(), toCents(item.price()),
+                    item.year(), item.quantity(), toMillis(item.createdAt()), updated, version, toWarehouse(item.warehouseId()));
+                for (SortField field : SortField.values()) {
+                    insertIntoPermutation(field, row);
+                }
+                return;
+            }
+            // Late event for a row we already have newer state for. Stock changes don't bump the version,
+            // so equal versions are ordered by updatedAt.
+            if (deleted.get(row) || version < versions[row] || (version == versions[row] && updated < updatedAt[row])) {
+                return;
+            }
+
+            int brandCode = brands.encode(item.brand());
+            int categoryCode = categories.encode(item.category());
+            long cents = toCents(item.price());
+            EnumSet<SortField> changed = EnumSet.noneOf(SortField.class);
+            if (!Objects.equals(names[row], item.name())) changed.add(SortField.NAME);
+            if (brandCodes[row] != brandCode) changed.add(SortField.BRAND);
+            if (categoryCodes[row] != categoryCode) changed.add(SortField.CATEGORY);
+            if (priceCents[row] != cents) changed.add(SortField.PRICE);
+            if (years[row] != item.year()) changed.add(SortField.YEAR);
+            if (quantities[row] != item.quantity()) changed.add(SortField.QUANTITY);
+
+            for (SortField field : changed) {
+                removeFromPermutation(field, row);
+            }
+            countRow(row, -1);
+            names[row] = item.name();
+            brandCodes[row] = brandCode;
+            categoryCodes[row] = categoryCode;
+            priceCents[row] = cents;
+            years[row] = item.year();
+            quantities[row] = item.quantity();
+            updatedAt[row] = updated;
+            versions[row] = version;
+            warehouseIds[row] = toWarehouse(item.warehouseId());
+            countRow(row, 1);
+            for (SortField field : changed) {
+                insertIntoPermutation(field, row);
+            }
+        }
+
+        private void delete(long id) {
+            int row = rowsById.get(id);
+            if (row < 0 || deleted.get(row)) {
+                return;
+            }
+            for (SortField field : SortField.values()) {
+                removeFromPermutation(field, row);
+            }
+            countRow(row, -1);
+            deleted.set(row);
+            liveCount--;
+        }
+
+        // Rebuild from the database once a quarter of the rows are tombstones
+        private boolean shouldCompact() {
+            return rowCount > 1024 && deleted.cardinality() > rowCount / 4;
+        }
+
+        private void countRow(int row, int delta) {
+            brands.count(brandCodes[row], delta);
+            categories.count(categoryCodes[row], delta);
+            yearCounts.merge(years[row], delta, Integer::sum);
+        }
+
+        private Page<Item> page(String brand, String category, Integer year, SortField field,
+                                boolean ascending, PageRequest pageable) {
+            int brandCode = brand == null ? -1 : brands.lookup(brand);
+            int categoryCode = category == null ? -1 : categories.lookup(category);
+            if ((brand != null && brandCode < 0) || (category != null && categoryCode < 0)) {
+                return new PageImpl<>(Collections.emptyList(), pageable, 0);
+            }
+
+            // Totals for single-dimension filters are maintained, so the scan can stop once the page is full
+            long knownTotal = -1;
+            if (brand == null && category == null && year == null) {
+                knownTotal = liveCount;
+            } else if (category == null && year == null) {
+                knownTotal = brands.countOf(brandCode);
+            } else if (brand == null && year == null) {
+                knownTotal = categories.countOf(categoryCode);
+            } else if (brand == null && category == null) {
+                knownTotal = yearCounts.getOrDefault(year, 0);
+            }
+
+            long offset = pageable.getOffset();
+            int[] permutation = permutations[field.ordinal()];
+            List<Item> content = new ArrayList<>(pageable.getPageSize());
+            long matched = 0;
+            for (int i = 0; i < liveCount; i++) {
+                int row = permutation[ascending ? i : liveCount - 1 - i];
+                if ((brandCode >= 0 && brandCodes[row] != brandCode)
+                        || (categoryCode >= 0 && categoryCodes[row] != categoryCode)
+                        || (year != null && years[row] != year)) {
+                    continue;
+                }
+                if (matched >= offset && content.size() < pageable.getPageSize()) {
+                    content.add(hydrate(row));
+                }
+                matched++;
+                if (knownTotal >= 0 && content.size() == pageable.getPageSize()) {
+                    matched = knownTotal;
+                    break;
+                }
+            }
+            return new PageImpl<>(content, pageable, knownTotal >= 0 ? knownTotal : matched);
+        }
+
+        // Materialize a detached Item for one page row only
+        private Item hydrate(int row) {
+            Item item = new Item(names[row], brands.value(brandCodes[row]), categories.value(categoryCodes[row]),
+                BigDecimal.valueOf(priceCents[row], 2), years[row], quantities[row]);
+            item.setId(ids[row]);
+            item.setCreatedAt(fromMillis(createdAt[row]));
+            item.setUpdatedAt(fromMillis(updatedAt[row]));
+            item.setVersion(fromNullable(versions[row]));
+            item.setWarehouseId(fromNullable(warehouseIds[row]));
+            return item;
+        }
+
+        // Called while the row is still counted in liveCount and before its values change
+        private void removeFromPermutation(SortField field, int row) {
+            int[] permutation = permutations[field.ordinal()];
+            int position = lowerBound(permutation, liveCount, field, row);
+            System.arraycopy(permutation, position + 1, permutation, position, liveCount - position - 1);
+        }
+
+        // Called after the row is counted in liveCount, so liveCount - 1 slots are populated
+        private void insertIntoPermutation(SortField field, int row) {
+            int[] permutation = permutations[field.ordinal()];
+            int length = liveCount - 1;
+            if (liveCount > permutation.length) {
+                permutation = Arrays.copyOf(permutation, permutation.length + permutation.length / 2 + 16);
+                permutations[field.ordinal()] = permutation;
+            }
+            int position = lowerBound(permutation, length, field, row);
+            System.arraycopy(permutation, position, permutation, position + 1, length - position);
+            permutation[position] = row;
+        }
+
+        private int lowerBound(int[] permutation, int length, SortField field, int row) {
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (compare(field, permutation[mid], row) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        // Total order on rows for a field, ties broken by id
+        private int compare(SortField field, int a, int b) {
+            int result = switch (field) {
+                case ID -> 0;
+                case NAME -> compareNullable(names[a], names[b]);
+                case BRAND -> compareNullable(brands.value(brandCodes[a]), brands.value(brandCodes[b]));
+                case CATEGORY -> compareNullable(categories.value(categoryCodes[a]), categories.value(categoryCodes[b]));
+                case PRICE -> Long.compare(priceCents[a], priceCents[b]);
+                case YEAR -> Integer.compare(years[a], years[b]);
+                case QUANTITY -> Integer.compare(quantities[a], quantities[b]);
+            };
+            return result != 0 ? result : Long.compare(ids[a], ids[b]);
+        }
+
+        private static int compareNullable(String a, String b) {
+            if (a == null || b == null) {
+                return a == null ? (b == null ? 0 : -1) : 1;
+            }
+            return a.compareTo(b);
+        }
+
+        // Stable merge sort of row numbers without boxing
+        private void mergeSort(int[] rows, int length, SortField field) {
+            int[] buffer = new int[length];
+            for (int width = 1; width < length; width *= 2) {
+                for (int left = 0; left < length - width; left += 2 * width) {
+                    int middle = left + width;
+                    int right = Math.min(left + 2 * width, length);
+                    int i = left, j = middle, k = left;
+                    while (i < middle && j < right) {
+                        buffer[k++] = compare(field, rows[i], rows[j]) <= 0 ? rows[i++] : rows[j++];
+                    }
+                    while (i < middle) buffer[k++] = rows[i++];
+                    while (j < right) buffer[k++] = rows[j++];
+                    System.arraycopy(buffer, left, rows, left, right - left);
+                }
+            }
+        }
+
+        private void grow() {
+            int capacity = ids.length + (ids.length >> 1) + 16;
+            ids = Arrays.copyOf(ids, capacity);
+            names = Arrays.copyOf(names, capacity);
+            brandCodes = Arrays.copyOf(brandCodes, capacity);
+            categoryCodes = Arrays.copyOf(categoryCodes, capacity);
+            priceCents = Arrays.copyOf(priceCents, capacity);
+            years = Arrays.copyOf(years, capacity);
+            quantities = Arrays.copyOf(quantities, capacity);
+            createdAt = Arrays.copyOf(createdAt, capacity);
+            updatedAt = Arrays.copyOf(updatedAt, capacity);
+            versions = Arrays.copyOf(versions, capacity);
+            warehouseIds = Arrays.copyOf(warehouseIds, capacity);
+        }
+    }
+
+    // String dictionary with a live-row count per code
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+        private int[] counts = new int[16];
+
+        private int encode(String value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                codes.put(value, code);
+                values.add(value);
+                if (code == counts.length) {
+                    counts = Arrays.copyOf(counts, counts.length * 2);
+                }
+            }
+            return code;
+        }
+
+        private int lookup(String value) {
+            return codes.getOrDefault(value, -1);
+        }
+
+        private String value(int code) {
+            return values.get(code);
+        }
+
+        private void count(int code, int delta) {
+            counts[code] += delta;
+        }
+
+        private int countOf(int code) {
+            return counts[code];
+        }
+    }
+
+    // Open-addressing long -> int map so the id index doesn't box millions of keys
+    private static final class LongIntMap {
+        private long[] keys = new long[1024];
+        private int[] values = new int[1024];
+        private boolean[] used = new boolean[1024];
+        private int size;
+
+        private int get(long key) {
+            int mask = keys.length - 1;
+            for (int slot = hash(key) & mask; used[slot]; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+            }
+            return -1;
+        }
+
+        private void put(long key, int value) {
+            if ((size + 1) * 2 > keys.length) {
+                rehash();
+            }
+            int mask = keys.length - 1;
+            int slot = hash(key) & mask;
+            while (used[slot] && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (!used[slot]) {
+                used[slot] = true;
+                keys[slot] = key;
+                size++;
+            }
+            values[slot] = value;
+        }
+
+        private void rehash() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            boolean[] oldUsed = used;
+            keys = new long[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2];
+            used = new boolean[oldKeys.length * 2];
+            size = 0;
+            for (int slot = 0; slot < oldKeys.length; slot++) {
+                if (oldUsed[slot]) {
+                    put(oldKeys[slot], oldValues[slot]);
+                }
+            }
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
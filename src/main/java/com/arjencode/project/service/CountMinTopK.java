@@ -0,0 +1,121 @@
+package com.arjencode.project.service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Count-Min sketch with a top-K candidate set: approximate counts for any number of distinct keys in a fixed
+// depth x width table of counters. Estimates never undercount; they overcount by at most about
+// e / width of the total with probability 1 - e^-depth. Only the K keys with the highest estimates are
+// remembered by name. Not thread-safe; SlidingHeavyHitters guards it.
+final class CountMinTopK {
+
+    private final long[][] counters;
+    private final int width;
+    private final int topK;
+    private final Map<String, Long> candidates;
+    private long total;
+
+    CountMinTopK(int depth, int width, int topK) {
+        this.counters = new long[depth][width];
+        this.width = width;
+        this.topK = topK;
+        this.candidates = new HashMap<>(topK * 2);
+    }
+
+    void add(String key, long count) {
+        long hash = hash64(key);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < counters.length; row++) {
+            int column = column(hash, row);
+            counters[row][column] += count;
+            estimate = Math.min(estimate, counters[row][column]);
+        }
+        total += count;
+        offerCandidate(key, estimate);
+    }
+
+    long estimate(String key) {
+        return estimate(counters, key);
+    }
+
+    // Add this sketch's counters into a table of the same shape (sketches of one shape are additive)
+    void mergeInto(long[][] target) {
+        for (int row = 0; row < counters.length; row++) {
+            long[] source = counters[row];
+            long[] sums = target[row];
+            for (int column = 0; column < width; column++) {
+                sums[column] += source[column];
+            }
+        }
+    }
+
+    Iterable<String> candidateKeys() {
+        return candidates.keySet();
+    }
+
+    long total() {
+        return total;
+    }
+
+    void clear() {
+        for (long[] row : counters) {
+            java.util.Arrays.fill(row, 0);
+        }
+        candidates.clear();
+        total = 0;
+    }
+
+    long[][] emptyTable() {
+        return new long[counters.length][width];
+    }
+
+    long estimate(long[][] table, String key) {
+        long hash = hash64(key);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < table.length; row++) {
+            estimate = Math.min(estimate, table[row][column(hash, row)]);
+        }
+        return estimate;
+    }
+
+    // Keep the key if it's already tracked or beats the smallest tracked estimate
+    private void offerCandidate(String key, long estimate) {
+        if (candidates.containsKey(key) || candidates.size() < topK) {
+            candidates.put(key, estimate);
+            return;
+        }
+        String smallestKey = null;
+        long smallest = Long.MAX_VALUE;
+        for (Map.Entry<String, Long> entry : candidates.entrySet()) {
+            if (entry.getValue() < smallest) {
+                smallest = entry.getValue();
+                smallestKey = entry.getKey();
+            }
+        }
+        if (estimate > smallest) {
+            candidates.remove(smallestKey);
+            candidates.put(key, estimate);
+        }
+    }
+
+    // Row hashes derived from one 64-bit hash (h1 + row * h2)
+    private int column(long hash, int row) {
+        int combined = (int) hash + row * (int) (hash >>> 32);
+        return (combined & Integer.MAX_VALUE) % width;
+    }
+
+    // FNV-1a over the UTF-16 chars, then a final avalanche (MurmurHash3 fmix64)
+    private static long hash64(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
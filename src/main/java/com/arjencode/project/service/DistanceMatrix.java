@@ -0,0 +1,229 @@
+package com.arjencode.project.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.LongPredicate;
+
+// Warehouse x distribution center distances in flat primitive arrays (row-major, one row per warehouse),
+// plus each row's center indexes ranked nearest-first. Changes are incremental: a new or moved
+// warehouse computes one row, a new or moved center one column, so Haversine only runs when a
+// location changes. Readers use an immutable snapshot that writers replace.
+@Component
+public class DistanceMatrix {
+
+    private static final double EARTH_RADIUS_KM = 6371;
+
+    private volatile Snapshot snapshot = new Snapshot(new long[0], new double[0], new double[0],
+        new long[0], new double[0], new double[0], new double[0], new int[0]);
+
+    // Add a warehouse or move an existing one
+    public synchronized void putWarehouse(long id, double latitude, double longitude) {
+        Snapshot s = snapshot;
+        double lat = Math.toRadians(latitude);
+        double lon = Math.toRadians(longitude);
+        int w = indexOf(s.warehouseIds, id);
+        if (w >= 0 && s.warehouseLat[w] == lat && s.warehouseLon[w] == lon) {
+            return;
+        }
+        int rows = w >= 0 ? s.warehouseIds.length : s.warehouseIds.length + 1;
+        int columns = s.centerIds.length;
+        if (w < 0) {
+            w = rows - 1;
+        }
+        long[] warehouseIds = Arrays.copyOf(s.warehouseIds, rows);
+        double[] warehouseLat = Arrays.copyOf(s.warehouseLat, rows);
+        double[] warehouseLon = Arrays.copyOf(s.warehouseLon, rows);
+        double[] distances = Arrays.copyOf(s.distances, rows * columns);
+        int[] rankings = Arrays.copyOf(s.rankings, rows * columns);
+        warehouseIds[w] = id;
+        warehouseLat[w] = lat;
+        warehouseLon[w] = lon;
+
+        int row = w * columns;
+        for (int c = 0; c < columns; c++) {
+            distances[row + c] = haversine(lat, lon, s.centerLat[c], s.centerLon[c]);
+            rankings[row + c] = c;
+        }
+        // Insertion sort of one row's center indexes by distance
+        for (int i = 1; i < columns; i++) {
+            int center = rankings[row + i];
+            int j = i - 1;
+            while (j >= 0 && distances[row + rankings[row + j]] > distances[row + center]) {
+                rankings[row + j + 1] = rankings[row + j];
+                j--;
+            }
+            rankings[row + j + 1] = center;
+        }
+        snapshot = new Snapshot(warehouseIds, warehouseLat, warehouseLon,
+            s.centerIds, s.centerLat, s.centerLon, distances, rankings);
+    }
+
+    // Add a distribution center or move an existing one
+    public synchronized void putCenter(long id, double latitude, double longitude) {
+        Snapshot s = snapshot;
+        double lat = Math.toRadians(latitude);
+        double lon = Math.toRadians(longitude);
+        int c = indexOf(s.centerIds, id);
+        if (c >= 0 && s.centerLat[c] == lat && s.centerLon[c] == lon) {
+            return;
+        }
+        boolean added = c < 0;
+        int rows = s.warehouseIds.length;
+        int oldColumns = s.centerIds.length;
+        int columns = added ? oldColumns + 1 : oldColumns;
+        if (added) {
+            c = oldColumns;
+        }
+        long[] centerIds = Arrays.copyOf(s.centerIds, columns);
+        double[] centerLat = Arrays.copyOf(s.centerLat, columns);
+        double[] centerLon = Arrays.copyOf(s.centerLon, columns);
+        centerIds[c] = id;
+        centerLat[c] = lat;
+        centerLon[c] = lon;
+
+        double[] distances = new double[rows * columns];
+        int[] rankings = new int[rows * columns];
+        for (int w = 0; w < rows; w++) {
+            int row = w * columns;
+            System.arraycopy(s.distances, w * oldColumns, distances, row, oldColumns);
+            distances[row + c] = haversine(s.warehouseLat[w], s.warehouseLon[w], lat, lon);
+
+            // Copy the old ranking without this center, then insert it at its new position
+            int ranked = 0;
+            for (int k = 0; k < oldColumns; k++) {
+                int center = s.rankings[w * oldColumns + k];
+                if (center != c) {
+                    rankings[row + ranked++] = center;
+                }
+            }
+            int position = ranked;
+            while (position > 0 && distances[row + rankings[row + position - 1]] > distances[row + c]) {
+                rankings[row + position] = rankings[row + position - 1];
+                position--;
+            }
+            rankings[row + position] = c;
+        }
+        snapshot = new Snapshot(s.warehouseIds, s.warehouseLat, s.warehouseLon,
+            centerIds, centerLat, centerLon, distances, rankings);
+    }
+
+    // Drop centers that are no longer reported by the distribution center API
+    public synchronized void retainCenters(Collection<Long> liveCenterIds) {
+        for (long id : snapshot.centerIds) {
+            if (!liveCenterIds.contains(id)) {
+                removeCenter(id);
+            }
+        }
+    }
+
+    public synchronized void removeCenter(long id) {
+        Snapshot s = snapshot;
+        int c = indexOf(s.centerIds, id);
+        if (c < 0) {
+            return;
+        }
+        int rows = s.warehouseIds.length;
+        int oldColumns = s.centerIds.length;
+        int columns = oldColumns - 1;
+        long[] centerIds = new long[columns];
+        double[] centerLat = new double[columns];
+        double[] centerLon = new double[columns];
+        for (int k = 0, j = 0; k < oldColumns; k++) {
+            if (k != c) {
+                centerIds[j] = s.centerIds[k];
+                centerLat[j] = s.centerLat[k];
+                centerLon[j] = s.centerLon[k];
+                j++;
+            }
+        }
+        double[] distances = new double[rows * columns];
+        int[] rankings = new int[rows * columns];
+        for (int w = 0; w < rows; w++) {
+            int oldRow = w * oldColumns;
+            int row = w * columns;
+            System.arraycopy(s.distances, oldRow, distances, row, c);
+            System.arraycopy(s.distances, oldRow + c + 1, distances, row + c, columns - c);
+            for (int k = 0, j = 0; k < oldColumns; k++) {
+                int center = s.rankings[oldRow + k];
+                if (center != c) {
+                    rankings[row + j++] = center > c ? center - 1 : center;
+                }
+            }
+        }
+        snapshot = new Snapshot(s.warehouseIds, s.warehouseLat, s.warehouseLon,
+            centerIds, centerLat, centerLon, distances, rankings);
+    }
+
+    // Distance in km, or NaN if the warehouse or center is unknown
+    public double distanceKm(long warehouseId, long centerId) {
+        Snapshot s = snapshot;
+        int w = indexOf(s.warehouseIds, warehouseId);
+        int c = indexOf(s.centerIds, centerId);
+        return w < 0 || c < 0 ? Double.NaN : s.distances[w * s.centerIds.length + c];
+    }
+
+    // Center ids ordered nearest-first from a warehouse (empty if the warehouse is unknown)
+    public long[] rankedCenters(long warehouseId) {
+        Snapshot s = snapshot;
+        int w = indexOf(s.warehouseIds, warehouseId);
+        if (w < 0) {
+            return new long[0];
+        }
+        int columns = s.centerIds.length;
+        long[] ranked = new long[columns];
+        for (int k = 0; k < columns; k++) {
+            ranked[k] = s.centerIds[s.rankings[w * columns + k]];
+        }
+        return ranked;
+    }
+
+    // Nearest center accepted by the filter, or -1 if none
+    public long nearestCenter(long warehouseId, LongPredicate eligible) {
+        Snapshot s = snapshot;
+        int w = indexOf(s.warehouseIds, warehouseId);
+        if (w < 0) {
+            return -1;
+        }
+        int columns = s.centerIds.length;
+        for (int k = 0; k < columns; k++) {
+            long centerId = s.centerIds[s.rankings[w * columns + k]];
+            if (eligible.test(centerId)) {
+                return centerId;
+            }
+        }
+        return -1;
+    }
+
+    public int warehouseCount() {
+        return snapshot.warehouseIds.length;
+    }
+
+    public int centerCount() {
+        return snapshot.centerIds.length;
+    }
+
+    // Warehouses and centers number in the tens, so a scan of the id array beats hashing boxed keys
+    private static int indexOf(long[] ids, long id) {
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Great-circle distance between two points given in radians
+    private static double haversine(double lat1, double lon1, double lat2, double lon2) {
+        double sinLat = Math.sin((lat2 - lat1) / 2);
+        double sinLon = Math.sin((lon2 - lon1) / 2);
+        double a = sinLat * sinLat + Math.cos(lat1) * Math.cos(lat2) * sinLon * sinLon;
+        return EARTH_RADIUS_KM * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+
+    private record Snapshot(long[] warehouseIds, double[] warehouseLat, double[] warehouseLon,
+                            long[] centerIds, double[] centerLat, double[] centerLon,
+                            double[] distances, int[] rankings) {
+    }
+}
@@ -0,0 +1,472 @@
+package com.arjencode.project.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+// Every call to the distribution center API goes through here, so a slow or failing API can't tie up
+// request threads:
+// - per-operation circuit breakers fail fast while the API is failing;
+// - a bulkhead (semaphore) caps concurrent outbound calls, and calls run on their own small pool;
+// - each call has a deadline, shared by nested calls made under withDeadline() and sent downstream
+//   as X-Request-Deadline-Ms;
+// - calls that change state are never abandoned at a deadline, since the caller couldn't tell whether
+//   the change happened; they run until answered or the write timeout;
+// - idempotent calls (GETs, and queries sent as a POST such as find-closest) end at the deadline and are
+//   hedged: if the first attempt is slower than the recent latency percentile, a duplicate is sent and
+//   the first answer wins;
+// - failed GETs fall back to the last good response for the same URL;
+// - responses are negotiated as Smile (binary JSON) with gzip when enabled, falling back to plain JSON
+//   when the API answers in JSON or rejects the binary type (406), and are decoded to a JsonNode.
+// State is exported as Micrometer metrics and through DistributionCenterHealthIndicator.
+@Component
+public class DistributionCenterClient {
+
+    public static final String STALE_HEADER = "X-Served-Stale";
+    private static final String DEADLINE_HEADER = "X-Request-Deadline-Ms";
+    private static final int LATENCY_SAMPLES = 128;
+    private static final int MIN_LATENCY_SAMPLES = 20;
+
+    // Plain JSON (and anything else, for non-JSON answers) stays acceptable, at a lower preference
+    private static final List<MediaType> BINARY_ACCEPT = List.of(PayloadCodec.SMILE,
+        MediaType.parseMediaType("application/json;q=0.5"), MediaType.parseMediaType("*/*;q=0.1"));
+    private static final List<MediaType> JSON_ACCEPT = List.of(MediaType.APPLICATION_JSON, MediaType.parseMediaType("*/*;q=0.1"));
+
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+
+    @Value("${distribution.center.client.connect-timeout-ms:1000}")
+    private int connectTimeoutMs;
+
+    @Value("${distribution.center.client.deadline-ms:3000}")
+    private long defaultDeadlineMs;
+
+    // Read timeout for calls that change state; only a lost connection or a hung API should reach it
+    @Value("${distribution.center.client.write-timeout-ms:30000}")
+    private int writeTimeoutMs;
+
+    @Value("${distribution.center.client.max-concurrent-calls:8}")
+    private int maxConcurrentCalls;
+
+    @Value("${distribution.center.client.bulkhead-max-wait-ms:100}")
+    private long bulkheadMaxWaitMs;
+
+    @Value("${distribution.center.client.hedge.enabled:true}")
+    private boolean hedgingEnabled;
+
+    @Value("${distribution.center.client.hedge.percentile:0.95}")
+    private double hedgePercentile;
+
+    // Used until an operation has enough latency samples
+    @Value("${distribution.center.client.hedge.default-delay-ms:500}")
+    private long defaultHedgeDelayMs;
+
+    // "smile" asks for binary JSON (plain JSON stays acceptable), "json" for text only
+    @Value("${distribution.center.client.encoding:smile}")
+    private String encoding;
+
+    @Value("${distribution.center.client.gzip:true}")
+    private boolean gzip;
+
+    @Value("${distribution.center.client.circuit.window-size:20}")
+    private int circuitWindowSize;
+
+    @Value("${distribution.center.client.circuit.minimum-calls:10}")
+    private int circuitMinimumCalls;
+
+    @Value("${distribution.center.client.circuit.failure-rate-threshold:0.5}")
+    private double circuitFailureRateThreshold;
+
+    @Value("${distribution.center.client.circuit.open-duration-ms:30000}")
+    private long circuitOpenDurationMs;
+
+    private final MeterRegistry meterRegistry;
+    private final Environment environment;
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    private final Map<String, LatencyWindow> latencies = new ConcurrentHashMap<>();
+    private final Map<String, JsonNode> lastGoodResponses = new ConcurrentHashMap<>();
+    private final PayloadCodec codec = new PayloadCodec();
+    // Set once the API has refused Smile; later calls ask for JSON only
+    private volatile boolean binaryRejected;
+
+    private RestTemplate restTemplate;
+    private RestTemplate writeTemplate;
+    private Semaphore bulkhead;
+    private ExecutorService executor;
+    private Counter hedgedCalls;
+    private Counter staleResponses;
+    private Counter unknownOutcomes;
+
+    @Autowired
+    public DistributionCenterClient(MeterRegistry meterRegistry, Environment environment) {
+        this.meterRegistry = meterRegistry;
+        this.environment = environment;
+    }
+
+    @PostConstruct
+    public void init() {
+        // The read timeout is only a backstop; callers stop waiting at their deadline
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(connectTimeoutMs);
+        requestFactory.setReadTimeout((int) defaultDeadlineMs);
+        restTemplate = new RestTemplate(requestFactory);
+        SimpleClientHttpRequestFactory writeRequestFactory = new SimpleClientHttpRequestFactory();
+        writeRequestFactory.setConnectTimeout(connectTimeoutMs);
+        writeRequestFactory.setReadTimeout(writeTimeoutMs);
+        writeTemplate = new RestTemplate(writeRequestFactory);
+
+        bulkhead = new Semaphore(maxConcurrentCalls);
+        executor = BlockingTaskExecutors.create(environment, "dc-call-", maxConcurrentCalls);
+
+        hedgedCalls = meterRegistry.counter("distribution.center.hedged.calls");
+        staleResponses = meterRegistry.counter("distribution.center.stale.responses");
+        unknownOutcomes = meterRegistry.counter("distribution.center.unknown.outcomes");
+        Gauge.builder("distribution.center.bulkhead.available", bulkhead, Semaphore::availablePermits)
+            .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Run work (typically several calls) under one deadline; nested deadlines can only shorten it
+    public <T> T withDeadline(long budgetMs, Callable<T> work) throws Exception {
+        Long outer = DEADLINE.get();
+        long deadline = System.nanoTime() + budgetMs * 1_000_000L;
+        DEADLINE.set(outer != null ? Math.min(outer, deadline) : deadline);
+        try {
+            return work.call();
+        } finally {
+            if (outer != null) {
+                DEADLINE.set(outer);
+            } else {
+                DEADLINE.remove();
+            }
+        }
+    }
+
+    // Call the API; throws DistributionCenterUnavailableException when it's unavailable and there's no fallback.
+    // Anything but a GET is taken to change state.
+    public ResponseEntity<JsonNode> exchange(String operation, HttpMethod method, String url, HttpEntity<?> entity) {
+        return exchange(operation, method, url, entity, false);
+    }
+
+    // Same; a bulk read (e.g. one of many catalog pages) is neither hedged, since the caller already runs
+    // reads in parallel, nor remembered for fallback, since the pages would add up to the whole catalog
+    public ResponseEntity<JsonNode> exchange(String operation, HttpMethod method, String url, HttpEntity<?> entity,
+                                           boolean bulkRead) {
+        return exchange(operation, method, url, entity, method == HttpMethod.GET, bulkRead);
+    }
+
+    // An idempotent call that isn't a GET (a query with a request body): bounded by the deadline and hedged
+    // like a GET. There is no fallback, since the last good response is kept per URL and the body differs.
+    public ResponseEntity<JsonNode> query(String operation, HttpMethod method, String url, HttpEntity<?> entity) {
+        return exchange(operation, method, url, entity, true, false);
+    }
+
+    private ResponseEntity<JsonNode> exchange(String operation, HttpMethod method, String url, HttpEntity<?> entity,
+                                            boolean idempotent, boolean bulkRead) {
+        CircuitBreaker breaker = breaker(operation);
+        long permission = breaker.tryAcquirePermission();
+        if (permission == CircuitBreaker.REJECTED) {
+            meterRegistry.counter("distribution.center.rejected.calls", "operation", operation, "reason", "circuit-open").increment();
+            return fallback(operation, method, url, "circuit open", null);
+        }
+
+        long deadline = DEADLINE.get() != null ? DEADLINE.get() : System.nanoTime() + defaultDeadlineMs * 1_000_000L;
+        long start = System.nanoTime();
+        try {
+            ResponseEntity<JsonNode> response = !idempotent
+                ? callToCompletion(operation, method, url, entity, deadline)
+                : hedgingEnabled && !bulkRead
+                ? hedgedCall(operation, method, url, entity, deadline)
+                : call(method, url, entity, deadline);
+            long elapsed = System.nanoTime() - start;
+            breaker.onSuccess(permission);
+            latencies.computeIfAbsent(operation, key -> new LatencyWindow()).record(elapsed);
+            timer(operation, "success").record(elapsed, TimeUnit.NANOSECONDS);
+            if (!bulkRead && method == HttpMethod.GET && response.getBody() != null) {
+                lastGoodResponses.put(url, response.getBody());
+            }
+            return response;
+        } catch (BulkheadFullException e) {
+            breaker.onIgnored(permission);
+            meterRegistry.counter("distribution.center.rejected.calls", "operation", operation, "reason", "bulkhead-full").increment();
+            return fallback(operation, method, url, e.getMessage(), e);
+        } catch (HttpClientErrorException e) {
+            // A 4xx is an answer (e.g. item not found), not a sign the API is down
+            breaker.onSuccess(permission);
+            timer(operation, "client-error").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        } catch (RuntimeException e) {
+            breaker.onError(permission);
+            timer(operation, "failure").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return fallback(operation, method, url, e.getMessage(), e);
+        }
+    }
+
+    public Collection<CircuitBreaker> getCircuitBreakers() {
+        return breakers.values();
+    }
+
+    public int getAvailableBulkheadPermits() {
+        return bulkhead.availablePermits();
+    }
+
+    public int getMaxConcurrentCalls() {
+        return maxConcurrentCalls;
+    }
+
+    public long getHedgedCalls() {
+        return Math.round(hedgedCalls.count());
+    }
+
+    public long getStaleResponses() {
+        return Math.round(staleResponses.count());
+    }
+
+    public long getUnknownOutcomes() {
+        return Math.round(unknownOutcomes.count());
+    }
+
+    // Current hedge delay per operation, in ms (for health details)
+    public Map<String, Long> getHedgeDelaysMs() {
+        Map<String, Long> delays = new TreeMap<>();
+        latencies.forEach((operation, window) -> delays.put(operation, hedgeDelayNanos(operation) / 1_000_000L));
+        return delays;
+    }
+
+    private ResponseEntity<JsonNode> call(HttpMethod method, String url, HttpEntity<?> entity, long deadline) {
+        acquireBulkhead(deadline);
+        Future<ResponseEntity<JsonNode>> future = executor.submit(task(method, url, entity, deadline, restTemplate));
+        try {
+            return future.get(remainingNanos(deadline), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new DistributionCenterUnavailableException("deadline exceeded", e);
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DistributionCenterUnavailableException("interrupted", e);
+        }
+    }
+
+    // First attempt, plus one duplicate if it hasn't answered within the operation's latency percentile
+    private ResponseEntity<JsonNode> hedgedCall(String operation, HttpMethod method, String url, HttpEntity<?> entity, long deadline) {
+        acquireBulkhead(deadline);
+        CompletionService<ResponseEntity<JsonNode>> completion = new ExecutorCompletionService<>(executor);
+        List<Future<ResponseEntity<JsonNode>>> attempts = new ArrayList<>(2);
+        attempts.add(completion.submit(task(method, url, entity, deadline, restTemplate)));
+        RuntimeException lastError = null;
+        try {
+            Future<ResponseEntity<JsonNode>> done = completion.poll(
+                Math.min(hedgeDelayNanos(operation), remainingNanos(deadline)), TimeUnit.NANOSECONDS);
+            if (done == null && remainingNanos(deadline) > 0 && bulkhead.tryAcquire()) {
+                hedgedCalls.increment();
+                attempts.add(completion.submit(task(method, url, entity, deadline, restTemplate)));
+            }
+            int pending = attempts.size();
+            while (pending > 0) {
+                if (done == null) {
+                    done = completion.poll(remainingNanos(deadline), TimeUnit.NANOSECONDS);
+                    if (done == null) {
+                        throw new DistributionCenterUnavailableException("deadline exceeded");
+                    }
+                }
+                pending--;
+                try {
+                    return done.get();
+                } catch (ExecutionException e) {
+                    lastError = unwrap(e); // the other attempt may still succeed
+                }
+                done = null;
+            }
+            throw lastError;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DistributionCenterUnavailableException("interrupted", e);
+        }
+    }
+
+    // Runs on the calling thread and waits for the answer however long the deadline was: the deadline only
+    // limits the wait for a bulkhead slot, before anything is sent. A write timeout leaves the outcome
+    // unknown, which is logged and counted so it can be checked against the API.
+    private ResponseEntity<JsonNode> callToCompletion(String operation, HttpMethod method, String url, HttpEntity<?> entity,
+                                                      long deadline) {
+        acquireBulkhead(deadline);
+        try {
+            return task(method, url, entity, System.nanoTime() + writeTimeoutMs * 1_000_000L, writeTemplate).call();
+        } catch (ResourceAccessException e) {
+            unknownOutcomes.increment();
+            System.err.println("Distribution center " + operation + " outcome unknown (" + e.getMessage() + "): "
+                + method + " " + url + " " + entity.getBody());
+            throw new DistributionCenterUnavailableException("outcome unknown: " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new DistributionCenterUnavailableException(String.valueOf(e), e);
+        }
+    }
+
+    // The bulkhead permit is held until the HTTP call itself ends, even if the caller gave up on it.
+    // Abandoned attempts aren't cancelled (blocking socket reads ignore interrupts); the read timeout ends them.
+    private Callable<ResponseEntity<JsonNode>> task(HttpMethod method, String url, HttpEntity<?> entity, long deadline,
+                                                    RestTemplate template) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(entity.getHeaders());
+        headers.set(DEADLINE_HEADER, String.valueOf(Math.max(0, remainingNanos(deadline) / 1_000_000L)));
+        if (gzip) {
+            headers.set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        }
+        return () -> {
+            try {
+                boolean binary = "smile".equalsIgnoreCase(encoding) && !binaryRejected;
+                try {
+                    return negotiatedCall(template, method, url, entity.getBody(), headers, binary);
+                } catch (HttpClientErrorException e) {
+                    if (!binary || e.getStatusCode() != HttpStatus.NOT_ACCEPTABLE) {
+                        throw e;
+                    }
+                    binaryRejected = true;
+                    System.err.println("Distribution center API doesn't accept " + PayloadCodec.SMILE + ", using JSON");
+                    return negotiatedCall(template, method, url, entity.getBody(), headers, false);
+                }
+            } finally {
+                bulkhead.release();
+            }
+        };
+    }
+
+    private ResponseEntity<JsonNode> negotiatedCall(RestTemplate template, HttpMethod method, String url, Object body,
+                                                    HttpHeaders baseHeaders, boolean binary) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(baseHeaders);
+        headers.setAccept(binary ? BINARY_ACCEPT : JSON_ACCEPT);
+        ResponseEntity<byte[]> raw = template.exchange(url, method, new HttpEntity<>(body, headers), byte[].class);
+
+        HttpHeaders responseHeaders = raw.getHeaders();
+        MediaType contentType = responseHeaders.getContentType();
+        String format = contentType != null && PayloadCodec.SMILE.isCompatibleWith(contentType) ? "smile" : "json";
+        String compression = "gzip".equalsIgnoreCase(responseHeaders.getFirst(HttpHeaders.CONTENT_ENCODING)) ? "gzip" : "none";
+        byte[] bytes = raw.getBody();
+        long start = System.nanoTime();
+        JsonNode decoded = codec.decode(bytes, responseHeaders);
+        if (bytes != null) {
+            DistributionSummary.builder("distribution.center.payload.bytes")
+                .baseUnit("bytes")
+                .tags("format", format, "compression", compression)
+                .register(meterRegistry)
+                .record(bytes.length);
+            meterRegistry.timer("distribution.center.payload.decode", "format", format, "compression", compression)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        return ResponseEntity.status(raw.getStatusCode()).headers(responseHeaders).body(decoded);
+    }
+
+    private void acquireBulkhead(long deadline) {
+        long waitNanos = Math.min(bulkheadMaxWaitMs * 1_000_000L, remainingNanos(deadline));
+        try {
+            if (!bulkhead.tryAcquire(waitNanos, TimeUnit.NANOSECONDS)) {
+                throw new BulkheadFullException();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DistributionCenterUnavailableException("interrupted", e);
+        }
+    }
+
+    private ResponseEntity<JsonNode> fallback(String operation, HttpMethod method, String url, String reason, Exception cause) {
+        JsonNode lastGood = method == HttpMethod.GET ? lastGoodResponses.get(url) : null;
+        if (lastGood == null) {
+            throw new DistributionCenterUnavailableException("Distribution center " + operation + " unavailable: " + reason, cause);
+        }
+        staleResponses.increment();
+        System.err.println("Distribution center " + operation + " unavailable (" + reason + "), serving last good response");
+        return ResponseEntity.ok().header(STALE_HEADER, "true").body(lastGood);
+    }
+
+    private long hedgeDelayNanos(String operation) {
+        LatencyWindow window = latencies.get(operation);
+        long percentile = window != null ? window.percentile(hedgePercentile) : -1;
+        return percentile >= 0 ? percentile : defaultHedgeDelayMs * 1_000_000L;
+    }
+
+    private CircuitBreaker breaker(String operation) {
+        return breakers.computeIfAbsent(operation, name -> {
+            CircuitBreaker breaker = new CircuitBreaker(name, circuitWindowSize, circuitMinimumCalls,
+                circuitFailureRateThreshold, circuitOpenDurationMs);
+            Gauge.builder("distribution.center.circuit.state", breaker, b -> b.getState().ordinal())
+                .description("0 = closed, 1 = open, 2 = half-open")
+                .tag("operation", name)
+                .register(meterRegistry);
+            return breaker;
+        });
+    }
+
+    private Timer timer(String operation, String outcome) {
+        return meterRegistry.timer("distribution.center.calls", "operation", operation, "outcome", outcome);
+    }
+
+    private static long remainingNanos(long deadline) {
+        return Math.max(0, deadline - System.nanoTime());
+    }
+
+    private static RuntimeException unwrap(ExecutionException e) {
+        return e.getCause() instanceof RuntimeException runtime
+            ? runtime
+            : new DistributionCenterUnavailableException(String.valueOf(e.getCause()), e.getCause());
+    }
+
+    private static class BulkheadFullException extends DistributionCenterUnavailableException {
+        private static final long serialVersionUID = 1L;
+
+        BulkheadFullException() {
+            super("too many concurrent calls");
+        }
+    }
+
+    // Recent successful call latencies of one operation
+    private static class LatencyWindow {
+        private final long[] samples = new long[LATENCY_SAMPLES];
+        private int position;
+        private int count;
+
+        synchronized void record(long nanos) {
+            samples[position] = nanos;
+            position = (position + 1) % samples.length;
+            count = Math.min(count + 1, samples.length);
+        }
+
+        // -1 until there are enough samples
+        synchronized long percentile(double p) {
+            if (count < MIN_LATENCY_SAMPLES) {
+                return -1;
+            }
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            return sorted[Math.min(count - 1, (int) Math.ceil(p * count) - 1)];
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.arjencode.project.service;
+
+import com.arjencode.project.event.DistributionCenterChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Keeps distribution center detail pages warm. After the dashboard renders, and on a schedule while
+// admins are active, the nearest centers of the warehouse being viewed and the most-visited centers
+// are loaded in the background into the "distributionCenterDetails" cache (bounded by item count).
+// Prefetching runs on a small low-priority pool with a bounded queue; when it is full, prefetches are dropped.
+@Service
+public class DistributionCenterDetailPrefetcher {
+
+    public static final String CACHE_NAME = "distributionCenterDetails";
+
+    @Value("${distribution.center.prefetch.enabled:true}")
+    private boolean enabled;
+
+    @Value("${distribution.center.prefetch.nearest-centers:3}")
+    private int nearestCenters;
+
+    @Value("${distribution.center.prefetch.most-visited-centers:3}")
+    private int mostVisitedCenters;
+
+    @Value("${distribution.center.prefetch.threads:1}")
+    private int threads;
+
+    @Value("${distribution.center.prefetch.queue-capacity:16}")
+    private int queueCapacity;
+
+    // Scheduled refreshes stop once no admin has looked at centers for this long
+    @Value("${distribution.center.prefetch.active-window-ms:600000}")
+    private long activeWindowMs;
+
+    private final DistributionCenterIntegrationService distributionCenterService;
+    private final WarehouseService warehouseService;
+    private final DistanceMatrix distanceMatrix;
+    private final Cache cache;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Long, Long> visits = new ConcurrentHashMap<>(); // centerId -> decayed visit count
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    // Bumped on every invalidation, so a load that started before it doesn't put stale details back
+    private final AtomicLong generation = new AtomicLong();
+    private volatile long lastActivity;
+    private volatile Long lastWarehouseId;
+    private ThreadPoolExecutor executor;
+    private Counter hits;
+    private Counter misses;
+    private Counter prefetched;
+    private Counter dropped;
+
+    @Autowired
+    public DistributionCenterDetailPrefetcher(DistributionCenterIntegrationService distributionCenterService,
+                                              WarehouseService warehouseService,
+                                              DistanceMatrix distanceMatrix,
+                                              CacheManager cacheManager,
+                                              MeterRegistry meterRegistry) {
+        this.distributionCenterService = distributionCenterService;
+        this.warehouseService = warehouseService;
+        this.distanceMatrix = distanceMatrix;
+        this.cache = cacheManager.getCache(CACHE_NAME);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                Thread thread = new Thread(runnable, "dc-prefetch-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            });
+        hits = meterRegistry.counter("distribution.center.details", "result", "hit");
+        misses = meterRegistry.counter("distribution.center.details", "result", "miss");
+        prefetched = meterRegistry.counter("distribution.center.prefetch", "result", "loaded");
+        dropped = meterRegistry.counter("distribution.center.prefetch", "result", "dropped");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Center details for the detail page: warm from the cache, or loaded (and cached) now.
+    // Returns null when the center can't be loaded.
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> getCenterDetails(Long id) {
+        visits.merge(id, 1L, Long::sum);
+        lastActivity = System.currentTimeMillis();
+        Map<String, Object> center = cache.get(id, Map.class);
+        if (center != null) {
+            hits.increment();
+            return center;
+        }
+        misses.increment();
+        return load(id);
+    }
+
+    // The dashboard for a warehouse was just shown; warm the centers an admin is likely to open next
+    public void prefetchFor(Long warehouseId) {
+        lastActivity = System.currentTimeMillis();
+        lastWarehouseId = warehouseId;
+        if (enabled) {
+            for (Long centerId : candidates(warehouseId)) {
+                if (cache.get(centerId) == null) {
+                    submit(centerId);
+                }
+            }
+        }
+    }
+
+    // Reload the candidates before their entries expire, and let old visits fade
+    @Scheduled(fixedDelayString = "${distribution.center.prefetch.refresh-interval-ms:60000}",
+               initialDelayString = "${distribution.center.prefetch.refresh-interval-ms:60000}")
+    public void refresh() {
+        visits.replaceAll((centerId, count) -> count / 2);
+        visits.values().removeIf(count -> count == 0);
+        if (enabled && System.currentTimeMillis() - lastActivity < activeWindowMs) {
+            Long warehouseId = lastWarehouseId != null ? lastWarehouseId : warehouseService.getDefaultWarehouseId();
+            candidates(warehouseId).forEach(this::submit);
+        }
+    }
+
+    // Stock at a center changed, so its details are stale (all of them when the center is unknown)
+    @EventListener
+    public void onDistributionCenterChanged(DistributionCenterChangedEvent event) {
+        generation.incrementAndGet();
+        if (event.getCenterId() != null) {
+            cache.evict(event.getCenterId());
+        } else {
+            cache.clear();
+        }
+    }
+
+    // Nearest centers to the warehouse first, then the most visited ones
+    private Set<Long> candidates(Long warehouseId) {
+        Set<Long> centerIds = new LinkedHashSet<>();
+        long[] ranked = distanceMatrix.rankedCenters(warehouseService.resolve(warehouseId));
+        for (int i = 0; i < Math.min(nearestCenters, ranked.length); i++) {
+            centerIds.add(ranked[i]);
+        }
+        visits.entrySet().stream()
+            .sorted(Map.Entry.<Long, Long>comparingByValue().reversed())
+            .limit(mostVisitedCenters)
+            .forEach(entry -> centerIds.add(entry.getKey()));
+        return centerIds;
+    }
+
+    private void submit(Long centerId) {
+        if (!inFlight.add(centerId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    if (load(centerId) != null) {
+                        prefetched.increment();
+                    }
+                } finally {
+                    inFlight.remove(centerId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(centerId);
+            dropped.increment();
+        }
+    }
+
+    private Map<String, Object> load(Long id) {
+        long loadGeneration = generation.get();
+        Map<String, Object> center = distributionCenterService.getDistributionCenterById(id);
+        if (center != null) {
+            center = Collections.unmodifiableMap(center);
+            cache.put(id, center);
+            if (generation.get() != loadGeneration) {
+                cache.evict(id);
+            }
+        }
+        return center;
+    }
+}
@@ -1,18 +1,40 @@
 package com.arjencode.project.service;
 
+import com.arjencode.project.event.DistributionCenterChangedEvent;
+import com.arjencode.project.event.ItemChangedEvent;
+import com.arjencode.project.event.ItemSnapshot;
 import com.arjencode.project.model.Item;
+import com.arjencode.project.model.Warehouse;
 import com.arjencode.project.repository.ItemRepository;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.client.HttpClientErrorException;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 
 import java.math.BigDecimal;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
 
+// Talks to the distribution center API on behalf of a warehouse. Methods without a warehouse id act
+// for the default warehouse; distances come from the precomputed DistanceMatrix.
+// Catalog reads use the paged API when it's available: center summaries first, then each center's
+// items page by page, fetched concurrently and merged as they arrive, so no response holds the
+// whole network's SKUs. APIs without the paged endpoints fall back to the full listing.
+// The availability scan also records which centers stock each item, so requests are routed to the
+// nearest stocking center through the DistanceMatrix; find-closest is only called when that's unknown.
 @Service
 public class DistributionCenterIntegrationService {
     
@@ -25,22 +47,71 @@ public class DistributionCenterIntegrationService {
     @Value("${distribution.center.api.password:admin123}")
     private String apiPassword;
     
-    // Warehouse location (Downtown Toronto)
-    @Value("${warehouse.latitude:43.6532}")
-    private double warehouseLatitude;
+    @Value("${distribution.center.api.paged:true}")
+    private boolean pagedApiEnabled;
+    
+    @Value("${distribution.center.api.page-size:500}")
+    private int pageSize;
+    
+    // Concurrent page reads; keep below distribution.center.client.max-concurrent-calls so other calls still get through
+    @Value("${distribution.center.api.fetch-parallelism:4}")
+    private int fetchParallelism;
     
-    @Value("${warehouse.longitude:-79.3832}")
-    private double warehouseLongitude;
+    // Time budget for reading all item pages of a catalog fetch
+    @Value("${distribution.center.api.catalog-deadline-ms:15000}")
+    private long catalogDeadlineMs;
     
-    private final RestTemplate restTemplate;
+    // Time budget for locating the center to request from. The request itself takes stock, so it is
+    // not cut short: the client waits for its answer (see DistributionCenterClient)
+    @Value("${distribution.center.client.find-closest-deadline-ms:5000}")
+    private long findClosestDeadlineMs;
+    
+    private final DistributionCenterClient client;
     private final ItemRepository itemRepository;
-    private final ObjectMapper objectMapper;
+    private final ItemService itemService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final WarehouseService warehouseService;
+    private final DistanceMatrix distanceMatrix;
+    private final Environment environment;
+    
+    // Same lifetime as the cached availability aggregate it's built with
+    @Value("${distribution.center.availability.cache-ttl-seconds:60}")
+    private long stockIndexTtlSeconds;
+    
+    // Where items are in stock (null until the first availability scan or after a center changed elsewhere)
+    private volatile StockIndex stockIndex;
+    // Bumped on every center change, so an index whose scan overlapped one is not published
+    private final AtomicLong stockGeneration = new AtomicLong();
+    
+    private ExecutorService pageFetcher;
+    // Unknown until the first summaries call; false once the API turned out not to have paged endpoints
+    private volatile Boolean pagedApiAvailable;
     
     @Autowired
-    public DistributionCenterIntegrationService(ItemRepository itemRepository) {
-        this.restTemplate = new RestTemplate();
+    public DistributionCenterIntegrationService(ItemRepository itemRepository,
+                                                ItemService itemService,
+                                                ApplicationEventPublisher eventPublisher,
+                                                WarehouseService warehouseService,
+                                                DistanceMatrix distanceMatrix,
+                                                DistributionCenterClient client,
+                                                Environment environment) {
+        this.client = client;
         this.itemRepository = itemRepository;
-        this.objectMapper = new ObjectMapper();
+        this.itemService = itemService;
+        this.eventPublisher = eventPublisher;
+        this.warehouseService = warehouseService;
+        this.distanceMatrix = distanceMatrix;
+        this.environment = environment;
+    }
+    
+    @PostConstruct
+    public void init() {
+        pageFetcher = BlockingTaskExecutors.create(environment, "dc-page-", fetchParallelism);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        pageFetcher.shutdownNow();
     }
     
     private HttpHeaders createAuthHeaders() {
@@ -52,39 +123,43 @@ public class DistributionCenterIntegrationService {
     
     // Get all distribution centers
     public List<Map<String, Object>> getAllDistributionCenters() {
+        return getAllDistributionCenters(null);
+    }
+    
+    // Get all distribution centers with their distance from a warehouse
+    public List<Map<String, Object>> getAllDistributionCenters(Long warehouseId) {
         try {
+            Long fromWarehouse = warehouseService.resolve(warehouseId);
             HttpEntity<String> entity = new HttpEntity<>(createAuthHeaders());
-            ResponseEntity<String> response = restTemplate.exchange(
-                distributionCenterApiUrl, HttpMethod.GET, entity, String.class);
+            JsonNode jsonNode = fetchCenterSummaries(entity);
+            if (jsonNode == null) {
+                ResponseEntity<JsonNode> response = client.exchange(
+                    "list-centers", HttpMethod.GET, distributionCenterApiUrl, entity);
+                jsonNode = response.getStatusCode() == HttpStatus.OK ? response.getBody() : null;
+            }
             
-            if (response.getStatusCode() == HttpStatus.OK) {
-                JsonNode jsonNode = objectMapper.readTree(response.getBody());
+            if (jsonNode != null) {
                 List<Map<String, Object>> centers = new ArrayList<>();
+                Set<Long> liveCenterIds = new HashSet<>();
                 
                 for (JsonNode centerNode : jsonNode) {
                     Map<String, Object> center = new HashMap<>();
-                    center.put("id", centerNode.get("id").asLong());
+                    long centerId = centerNode.get("id").asLong();
+                    center.put("id", centerId);
                     center.put("name", centerNode.get("name").asText());
                     center.put("latitude", centerNode.get("latitude").asDouble());
                     center.put("longitude", centerNode.get("longitude").asDouble());
                     
-                    // Calculate distance
-                    double distance = calculateDistance(
-                        warehouseLatitude, warehouseLongitude,
-                        centerNode.get("latitude").asDouble(),
-                        centerNode.get("longitude").asDouble()
-                    );
-                    center.put("distanceFromWarehouse", Math.round(distance * 100.0) / 100.0);
+                    // Only new or moved centers cost a distance computation
+                    distanceMatrix.putCenter(centerId, centerNode.get("latitude").asDouble(), centerNode.get("longitude").asDouble());
+                    liveCenterIds.add(centerId);
+                    center.put("distanceFromWarehouse", roundedDistance(fromWarehouse, centerId));
                     
-                    // Get item count if items array exists
-                    if (centerNode.has("items") && centerNode.get("items").isArray()) {
-                        center.put("itemCount", centerNode.get("items").size());
-                    } else {
-                        center.put("itemCount", 0);
-                    }
+                    center.put("itemCount", itemCountOf(centerNode));
                     
                     centers.add(center);
                 }
+                distanceMatrix.retainCenters(liveCenterIds);
                 
                 return centers;
             }
@@ -96,116 +171,39 @@ public class DistributionCenterIntegrationService {
     
     // Request item from closest distribution center
     public boolean requestItemFromClosestCenter(String brand, String name) {
-        try {
-            // Find closest center with the item
-            Map<String, Object> requestBody = new HashMap<>();
-            requestBody.put("brand", brand);
-            requestBody.put("name", name);
-            
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, createAuthHeaders());
-            
-            String findClosestUrl = distributionCenterApiUrl + "/find-closest" +
-                "?warehouseLatitude=" + warehouseLatitude +
-                "&warehouseLongitude=" + warehouseLongitude;
-            
-            ResponseEntity<String> response = restTemplate.exchange(
-                findClosestUrl, HttpMethod.POST, entity, String.class);
-            
-            if (response.getStatusCode() == HttpStatus.OK) {
-                JsonNode centerNode = objectMapper.readTree(response.getBody());
-                Long centerId = centerNode.get("id").asLong();
-                String centerName = centerNode.get("name").asText();
-                
-                System.out.println("Found item at: " + centerName + " (ID: " + centerId + ")");
-                
-                // Request the item from this center
-                String requestUrl = distributionCenterApiUrl + "/" + centerId + "/request?quantity=1";
-                ResponseEntity<String> requestResponse = restTemplate.exchange(
-                    requestUrl, HttpMethod.POST, entity, String.class);
-                
-                if (requestResponse.getStatusCode() == HttpStatus.OK) {
-                    // Add item to warehouse stock
-                    return addItemToWarehouse(brand, name, centerNode);
-                }
-            }
-        } catch (Exception e) {
-            System.err.println("Error requesting item from distribution center: " + e.getMessage());
-            e.printStackTrace();
-        }
-        return false;
+        return requestItemFromClosestCenterWithQuantity(null, brand, name, 1);
     }
     
-
-    
-    // Add item to warehouse stock
-    private boolean addItemToWarehouse(String brand, String name, JsonNode centerResponse) {
-        try {
-            // Check if item already exists in warehouse
-            Optional<Item> existingItem = itemRepository.findByBrandAndName(brand, name)
-                .stream().findFirst();
-            
-            if (existingItem.isPresent()) {
-                // Update quantity
-                Item item = existingItem.get();
-                item.setQuantity(item.getQuantity() + 1);
-                itemRepository.save(item);
-                System.out.println("Updated warehouse stock for: " + name + " by " + brand);
-            } else {
-                // Create new item in warehouse (with default values since we don't have full item details)
-                Item newItem = new Item();
-                newItem.setName(name);
-                newItem.setBrand(brand);
-                newItem.setCategory("Unknown"); // Default category
-                newItem.setPrice(new BigDecimal("0.00")); // Default price
-                newItem.setYear(2023); // Default year
-                newItem.setQuantity(1);
-                itemRepository.save(newItem);
-                System.out.println("Added new item to warehouse: " + name + " by " + brand);
-            }
-            return true;
-        } catch (Exception e) {
-            System.err.println("Error adding item to warehouse: " + e.getMessage());
-            return false;
-        }
+    private static Long centerIdOf(JsonNode centerResponse) {
+        return centerResponse != null && centerResponse.has("id") ? centerResponse.get("id").asLong() : null;
     }
     
     // Get distribution center by ID with items
     public Map<String, Object> getDistributionCenterById(Long id) {
         try {
             HttpEntity<String> entity = new HttpEntity<>(createAuthHeaders());
-            ResponseEntity<String> response = restTemplate.exchange(
-                distributionCenterApiUrl + "/" + id, HttpMethod.GET, entity, String.class);
+            ResponseEntity<JsonNode> response = client.exchange(
+                "get-center", HttpMethod.GET, distributionCenterApiUrl + "/" + id, entity);
             
             if (response.getStatusCode() == HttpStatus.OK) {
-                JsonNode centerNode = objectMapper.readTree(response.getBody());
+                JsonNode centerNode = response.getBody();
                 Map<String, Object> center = new HashMap<>();
                 center.put("id", centerNode.get("id").asLong());
                 center.put("name", centerNode.get("name").asText());
                 center.put("latitude", centerNode.get("latitude").asDouble());
                 center.put("longitude", centerNode.get("longitude").asDouble());
                 
-                // Calculate distance
-                double distance = calculateDistance(
-                    warehouseLatitude, warehouseLongitude,
-                    centerNode.get("latitude").asDouble(),
-                    centerNode.get("longitude").asDouble()
-                );
-                center.put("distanceFromWarehouse", Math.round(distance * 100.0) / 100.0);
+                distanceMatrix.putCenter(id, centerNode.get("latitude").asDouble(), centerNode.get("longitude").asDouble());
+                center.put("distanceFromWarehouse", roundedDistance(warehouseService.getDefaultWarehouseId(), id));
                 
-                // Get items if available
+                // Items come inline from the full API, or page by page from the paged one
                 List<Map<String, Object>> items = new ArrayList<>();
                 if (centerNode.has("items") && centerNode.get("items").isArray()) {
                     for (JsonNode itemNode : centerNode.get("items")) {
-                        Map<String, Object> item = new HashMap<>();
-                        item.put("id", itemNode.get("id").asLong());
-                        item.put("name", itemNode.get("name").asText());
-                        item.put("brand", itemNode.get("brand").asText());
-                        item.put("category", itemNode.get("category").asText());
-                        item.put("price", itemNode.get("price").asDouble());
-                        item.put("year", itemNode.get("year").asInt());
-                        item.put("quantity", itemNode.get("quantity").asInt());
-                        items.add(item);
+                        items.add(toItemMap(itemNode));
                     }
+                } else if (Boolean.TRUE.equals(pagedApiAvailable) || fetchCenterSummaries(entity) != null) {
+                    forEachCenterItem(List.of(id), entity, (centerId, itemNode) -> items.add(toItemMap(itemNode)));
                 }
                 center.put("items", items);
                 center.put("itemCount", items.size());
@@ -231,11 +229,15 @@ public class DistributionCenterIntegrationService {
             itemData.put("quantity", quantity);
             
             HttpEntity<Map<String, Object>> entity = new HttpEntity<>(itemData, createAuthHeaders());
-            ResponseEntity<String> response = restTemplate.exchange(
-                distributionCenterApiUrl + "/" + centerId + "/items", 
-                HttpMethod.POST, entity, String.class);
+            ResponseEntity<JsonNode> response = client.exchange(
+                "add-item", HttpMethod.POST, distributionCenterApiUrl + "/" + centerId + "/items", entity);
             
-            return response.getStatusCode() == HttpStatus.OK || response.getStatusCode() == HttpStatus.CREATED;
+            boolean added = response.getStatusCode() == HttpStatus.OK || response.getStatusCode() == HttpStatus.CREATED;
+            if (added) {
+                dropStockIndex();
+                eventPublisher.publishEvent(new DistributionCenterChangedEvent(centerId));
+            }
+            return added;
         } catch (Exception e) {
             System.err.println("Error adding item to distribution center: " + e.getMessage());
             return false;
@@ -246,11 +248,15 @@ public class DistributionCenterIntegrationService {
     public boolean deleteItemFromDistributionCenter(Long centerId, Long itemId) {
         try {
             HttpEntity<String> entity = new HttpEntity<>(createAuthHeaders());
-            ResponseEntity<String> response = restTemplate.exchange(
-                distributionCenterApiUrl + "/" + centerId + "/items/" + itemId, 
-                HttpMethod.DELETE, entity, String.class);
+            ResponseEntity<JsonNode> response = client.exchange(
+                "delete-item", HttpMethod.DELETE, distributionCenterApiUrl + "/" + centerId + "/items/" + itemId, entity);
             
-            return response.getStatusCode() == HttpStatus.OK || response.getStatusCode() == HttpStatus.NO_CONTENT;
+            boolean deleted = response.getStatusCode() == HttpStatus.OK || response.getStatusCode() == HttpStatus.NO_CONTENT;
+            if (deleted) {
+                dropStockIndex();
+                eventPublisher.publishEvent(new DistributionCenterChangedEvent(centerId));
+            }
+            return deleted;
         } catch (Exception e) {
             System.err.println("Error deleting item from distribution center: " + e.getMessage());
             return false;
@@ -259,45 +265,14 @@ public class DistributionCenterIntegrationService {
     
     // Request item with custom quantity
     public boolean requestItemFromClosestCenterWithQuantity(String brand, String name, Integer quantity) {
+        return requestItemFromClosestCenterWithQuantity(null, brand, name, quantity);
+    }
+    
+    // Request item with custom quantity for a specific warehouse
+    public boolean requestItemFromClosestCenterWithQuantity(Long warehouseId, String brand, String name, Integer quantity) {
         try {
-            // Find closest center with the item
-            Map<String, Object> requestBody = new HashMap<>();
-            requestBody.put("brand", brand);
-            requestBody.put("name", name);
-            
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, createAuthHeaders());
-            
-            String findClosestUrl = distributionCenterApiUrl + "/find-closest" +
-                "?warehouseLatitude=" + warehouseLatitude +
-                "&warehouseLongitude=" + warehouseLongitude;
-            
-            ResponseEntity<String> response = restTemplate.exchange(
-                findClosestUrl, HttpMethod.POST, entity, String.class);
-            
-            if (response.getStatusCode() == HttpStatus.OK) {
-                JsonNode centerNode = objectMapper.readTree(response.getBody());
-                Long centerId = centerNode.get("id").asLong();
-                String centerName = centerNode.get("name").asText();
-                
-                System.out.println("Found item at: " + centerName + " (ID: " + centerId + ")");
-                
-                // Request the specified quantity from this center
-                String requestUrl = distributionCenterApiUrl + "/" + centerId + "/request?quantity=" + quantity;
-                
-                // Create a new request body for the specific center request
-                Map<String, Object> requestItemBody = new HashMap<>();
-                requestItemBody.put("brand", brand);
-                requestItemBody.put("name", name);
-                HttpEntity<Map<String, Object>> requestItemEntity = new HttpEntity<>(requestItemBody, createAuthHeaders());
-                
-                ResponseEntity<String> requestResponse = restTemplate.exchange(
-                    requestUrl, HttpMethod.POST, requestItemEntity, String.class);
-                
-                if (requestResponse.getStatusCode() == HttpStatus.OK) {
-                    // Add items to warehouse stock
-                    return addItemsToWarehouse(brand, name, quantity, centerNode);
-                }
-            }
+            JsonNode centerNode = client.withDeadline(findClosestDeadlineMs, () -> findClosestCenter(warehouseId, brand, name));
+            return centerNode != null && requestItemFromCenter(warehouseId, centerNode, brand, name, quantity);
         } catch (Exception e) {
             System.err.println("Error requesting item with quantity from distribution center: " + e.getMessage());
             e.printStackTrace();
@@ -305,18 +280,121 @@ public class DistributionCenterIntegrationService {
         return false;
     }
     
+    // Find the distribution center closest to a warehouse that stocks the item (null if none).
+    // Answered from the stock index and the DistanceMatrix when the index is fresh; otherwise, or
+    // when the index doesn't know the item, the API's find-closest decides.
+    public JsonNode findClosestCenter(Long warehouseId, String brand, String name) throws Exception {
+        Long fromWarehouse = warehouseService.resolve(warehouseId);
+        JsonNode local = findClosestCenterLocally(fromWarehouse, brand, name);
+        if (local != null) {
+            return local;
+        }
+        Warehouse warehouse = warehouseService.getWarehouse(fromWarehouse);
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("brand", brand);
+        requestBody.put("name", name);
+        
+        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, createAuthHeaders());
+        
+        String findClosestUrl = distributionCenterApiUrl + "/find-closest" +
+            "?warehouseLatitude=" + warehouse.getLatitude() +
+            "&warehouseLongitude=" + warehouse.getLongitude();
+        
+        // A POST only to carry the item; it changes nothing, so it may be abandoned at the deadline
+        ResponseEntity<JsonNode> response = client.query(
+            "find-closest", HttpMethod.POST, findClosestUrl, entity);
+        
+        if (response.getStatusCode() == HttpStatus.OK) {
+            JsonNode centerNode = response.getBody();
+            System.out.println("Found item at: " + centerNode.get("name").asText() + " (ID: " + centerNode.get("id").asLong() + ")");
+            return centerNode;
+        }
+        return null;
+    }
+    
+    // Nearest center the index has the item in stock at, shaped like a find-closest response; null if the index can't tell
+    private JsonNode findClosestCenterLocally(Long warehouseId, String brand, String name) {
+        StockIndex index = stockIndex;
+        if (index == null || System.nanoTime() - index.builtAt > stockIndexTtlSeconds * 1_000_000_000L) {
+            return null;
+        }
+        StockedItem stocked = index.items.get(StockIndex.key(brand, name));
+        if (stocked == null) {
+            return null;
+        }
+        long centerId = distanceMatrix.nearestCenter(warehouseId, id -> stocked.quantities.getOrDefault(id, 0) > 0);
+        if (centerId < 0) {
+            return null;
+        }
+        ObjectNode centerNode = JsonNodeFactory.instance.objectNode();
+        centerNode.put("id", centerId);
+        centerNode.put("name", index.centerNames.getOrDefault(centerId, "Center " + centerId));
+        centerNode.set("item", stocked.details);
+        return centerNode;
+    }
+    
+    // The stock index is warm and young enough to route requests
+    public boolean hasStockIndex() {
+        StockIndex index = stockIndex;
+        return index != null && System.nanoTime() - index.builtAt <= stockIndexTtlSeconds * 1_000_000_000L;
+    }
+    
+    // Another node changed a center, so our picture of its stock is stale
+    @EventListener
+    public void onDistributionCenterChanged(DistributionCenterChangedEvent event) {
+        if (event.isRemote()) {
+            dropStockIndex();
+        }
+    }
+    
+    private void dropStockIndex() {
+        stockGeneration.incrementAndGet();
+        stockIndex = null;
+    }
+    
+    // Request a quantity of an item from a specific center and add it to a warehouse's stock
+    public boolean requestItemFromCenter(Long warehouseId, JsonNode centerNode, String brand, String name, Integer quantity) throws Exception {
+        Long centerId = centerNode.get("id").asLong();
+        String requestUrl = distributionCenterApiUrl + "/" + centerId + "/request?quantity=" + quantity;
+        
+        Map<String, Object> requestItemBody = new HashMap<>();
+        requestItemBody.put("brand", brand);
+        requestItemBody.put("name", name);
+        HttpEntity<Map<String, Object>> requestItemEntity = new HttpEntity<>(requestItemBody, createAuthHeaders());
+        
+        ResponseEntity<JsonNode> requestResponse;
+        try {
+            requestResponse = client.exchange("request-item", HttpMethod.POST, requestUrl, requestItemEntity);
+        } catch (DistributionCenterUnavailableException e) {
+            // The stock may or may not have been taken; rescan rather than route on a guess
+            dropStockIndex();
+            throw e;
+        }
+        
+        if (requestResponse.getStatusCode() == HttpStatus.OK) {
+            // Our own request: adjust the index in place rather than rescanning the network
+            stockGeneration.incrementAndGet();
+            StockIndex index = stockIndex;
+            if (index != null) {
+                index.taken(centerId, brand, name, quantity);
+            }
+            eventPublisher.publishEvent(new DistributionCenterChangedEvent(centerId));
+            // Add items to warehouse stock
+            return addItemsToWarehouse(warehouseService.resolve(warehouseId), brand, name, quantity, centerNode);
+        }
+        return false;
+    }
+    
     // Add multiple items to warehouse stock
-    private boolean addItemsToWarehouse(String brand, String name, Integer quantity, JsonNode centerResponse) {
+    private boolean addItemsToWarehouse(Long warehouseId, String brand, String name, Integer quantity, JsonNode centerResponse) {
         try {
             // Check if item already exists in warehouse
-            Optional<Item> existingItem = itemRepository.findByBrandAndName(brand, name)
+            Optional<Item> existingItem = itemRepository.findByBrandAndNameAndWarehouseId(brand, name, warehouseId)
                 .stream().findFirst();
             
             if (existingItem.isPresent()) {
                 // Update quantity
-                Item item = existingItem.get();
-                item.setQuantity(item.getQuantity() + quantity);
-                itemRepository.save(item);
+                itemService.adjustStock(existingItem.get().getId(), quantity, centerIdOf(centerResponse));
                 System.out.println("Updated warehouse stock for: " + name + " by " + brand + " (+" + quantity + ")");
             } else {
                 // Create new item in warehouse - get details from distribution center
@@ -329,7 +407,13 @@ public class DistributionCenterIntegrationService {
                 BigDecimal price = new BigDecimal("1.00"); // Default positive price
                 Integer year = 2023;
                 
-                if (centerResponse != null && centerResponse.has("items")) {
+                JsonNode matchedItem = centerResponse != null ? centerResponse.get("item") : null;
+                if (matchedItem != null && matchedItem.isObject()) {
+                    // The paged API returns just the matched item instead of the center's whole list
+                    category = matchedItem.get("category").asText();
+                    price = new BigDecimal(matchedItem.get("price").asText());
+                    year = matchedItem.get("year").asInt();
+                } else if (centerResponse != null && centerResponse.has("items")) {
                     for (JsonNode itemNode : centerResponse.get("items")) {
                         if (itemNode.get("brand").asText().equals(brand) && 
                             itemNode.get("name").asText().equals(name)) {
@@ -345,7 +429,9 @@ public class DistributionCenterIntegrationService {
                 newItem.setPrice(price);
                 newItem.setYear(year);
                 newItem.setQuantity(quantity);
-                itemRepository.save(newItem);
+                newItem.setWarehouseId(warehouseId);
+                Item saved = itemRepository.save(newItem);
+                eventPublisher.publishEvent(ItemChangedEvent.replenished(null, ItemSnapshot.of(saved), centerIdOf(centerResponse)));
                 System.out.println("Added new item to warehouse: " + name + " by " + brand + " (quantity: " + quantity + ")");
             }
             return true;
@@ -355,37 +441,51 @@ public class DistributionCenterIntegrationService {
         }
     }
 
-    // Get all available items organized by brand (only items with quantity > 0)
+    // Get all available items organized by brand (only items with quantity > 0).
+    // Cached briefly; failed lookups (empty result) are not cached.
+    @Cacheable(cacheNames = "availableItems", key = "'all'", unless = "#result.isEmpty()")
     public Map<String, Object> getAvailableItemsByBrand() {
         try {
             HttpEntity<String> entity = new HttpEntity<>(createAuthHeaders());
-            ResponseEntity<String> response = restTemplate.exchange(
-                distributionCenterApiUrl, HttpMethod.GET, entity, String.class);
+            Map<String, Map<String, Integer>> brandItemMap = new HashMap<>(); // brand -> (itemName -> totalQuantity), names sorted
+            Set<String> allBrands = new TreeSet<>();
+            long generation = stockGeneration.get();
+            StockIndex index = new StockIndex();
             
-            if (response.getStatusCode() == HttpStatus.OK) {
-                JsonNode jsonNode = objectMapper.readTree(response.getBody());
-                Map<String, Map<String, Integer>> brandItemMap = new HashMap<>(); // brand -> (itemName -> totalQuantity)
-                Set<String> allBrands = new TreeSet<>();
-                
-                for (JsonNode centerNode : jsonNode) {
-                    if (centerNode.has("items") && centerNode.get("items").isArray()) {
-                        for (JsonNode itemNode : centerNode.get("items")) {
-                            if (itemNode.has("name") && itemNode.has("brand") && itemNode.has("quantity")) {
-                                int quantity = itemNode.get("quantity").asInt();
-                                if (quantity > 0) { // Only include items with available stock
-                                    String name = itemNode.get("name").asText();
-                                    String brand = itemNode.get("brand").asText();
-                                    
-                                    allBrands.add(brand);
-                                    
-                                    brandItemMap.computeIfAbsent(brand, k -> new HashMap<>());
-                                    brandItemMap.get(brand).merge(name, quantity, Integer::sum);
-                                }
+            JsonNode summaries = fetchCenterSummaries(entity);
+            boolean loaded = false;
+            if (summaries != null) {
+                List<Long> centerIds = new ArrayList<>();
+                for (JsonNode centerNode : summaries) {
+                    index.addCenter(centerNode);
+                    if (itemCountOf(centerNode) > 0) {
+                        centerIds.add(centerNode.get("id").asLong());
+                    }
+                }
+                forEachCenterItem(centerIds, entity, (centerId, itemNode) -> {
+                    addAvailableItem(itemNode, brandItemMap, allBrands);
+                    index.addItem(centerId, itemNode);
+                });
+                loaded = true;
+            } else {
+                ResponseEntity<JsonNode> response = client.exchange(
+                    "list-centers", HttpMethod.GET, distributionCenterApiUrl, entity);
+                if (response.getStatusCode() == HttpStatus.OK) {
+                    for (JsonNode centerNode : response.getBody()) {
+                        index.addCenter(centerNode);
+                        if (centerNode.has("items") && centerNode.get("items").isArray()) {
+                            for (JsonNode itemNode : centerNode.get("items")) {
+                                addAvailableItem(itemNode, brandItemMap, allBrands);
+                                index.addItem(centerNode.get("id").asLong(), itemNode);
                             }
                         }
                     }
+                    loaded = true;
                 }
-                
+            }
+            
+            if (loaded) {
+                publishStockIndex(index, generation);
                 Map<String, Object> result = new HashMap<>();
                 result.put("brands", new ArrayList<>(allBrands));
                 result.put("itemsByBrand", brandItemMap);
@@ -398,17 +498,166 @@ public class DistributionCenterIntegrationService {
         return Collections.emptyMap();
     }
     
-    // Calculate distance using Haversine formula
-    private double calculateDistance(double lat1, double lon1, double lat2, double lon2) {
-        final int R = 6371; // Radius of the earth in km
+    // Centers are placed in the matrix as the scan meets them; the index is only kept if no center changed meanwhile
+    private void publishStockIndex(StockIndex index, long generation) {
+        for (Map.Entry<Long, double[]> center : index.locations.entrySet()) {
+            distanceMatrix.putCenter(center.getKey(), center.getValue()[0], center.getValue()[1]);
+        }
+        distanceMatrix.retainCenters(index.locations.keySet());
+        index.locations.clear();
+        if (stockGeneration.get() == generation) {
+            index.builtAt = System.nanoTime();
+            stockIndex = index;
+        }
+    }
+    
+    // Only items with available stock are offered
+    private static void addAvailableItem(JsonNode itemNode, Map<String, Map<String, Integer>> brandItemMap, Set<String> allBrands) {
+        if (itemNode.has("name") && itemNode.has("brand") && itemNode.has("quantity")) {
+            int quantity = itemNode.get("quantity").asInt();
+            if (quantity > 0) {
+                String brand = itemNode.get("brand").asText();
+                allBrands.add(brand);
+                brandItemMap.computeIfAbsent(brand, k -> new TreeMap<>()).merge(itemNode.get("name").asText(), quantity, Integer::sum);
+            }
+        }
+    }
+    
+    private static Map<String, Object> toItemMap(JsonNode itemNode) {
+        Map<String, Object> item = new HashMap<>();
+        item.put("id", itemNode.get("id").asLong());
+        item.put("name", itemNode.get("name").asText());
+        item.put("brand", itemNode.get("brand").asText());
+        item.put("category", itemNode.get("category").asText());
+        item.put("price", itemNode.get("price").asDouble());
+        item.put("year", itemNode.get("year").asInt());
+        item.put("quantity", itemNode.get("quantity").asInt());
+        return item;
+    }
+    
+    // Summaries carry itemCount; the full listing only has the items array
+    private static int itemCountOf(JsonNode centerNode) {
+        if (centerNode.has("itemCount")) {
+            return centerNode.get("itemCount").asInt();
+        }
+        return centerNode.has("items") && centerNode.get("items").isArray() ? centerNode.get("items").size() : 0;
+    }
+    
+    // Centers without their items (GET /summaries), or null when paging is off or the API doesn't have it
+    private JsonNode fetchCenterSummaries(HttpEntity<String> entity) throws Exception {
+        if (!pagedApiEnabled || Boolean.FALSE.equals(pagedApiAvailable)) {
+            return null;
+        }
+        try {
+            ResponseEntity<JsonNode> response = client.exchange(
+                "list-summaries", HttpMethod.GET, distributionCenterApiUrl + "/summaries", entity);
+            pagedApiAvailable = true;
+            return response.getBody();
+        } catch (HttpClientErrorException e) {
+            System.out.println("Distribution center API has no paged endpoints (" + e.getStatusCode() + "), using the full listing");
+            pagedApiAvailable = false;
+            return null;
+        }
+    }
+    
+    // Hand every item of the given centers to the consumer, one page at a time. Pages are fetched
+    // concurrently, but only a bounded number are requested ahead of the consumer, and each page is
+    // dropped once consumed. The consumer runs on the calling thread, so it needs no locking.
+    private void forEachCenterItem(List<Long> centerIds, HttpEntity<String> entity,
+                                   BiConsumer<Long, JsonNode> consumer) throws Exception {
+        long deadline = System.nanoTime() + catalogDeadlineMs * 1_000_000L;
+        Deque<long[]> pending = new ArrayDeque<>(); // {centerId, page}; first pages tell how many follow
+        for (Long centerId : centerIds) {
+            pending.add(new long[] { centerId, 0 });
+        }
+        Deque<Map.Entry<Long, Future<JsonNode>>> inFlight = new ArrayDeque<>();
+        try {
+            while (!pending.isEmpty() || !inFlight.isEmpty()) {
+                while (inFlight.size() < fetchParallelism * 2 && !pending.isEmpty()) {
+                    long[] next = pending.poll();
+                    long budgetMs = Math.max(0, (deadline - System.nanoTime()) / 1_000_000L);
+                    inFlight.add(Map.entry(next[0], pageFetcher.submit(() -> client.withDeadline(budgetMs,
+                        () -> fetchItemPage(next[0], (int) next[1], entity)))));
+                }
+                Map.Entry<Long, Future<JsonNode>> head = inFlight.poll();
+                JsonNode page = awaitPage(head.getValue(), deadline);
+                if (page.path("number").asInt() == 0) {
+                    for (int number = 1; number < page.path("totalPages").asInt(1); number++) {
+                        pending.add(new long[] { head.getKey(), number });
+                    }
+                }
+                for (JsonNode itemNode : page.path("content")) {
+                    consumer.accept(head.getKey(), itemNode);
+                }
+            }
+        } finally {
+            inFlight.forEach(entry -> entry.getValue().cancel(true));
+        }
+    }
+    
+    private JsonNode fetchItemPage(long centerId, int page, HttpEntity<String> entity) throws Exception {
+        ResponseEntity<JsonNode> response = client.exchange("list-items", HttpMethod.GET,
+            distributionCenterApiUrl + "/" + centerId + "/items?page=" + page + "&size=" + pageSize, entity, true);
+        return response.getBody();
+    }
+    
+    private static JsonNode awaitPage(Future<JsonNode> future, long deadline) throws Exception {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new DistributionCenterUnavailableException("deadline exceeded while paging center items", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+    
+    // Centers stocking each item (brand + name), with the item's details for creating it in a warehouse.
+    // Quantities are updated in place for our own requests, so readers may see them change.
+    private static final class StockIndex {
+        private final Map<String, StockedItem> items = new HashMap<>();
+        private final Map<Long, String> centerNames = new HashMap<>();
+        private final Map<Long, double[]> locations = new HashMap<>();
+        private long builtAt;
+        
+        private static String key(String brand, String name) {
+            return brand + "\n" + name;
+        }
         
-        double latDistance = Math.toRadians(lat2 - lat1);
-        double lonDistance = Math.toRadians(lon2 - lon1);
-        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
-                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
-                * Math.sin(lonDistance / 2) * Math.sin(lonDistance / 2);
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+        private void addCenter(JsonNode centerNode) {
+            long centerId = centerNode.get("id").asLong();
+            centerNames.put(centerId, centerNode.path("name").asText());
+            if (centerNode.has("latitude") && centerNode.has("longitude")) {
+                locations.put(centerId, new double[] { centerNode.get("latitude").asDouble(), centerNode.get("longitude").asDouble() });
+            }
+        }
         
-        return R * c; // Distance in kilometers
+        private void addItem(long centerId, JsonNode itemNode) {
+            int quantity = itemNode.path("quantity").asInt();
+            if (quantity > 0 && itemNode.has("brand") && itemNode.has("name")) {
+                items.computeIfAbsent(key(itemNode.get("brand").asText(), itemNode.get("name").asText()),
+                    k -> new StockedItem(itemNode)).quantities.merge(centerId, quantity, Integer::sum);
+            }
+        }
+        
+        private void taken(long centerId, String brand, String name, int quantity) {
+            StockedItem stocked = items.get(key(brand, name));
+            if (stocked != null) {
+                stocked.quantities.computeIfPresent(centerId, (id, left) -> left - quantity);
+            }
+        }
+    }
+    
+    private static final class StockedItem {
+        private final JsonNode details;
+        private final Map<Long, Integer> quantities = new ConcurrentHashMap<>();
+        
+        private StockedItem(JsonNode details) {
+            this.details = details;
+        }
+    }
+    
+    // Matrix lookup, rounded to 10 m for display
+    private double roundedDistance(Long warehouseId, long centerId) {
+        return Math.round(distanceMatrix.distanceKm(warehouseId, centerId) * 100.0) / 100.0;
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.arjencode.project.service;
+
+// The distribution center API was not called or did not answer in time (open circuit, full bulkhead,
+// expired deadline) and there was no earlier response to fall back to
+public class DistributionCenterUnavailableException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public DistributionCenterUnavailableException(String message) {
+        super(message);
+    }
+
+    public DistributionCenterUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,55 @@
+package com.arjencode.project.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+// Per-dimension counts for one filter set. Each dimension is counted with every other
+// active filter applied but not its own, so the sidebar still shows the alternatives.
+public class FacetCounts {
+
+    private final FacetFilter filter;
+    private final long totalMatching;
+    private final Map<String, Long> brands;
+    private final Map<String, Long> categories;
+    private final Map<Integer, Long> years;
+    private final List<PriceBucket> priceBuckets;
+
+    public FacetCounts(FacetFilter filter, long totalMatching, Map<String, Long> brands,
+                       Map<String, Long> categories, Map<Integer, Long> years, List<PriceBucket> priceBuckets) {
+        this.filter = filter;
+        this.totalMatching = totalMatching;
+        this.brands = brands;
+        this.categories = categories;
+        this.years = years;
+        this.priceBuckets = priceBuckets;
+    }
+
+    public FacetFilter getFilter() {
+        return filter;
+    }
+
+    public long getTotalMatching() {
+        return totalMatching;
+    }
+
+    public Map<String, Long> getBrands() {
+        return brands;
+    }
+
+    public Map<String, Long> getCategories() {
+        return categories;
+    }
+
+    public Map<Integer, Long> getYears() {
+        return years;
+    }
+
+    public List<PriceBucket> getPriceBuckets() {
+        return priceBuckets;
+    }
+
+    // Histogram bucket covering [from, to)
+    public record PriceBucket(int index, BigDecimal from, BigDecimal to, long count) {
+    }
+}
@@ -0,0 +1,17 @@
+package com.arjencode.project.service;
+
+// Active filter set for facet counting; null means "any". Also serves as the facet cache key.
+public record FacetFilter(String brand, String category, Integer year, Integer priceBucket) {
+
+    public static FacetFilter none() {
+        return new FacetFilter(null, null, null, null);
+    }
+
+    public static FacetFilter of(String brand, String category, Integer year, Integer priceBucket) {
+        return new FacetFilter(blankToNull(brand), blankToNull(category), year, priceBucket);
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+}
@@ -0,0 +1,194 @@
+package com.arjencode.project.service;
+
+import com.arjencode.project.event.ItemChangedEvent;
+import com.arjencode.project.event.ItemsBulkChangedEvent;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Service
+public class FacetService {
+
+    @Value("${facets.price.bucket-width:50}")
+    private int priceBucketWidth;
+
+    private final EntityManager entityManager;
+    // Facet results per filter signature
+    private final Cache results;
+
+    // Catalog counts grouped by (brand, category, year, price bucket), loaded by a single query
+    private volatile FacetCube cube;
+    private final AtomicLong generation = new AtomicLong();
+    // Lets one request load the cube while the others wait for it
+    private final ReentrantLock loadLock = new ReentrantLock();
+
+    @Autowired
+    public FacetService(EntityManager entityManager, CacheManager cacheManager) {
+        this.entityManager = entityManager;
+        this.results = cacheManager.getCache("facets");
+    }
+
+    // Get facet counts for a filter set, cached per filter signature. A result computed while a catalog
+    // change committed is evicted again right after the put, so it can't outlive the invalidation.
+    @Transactional(readOnly = true)
+    public FacetCounts getFacets(FacetFilter filter) {
+        FacetCounts cached = results.get(filter, FacetCounts.class);
+        if (cached != null) {
+            return cached;
+        }
+        long computedAt = generation.get();
+        FacetCounts counts = computeFacets(filter);
+        results.put(filter, counts);
+        if (generation.get() != computedAt) {
+            results.evict(filter);
+        }
+        return counts;
+    }
+
+    private FacetCounts computeFacets(FacetFilter filter) {
+        FacetCube current = loadCube();
+
+        long total = 0;
+        Map<String, Long> brands = new TreeMap<>();
+        Map<String, Long> categories = new TreeMap<>();
+        Map<Integer, Long> years = new TreeMap<>(Comparator.reverseOrder());
+        Map<Integer, Long> buckets = new TreeMap<>();
+
+        for (int cell = 0; cell < current.size; cell++) {
+            String brand = current.brands[current.brandCodes[cell]];
+            String category = current.categories[current.categoryCodes[cell]];
+            int year = current.years[cell];
+            int bucket = current.buckets[cell];
+            long count = current.counts[cell];
+
+            boolean brandOk = filter.brand() == null || filter.brand().equalsIgnoreCase(brand);
+            boolean categoryOk = filter.category() == null || filter.category().equalsIgnoreCase(category);
+            boolean yearOk = filter.year() == null || filter.year() == year;
+            boolean bucketOk = filter.priceBucket() == null || filter.priceBucket() == bucket;
+
+            if (categoryOk && yearOk && bucketOk) {
+                brands.merge(brand, count, Long::sum);
+            }
+            if (brandOk && yearOk && bucketOk) {
+                categories.merge(category, count, Long::sum);
+            }
+            if (brandOk && categoryOk && bucketOk) {
+                years.merge(year, count, Long::sum);
+            }
+            if (brandOk && categoryOk && yearOk) {
+                buckets.merge(bucket, count, Long::sum);
+                if (bucketOk) {
+                    total += count;
+                }
+            }
+        }
+
+        List<FacetCounts.PriceBucket> priceBuckets = new ArrayList<>();
+        BigDecimal width = BigDecimal.valueOf(priceBucketWidth);
+        for (Map.Entry<Integer, Long> entry : buckets.entrySet()) {
+            BigDecimal from = width.multiply(BigDecimal.valueOf(entry.getKey()));
+            priceBuckets.add(new FacetCounts.PriceBucket(entry.getKey(), from, from.add(width), entry.getValue()));
+        }
+
+        return new FacetCounts(filter, total, brands, categories, years, priceBuckets);
+    }
+
+    // Drop the cube and every cached facet result once a catalog change has committed
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        invalidate();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemsBulkChanged(ItemsBulkChangedEvent event) {
+        invalidate();
+    }
+
+    private void invalidate() {
+        generation.incrementAndGet();
+        cube = null;
+        results.clear();
+    }
+
+    private FacetCube loadCube() {
+        FacetCube current = cube;
+        if (current != null) {
+            return current;
+        }
+        loadLock.lock();
+        try {
+            current = cube;
+            if (current == null) {
+                long loadedAt = generation.get();
+                current = queryCube();
+                // Don't publish a cube that a concurrent write has already made stale
+                if (generation.get() == loadedAt) {
+                    cube = current;
+                }
+            }
+            return current;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private FacetCube queryCube() {
+        // The bucket width is an integer setting, so it is inlined to keep the GROUP BY expression identical
+        String bucketExpression = "FLOOR(i.price / " + priceBucketWidth + ")";
+        List<Object[]> rows = entityManager.createQuery(
+                "SELECT i.brand, i.category, i.year, " + bucketExpression + ", COUNT(i) FROM Item i " +
+                "GROUP BY i.brand, i.category, i.year, " + bucketExpression, Object[].class)
+            .getResultList();
+
+        Map<String, Integer> brandDictionary = new HashMap<>();
+        Map<String, Integer> categoryDictionary = new HashMap<>();
+        FacetCube loaded = new FacetCube(rows.size());
+        for (Object[] row : rows) {
+            int cell = loaded.size++;
+            loaded.brandCodes[cell] = brandDictionary.computeIfAbsent((String) row[0], k -> brandDictionary.size());
+            loaded.categoryCodes[cell] = categoryDictionary.computeIfAbsent((String) row[1], k -> categoryDictionary.size());
+            loaded.years[cell] = ((Number) row[2]).intValue();
+            loaded.buckets[cell] = ((Number) row[3]).intValue();
+            loaded.counts[cell] = ((Number) row[4]).longValue();
+        }
+        loaded.brands = toArray(brandDictionary);
+        loaded.categories = toArray(categoryDictionary);
+        return loaded;
+    }
+
+    private static String[] toArray(Map<String, Integer> dictionary) {
+        String[] values = new String[dictionary.size()];
+        dictionary.forEach((value, code) -> values[code] = value);
+        return values;
+    }
+
+    // Dictionary-encoded cells of the grouped count query
+    private static final class FacetCube {
+        private int size;
+        private final int[] brandCodes;
+        private final int[] categoryCodes;
+        private final int[] years;
+        private final int[] buckets;
+        private final long[] counts;
+        private String[] brands;
+        private String[] categories;
+
+        private FacetCube(int capacity) {
+            this.brandCodes = new int[capacity];
+            this.categoryCodes = new int[capacity];
+            this.years = new int[capacity];
+            this.buckets = new int[capacity];
+            this.counts = new long[capacity];
+        }
+    }
+}
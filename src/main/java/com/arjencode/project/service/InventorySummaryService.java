@@ -0,0 +1,323 @@
+package com.arjencode.project.service;
+
+import com.arjencode.project.event.ItemChangedEvent;
+import com.arjencode.project.event.ItemSnapshot;
+import com.arjencode.project.event.ItemsBulkChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+// Running inventory totals (SKU count, units on hand, stock value) per warehouse, brand, category and year.
+// Built by one GROUP BY query at startup, then kept current with the before/after deltas of item change
+// events, so the dashboard reads totals without touching the items table. A periodic reconciliation
+// re-runs the query and replaces the totals, correcting any drift (and logging it).
+// Values are kept as cents; prices have two decimals, so the sums are exact.
+@Service
+public class InventorySummaryService {
+
+    private static final String AGGREGATE_QUERY =
+        "SELECT i.warehouseId, i.brand, i.category, i.year, COUNT(i), SUM(i.quantity), SUM(i.price * i.quantity) " +
+        "FROM Item i GROUP BY i.warehouseId, i.brand, i.category, i.year";
+
+    // Rebuilds retried when item changes commit while the aggregate query runs
+    private static final int MAX_LOAD_ATTEMPTS = 3;
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate primaryTransaction;
+    private final MeterRegistry meterRegistry;
+    private final Counter cleanReconciliations;
+    private final Counter driftedReconciliations;
+
+    // All fields below are guarded by this
+    private Map<CellKey, Totals> cells;
+    private Map<Long, Totals> warehouses = new HashMap<>();
+    private Totals overall = new Totals();
+    private long loadedAtMillis;
+
+    // Bumped for every change event, so a rebuild can tell whether the catalog moved under its query
+    private final AtomicLong generation = new AtomicLong();
+
+    // Rebuilds after bulk statements run here rather than on the request thread that committed them;
+    // a rebuild requested while one runs is queued once
+    private final ExecutorService rebuilder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "inventory-summary-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean();
+
+    @Autowired
+    public InventorySummaryService(EntityManager entityManager, PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry) {
+        this.entityManager = entityManager;
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.cleanReconciliations = meterRegistry.counter("inventory.summary.reconciliations", "outcome", "clean");
+        this.driftedReconciliations = meterRegistry.counter("inventory.summary.reconciliations", "outcome", "drift");
+    }
+
+    // Registered once the service is constructed, since the gauges read its totals
+    @PostConstruct
+    public void registerGauges() {
+        Gauge.builder("inventory.summary.skus", this, service -> service.overall().skus).register(meterRegistry);
+        Gauge.builder("inventory.summary.units", this, service -> service.overall().units).register(meterRegistry);
+        Gauge.builder("inventory.summary.value", this, service -> service.overall().valueCents / 100.0).register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdownNow();
+    }
+
+    // Build the totals once the sample/generated data is in place
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.nanoTime();
+        int drifted = rebuild();
+        System.out.printf("Inventory summary loaded %,d cells in %d ms%s%n", cellCount(),
+            (System.nanoTime() - start) / 1_000_000, drifted > 0 ? " (" + drifted + " cells corrected)" : "");
+    }
+
+    // Compare the running totals with the database and replace them; a drift means a missed or doubled delta
+    @Scheduled(initialDelayString = "${inventory.summary.reconcile-interval-ms:300000}",
+               fixedDelayString = "${inventory.summary.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        int drifted = rebuild();
+        if (drifted > 0) {
+            driftedReconciliations.increment();
+            System.err.println("Inventory summary drifted from the database in " + drifted + " cells; totals replaced");
+        } else {
+            cleanReconciliations.increment();
+        }
+    }
+
+    // Apply the difference between the before and after state of a committed change
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        generation.incrementAndGet();
+        synchronized (this) {
+            if (cells == null) {
+                return;
+            }
+            apply(event.getBefore(), -1);
+            apply(event.getAfter(), 1);
+        }
+    }
+
+    // A bulk statement may have touched any row, so rebuild from the database (in the background)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemsBulkChanged(ItemsBulkChangedEvent event) {
+        generation.incrementAndGet();
+        if (rebuildQueued.compareAndSet(false, true)) {
+            rebuilder.execute(() -> {
+                rebuildQueued.set(false);
+                try {
+                    rebuild();
+                } catch (RuntimeException e) {
+                    System.err.println("Error rebuilding inventory summary: " + e.getMessage());
+                }
+            });
+        }
+    }
+
+    public synchronized boolean isLoaded() {
+        return cells != null;
+    }
+
+    // Totals of one warehouse (zeros if it has no items); empty until the summary has been loaded
+    public synchronized Optional<Map<String, Object>> getWarehouseTotals(Long warehouseId) {
+        if (cells == null) {
+            return Optional.empty();
+        }
+        return Optional.of(warehouses.getOrDefault(warehouseId, new Totals()).toMap());
+    }
+
+    // Overall totals plus a breakdown by brand, category or year, optionally for one warehouse
+    public Map<String, Object> getSummary(Long warehouseId, String groupBy) {
+        String dimension = groupBy == null ? "brand" : groupBy.toLowerCase(Locale.ROOT);
+        Function<CellKey, Object> grouping = switch (dimension) {
+            case "brand" -> CellKey::brand;
+            case "category" -> CellKey::category;
+            case "year" -> CellKey::year;
+            default -> throw new IllegalArgumentException("groupBy must be brand, category or year");
+        };
+
+        Map<Object, Totals> groups = new TreeMap<>();
+        Totals totals;
+        long loadedAt;
+        synchronized (this) {
+            if (cells == null) {
+                throw new IllegalStateException("Inventory summary is still loading");
+            }
+            for (Map.Entry<CellKey, Totals> cell : cells.entrySet()) {
+                if (warehouseId == null || warehouseId.equals(cell.getKey().warehouseId())) {
+                    groups.computeIfAbsent(grouping.apply(cell.getKey()), key -> new Totals()).add(cell.getValue(), 1);
+                }
+            }
+            totals = warehouseId == null ? overall.copy() : warehouses.getOrDefault(warehouseId, new Totals()).copy();
+            loadedAt = loadedAtMillis;
+        }
+
+        List<Map<String, Object>> breakdown = new ArrayList<>();
+        groups.forEach((key, groupTotals) -> {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put(dimension, key);
+            row.putAll(groupTotals.toMap());
+            breakdown.add(row);
+        });
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("warehouseId", warehouseId);
+        summary.putAll(totals.toMap());
+        summary.put("groupBy", dimension);
+        summary.put("groups", breakdown);
+        summary.put("reconciledAt", new Date(loadedAt));
+        return summary;
+    }
+
+    // Replace the totals with a fresh aggregate; returns the number of cells that differed
+    private int rebuild() {
+        for (int attempt = 1; ; attempt++) {
+            long startGeneration = generation.get();
+            Map<CellKey, Totals> loaded = queryCells();
+            synchronized (this) {
+                // A change committed during the query may or may not be in its result; retry rather than guess.
+                // After the last attempt the result is used anyway and the next reconciliation settles it.
+                if (generation.get() != startGeneration && attempt < MAX_LOAD_ATTEMPTS) {
+                    continue;
+                }
+                int drifted = cells == null ? 0 : countDifferences(cells, loaded);
+                cells = loaded;
+                warehouses = new HashMap<>();
+                overall = new Totals();
+                loaded.forEach((key, totals) -> {
+                    warehouses.computeIfAbsent(key.warehouseId(), id -> new Totals()).add(totals, 1);
+                    overall.add(totals, 1);
+                });
+                loadedAtMillis = System.currentTimeMillis();
+                return drifted;
+            }
+        }
+    }
+
+    // Read-write on purpose: read-only transactions may go to a lagging replica, which would look like drift
+    private Map<CellKey, Totals> queryCells() {
+        List<Object[]> rows = primaryTransaction.execute(status ->
+            entityManager.createQuery(AGGREGATE_QUERY, Object[].class).getResultList());
+        Map<CellKey, Totals> loaded = new HashMap<>();
+        for (Object[] row : rows) {
+            Totals totals = new Totals();
+            totals.skus = ((Number) row[4]).longValue();
+            totals.units = row[5] == null ? 0 : ((Number) row[5]).longValue();
+            totals.valueCents = row[6] == null ? 0 : toCents(new BigDecimal(row[6].toString()));
+            loaded.put(new CellKey((Long) row[0], (String) row[1], (String) row[2], ((Number) row[3]).intValue()), totals);
+        }
+        return loaded;
+    }
+
+    // Caller holds the lock
+    private void apply(ItemSnapshot item, int sign) {
+        if (item == null) {
+            return;
+        }
+        Totals delta = new Totals();
+        delta.skus = 1;
+        delta.units = item.quantity() == null ? 0 : item.quantity();
+        delta.valueCents = item.price() == null ? 0 : toCents(item.price()) * delta.units;
+
+        CellKey key = new CellKey(item.warehouseId(), item.brand(), item.category(), item.year());
+        Totals cell = cells.computeIfAbsent(key, k -> new Totals());
+        cell.add(delta, sign);
+        if (cell.skus <= 0) {
+            cells.remove(key);
+        }
+        warehouses.computeIfAbsent(item.warehouseId(), id -> new Totals()).add(delta, sign);
+        overall.add(delta, sign);
+    }
+
+    private static int countDifferences(Map<CellKey, Totals> current, Map<CellKey, Totals> loaded) {
+        int differences = 0;
+        for (Map.Entry<CellKey, Totals> cell : loaded.entrySet()) {
+            if (!cell.getValue().equals(current.get(cell.getKey()))) {
+                differences++;
+            }
+        }
+        for (CellKey key : current.keySet()) {
+            if (!loaded.containsKey(key)) {
+                differences++;
+            }
+        }
+        return differences;
+    }
+
+    private synchronized Totals overall() {
+        return overall.copy();
+    }
+
+    private synchronized int cellCount() {
+        return cells == null ? 0 : cells.size();
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact();
+    }
+
+    private record CellKey(Long warehouseId, String brand, String category, int year) {
+    }
+
+    private static final class Totals {
+        private long skus;
+        private long units;
+        private long valueCents;
+
+        private void add(Totals other, int sign) {
+            skus += sign * other.skus;
+            units += sign * other.units;
+            valueCents += sign * other.valueCents;
+        }
+
+        private Totals copy() {
+            Totals copy = new Totals();
+            copy.add(this, 1);
+            return copy;
+        }
+
+        private Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("skus", skus);
+            map.put("units", units);
+            map.put("value", BigDecimal.valueOf(valueCents, 2));
+            return map;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Totals other && skus == other.skus && units == other.units && valueCents == other.valueCents;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(skus, units, valueCents);
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.arjencode.project.service;
+
+import com.arjencode.project.event.ItemChangedEvent;
+import com.arjencode.project.event.ItemSnapshot;
+import com.arjencode.project.event.ItemsBulkChangedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Pushes item changes to browsers over server-sent events.
+// Emitters are async (no request thread is held per subscriber). A single dispatcher thread drains the
+// change queue, coalesces repeated changes per item and hands each subscriber its events through a
+// bounded queue of its own; sender threads write them out, so a slow client only delays itself and
+// is dropped once its queue is full.
+@Service
+public class ItemEventStreamService {
+
+    private static final String ALL_BRANDS = "";
+
+    @Value("${items.stream.timeout-ms:1800000}")
+    private long emitterTimeoutMs;
+
+    @Value("${items.stream.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${items.stream.subscriber-queue-capacity:256}")
+    private int subscriberQueueCapacity;
+
+    @Value("${items.stream.sender-threads:8}")
+    private int senderThreads;
+
+    private final Environment environment;
+    // Subscribers keyed by lower-cased brand; ALL_BRANDS receives every change
+    private final Map<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    // ItemChangedEvents and ItemsBulkChangedEvents, in commit order
+    private BlockingQueue<Object> pending;
+    private Thread dispatcher;
+    private ExecutorService senders;
+    private volatile boolean running = true;
+
+    @Autowired
+    public ItemEventStreamService(Environment environment) {
+        this.environment = environment;
+    }
+
+    @PostConstruct
+    public void start() {
+        pending = new LinkedBlockingQueue<>(queueCapacity);
+        senders = BlockingTaskExecutors.create(environment, "item-stream-send-", senderThreads);
+        dispatcher = new Thread(this::dispatchLoop, "item-stream-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        dispatcher.interrupt();
+        senders.shutdownNow();
+        subscribers.values().forEach(set -> set.forEach(subscriber -> subscriber.emitter.complete()));
+    }
+
+    // Register a new subscriber, optionally limited to one brand
+    public SseEmitter subscribe(String brand) {
+        String key = brand == null || brand.isBlank() ? ALL_BRANDS : brand.trim().toLowerCase(Locale.ROOT);
+        Subscriber subscriber = new Subscriber(key, new SseEmitter(emitterTimeoutMs));
+        subscribers.compute(key, (k, set) -> {
+            Set<Subscriber> updated = set != null ? set : ConcurrentHashMap.newKeySet();
+            updated.add(subscriber);
+            return updated;
+        });
+
+        Runnable remove = () -> remove(subscriber);
+        subscriber.emitter.onCompletion(remove);
+        subscriber.emitter.onTimeout(remove);
+        subscriber.emitter.onError(error -> remove.run());
+
+        subscriber.offer(SseEmitter.event().name("connected").data(key.isEmpty() ? "all" : key));
+        return subscriber.emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.values().stream().mapToInt(Set::size).sum();
+    }
+
+    // Queue changes once committed; the publishing thread never blocks on slow clients
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        if (!pending.offer(event)) {
+            System.err.println("Item stream queue full, dropping change for item " + event.getItemId());
+        }
+    }
+
+    // Bulk changes are announced to every subscriber as a single "catalog-changed" event
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemsBulkChanged(ItemsBulkChangedEvent event) {
+        if (!pending.offer(event)) {
+            System.err.println("Item stream queue full, dropping bulk change " + event.getOperation());
+        }
+    }
+
+    // Keep idle connections alive through proxies and detect disconnected clients
+    @Scheduled(fixedDelayString = "${items.stream.heartbeat-ms:25000}")
+    public void heartbeat() {
+        for (Set<Subscriber> set : subscribers.values()) {
+            for (Subscriber subscriber : set) {
+                subscriber.offer(SseEmitter.event().comment("heartbeat"));
+            }
+        }
+    }
+
+    private void dispatchLoop() {
+        List<Object> batch = new ArrayList<>();
+        while (running) {
+            try {
+                batch.add(pending.take());
+                pending.drainTo(batch, 999);
+
+                // Only the latest state of each item matters to the page, except that a creation stays one
+                Map<Long, ItemChangedEvent> latest = new LinkedHashMap<>();
+                boolean bulkChange = false;
+                for (Object event : batch) {
+                    if (event instanceof ItemChangedEvent itemEvent) {
+                        ItemChangedEvent earlier = latest.remove(itemEvent.getItemId());
+                        latest.put(itemEvent.getItemId(), earlier == null ? itemEvent : merge(earlier, itemEvent));
+                    } else {
+                        bulkChange = true;
+                    }
+                }
+                for (ItemChangedEvent event : latest.values()) {
+                    dispatch(event);
+                }
+                if (bulkChange) {
+                    for (Set<Subscriber> set : subscribers.values()) {
+                        sendTo(set, "catalog-changed", "{}");
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                System.err.println("Error dispatching item stream events: " + e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Net effect of two changes to one item: the first "before", the last "after", and CREATED if
+    // the item was created in between (so the page still shows its "new items" notice)
+    private static ItemChangedEvent merge(ItemChangedEvent earlier, ItemChangedEvent later) {
+        if (later.getType() == ItemChangedEvent.Type.DELETED) {
+            return later;
+        }
+        ItemChangedEvent.Type type = earlier.getType() == ItemChangedEvent.Type.CREATED
+            ? ItemChangedEvent.Type.CREATED : later.getType();
+        return new ItemChangedEvent(type, earlier.getBefore(), later.getAfter(), later.isRemote(), later.getCenterId());
+    }
+
+    private void dispatch(ItemChangedEvent event) throws IOException {
+        // Serialize once; each subscriber gets its own event builder around the same JSON
+        String payload = objectMapper.writeValueAsString(toPayload(event));
+        sendTo(subscribers.get(ALL_BRANDS), "item-changed", payload);
+        sendTo(subscribers.get(event.getBrand().toLowerCase(Locale.ROOT)), "item-changed", payload);
+        // A brand change should also reach subscribers of the previous brand
+        if (event.getBefore() != null && event.getAfter() != null
+                && !event.getBefore().brand().equalsIgnoreCase(event.getAfter().brand())) {
+            sendTo(subscribers.get(event.getBefore().brand().toLowerCase(Locale.ROOT)), "item-changed", payload);
+        }
+    }
+
+    private void sendTo(Set<Subscriber> set, String eventName, String payload) {
+        if (set == null) {
+            return;
+        }
+        for (Subscriber subscriber : set) {
+            subscriber.offer(SseEmitter.event().name(eventName).data(payload, MediaType.APPLICATION_JSON));
+        }
+    }
+
+    // Remove a subscriber, and its brand entry once nobody is left on it
+    private void remove(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.brand, (key, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    // One connected browser: its pending events and whether a sender is currently writing them
+    private final class Subscriber {
+        private final String brand;
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> events;
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        private Subscriber(String brand, SseEmitter emitter) {
+            this.brand = brand;
+            this.emitter = emitter;
+            this.events = new ArrayBlockingQueue<>(subscriberQueueCapacity);
+        }
+
+        private void offer(SseEmitter.SseEventBuilder event) {
+            if (!events.offer(event)) {
+                System.err.println("Item stream subscriber fell " + subscriberQueueCapacity + " events behind, disconnecting it");
+                remove(this);
+                emitter.complete();
+                return;
+            }
+            if (sending.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    sending.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                do {
+                    SseEmitter.SseEventBuilder event;
+                    while ((event = events.poll()) != null) {
+                        emitter.send(event);
+                    }
+                    sending.set(false);
+                    // An event offered between the last poll and the reset has no sender yet; take it over
+                } while (!events.isEmpty() && sending.compareAndSet(false, true));
+            } catch (IOException | IllegalStateException e) {
+                sending.set(false);
+                remove(this);
+            }
+        }
+    }
+
+    private static Map<String, Object> toPayload(ItemChangedEvent event) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("type", event.getType().name());
+        payload.put("id", event.getItemId());
+        payload.put("brand", event.getBrand());
+        ItemSnapshot item = event.getAfter();
+        if (item != null) {
+            payload.put("name", item.name());
+            payload.put("quantity", item.quantity());
+            payload.put("price", item.price());
+        }
+        return payload;
+    }
+}
@@ -1,33 +1,143 @@
 package com.arjencode.project.service;
 
+import com.arjencode.project.event.ItemChangedEvent;
+import com.arjencode.project.event.ItemSnapshot;
 import com.arjencode.project.model.Item;
 import com.arjencode.project.repository.ItemRepository;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
+// Queries run in read-only transactions (manual flush, no dirty-check snapshots) and may be served
+// by a read replica; writes override this with read-write transactions on the primary.
 @Service
+@Transactional(readOnly = true)
 public class ItemService {
     
     private final ItemRepository itemRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectProvider<ColumnarCatalog> columnarCatalog;
+    private final WarehouseService warehouseService;
+    private final TrafficAnalyticsService trafficAnalytics;
     
     @Autowired
-    public ItemService(ItemRepository itemRepository) {
+    public ItemService(ItemRepository itemRepository, ApplicationEventPublisher eventPublisher,
+                       ObjectProvider<ColumnarCatalog> columnarCatalog, WarehouseService warehouseService,
+                       TrafficAnalyticsService trafficAnalytics) {
         this.itemRepository = itemRepository;
+        this.eventPublisher = eventPublisher;
+        this.columnarCatalog = columnarCatalog;
+        this.warehouseService = warehouseService;
+        this.trafficAnalytics = trafficAnalytics;
     }
     
-    // Save a new item
+    // Save a new item (or overwrite a stored one)
+    @Transactional
     public Item saveItem(Item item) {
-        return itemRepository.save(item);
+        ItemSnapshot before = item.getId() == null ? null
+            : itemRepository.findByIdForUpdate(item.getId()).map(ItemSnapshot::of).orElse(null);
+        if (item.getWarehouseId() == null) {
+            item.setWarehouseId(warehouseService.getDefaultWarehouseId());
+        }
+        // Flush so @PreUpdate has set updatedAt before the change event is built
+        Item saved = itemRepository.saveAndFlush(item);
+        ItemSnapshot after = ItemSnapshot.of(saved);
+        eventPublisher.publishEvent(before == null ? ItemChangedEvent.created(after) : ItemChangedEvent.updated(before, after));
+        return saved;
+    }
+    
+    // Apply an edit form to a stored item. Details are only written if nobody changed them since the
+    // form was loaded (version check; a form without a version is a conflict too, since it can't prove
+    // that); quantity is applied as a delta so concurrent stock changes are kept.
+    @Transactional
+    public Item updateItem(Long id, Item changes, Integer originalQuantity) {
+        Item item = lockItem(id);
+        if (changes.getVersion() == null || !changes.getVersion().equals(item.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Item.class, id);
+        }
+        ItemSnapshot before = ItemSnapshot.of(item);
+        
+        item.setName(changes.getName());
+        item.setBrand(changes.getBrand());
+        item.setCategory(changes.getCategory());
+        item.setPrice(changes.getPrice());
+        item.setYear(changes.getYear());
+        // Dynamic update: only changed detail columns are written, and nothing if only the quantity changed
+        itemRepository.saveAndFlush(item);
+        
+        int quantityDelta = changes.getQuantity() - (originalQuantity != null ? originalQuantity : before.quantity());
+        if (quantityDelta != 0) {
+            itemRepository.adjustQuantity(id, quantityDelta, LocalDateTime.now());
+        }
+        
+        Item saved = getItemById(id);
+        eventPublisher.publishEvent(ItemChangedEvent.updated(before, ItemSnapshot.of(saved)));
+        return saved;
+    }
+    
+    // Add (or remove) stock with a single atomic UPDATE; never conflicts with concurrent edits
+    @Transactional
+    public Item adjustStock(Long id, int delta) {
+        return adjustStock(id, delta, null);
+    }
+    
+    // Same, recording the distribution center the stock was received from
+    @Transactional
+    public Item adjustStock(Long id, int delta, Long centerId) {
+        ItemSnapshot before = ItemSnapshot.of(lockItem(id));
+        itemRepository.adjustQuantity(id, delta, LocalDateTime.now());
+        Item updated = getItemById(id);
+        eventPublisher.publishEvent(centerId != null
+            ? ItemChangedEvent.replenished(before, ItemSnapshot.of(updated), centerId)
+            : ItemChangedEvent.stockChanged(before, ItemSnapshot.of(updated)));
+        return updated;
+    }
+    
+    // Apply stock changes to many items in one transaction (confirmed reservations). Stock never goes below
+    // zero, so returns the units that could not be taken per item (all of them for a deleted item).
+    @Transactional
+    public Map<Long, Integer> applyStockDeltas(Map<Long, Integer> deltas) {
+        Map<Long, Integer> shortfalls = new LinkedHashMap<>();
+        deltas.forEach((id, delta) -> {
+            if (delta == 0) {
+                return;
+            }
+            Optional<Item> locked = itemRepository.findByIdForUpdate(id);
+            if (locked.isEmpty()) {
+                if (delta < 0) {
+                    shortfalls.put(id, -delta);
+                }
+                return;
+            }
+            int before = locked.get().getQuantity();
+            int applied = adjustStock(id, delta).getQuantity() - before;
+            if (applied != delta) {
+                shortfalls.put(id, applied - delta);
+            }
+        });
+        return shortfalls;
     }
     
     // Get all items with pagination and sorting
     public Page<Item> getAllItems(int page, int size, String sortBy, String sortDir) {
+        Optional<Page<Item>> inMemory = findInColumnarCatalog(null, null, null, page, size, sortBy, sortDir);
+        if (inMemory.isPresent()) {
+            return inMemory.get();
+        }
+        
         Sort sort = sortDir.equalsIgnoreCase(Sort.Direction.ASC.name()) 
             ? Sort.by(sortBy).ascending() 
             : Sort.by(sortBy).descending();
@@ -38,6 +148,14 @@ public class ItemService {
     
     // Get items by brand with pagination and sorting
     public Page<Item> getItemsByBrand(String brand, int page, int size, String sortBy, String sortDir) {
+        if (page == 0) {
+            trafficAnalytics.recordSearch("brand", brand);
+        }
+        Optional<Page<Item>> inMemory = findInColumnarCatalog(brand, null, null, page, size, sortBy, sortDir);
+        if (inMemory.isPresent()) {
+            return inMemory.get();
+        }
+        
         Sort sort = sortDir.equalsIgnoreCase(Sort.Direction.ASC.name()) 
             ? Sort.by(sortBy).ascending() 
             : Sort.by(sortBy).descending();
@@ -48,6 +166,11 @@ public class ItemService {
     
     // Get items by year with pagination and sorting
     public Page<Item> getItemsByYear(Integer year, int page, int size, String sortBy, String sortDir) {
+        Optional<Page<Item>> inMemory = findInColumnarCatalog(null, null, year, page, size, sortBy, sortDir);
+        if (inMemory.isPresent()) {
+            return inMemory.get();
+        }
+        
         Sort sort = sortDir.equalsIgnoreCase(Sort.Direction.ASC.name()) 
             ? Sort.by(sortBy).ascending() 
             : Sort.by(sortBy).descending();
@@ -58,6 +181,11 @@ public class ItemService {
     
     // Get items by brand and year with pagination and sorting
     public Page<Item> getItemsByBrandAndYear(String brand, Integer year, int page, int size, String sortBy, String sortDir) {
+        Optional<Page<Item>> inMemory = findInColumnarCatalog(brand, null, year, page, size, sortBy, sortDir);
+        if (inMemory.isPresent()) {
+            return inMemory.get();
+        }
+        
         Sort sort = sortDir.equalsIgnoreCase(Sort.Direction.ASC.name()) 
             ? Sort.by(sortBy).ascending() 
             : Sort.by(sortBy).descending();
@@ -68,6 +196,7 @@ public class ItemService {
     
     // Custom query to get items by brand and year 2022
     public List<Item> getItemsByBrandAndYear2022(String brand) {
+        trafficAnalytics.recordSearch("brand", brand);
         return itemRepository.findItemsByBrandAndYear2022(brand);
     }
     
@@ -78,11 +207,23 @@ public class ItemService {
     }
     
     // Delete item by ID
+    @Transactional
     public void deleteItem(Long id) {
-        if (!itemRepository.existsById(id)) {
-            throw new RuntimeException("Item not found with id: " + id);
-        }
-        itemRepository.deleteById(id);
+        Item item = lockItem(id);
+        itemRepository.delete(item);
+        eventPublisher.publishEvent(ItemChangedEvent.deleted(ItemSnapshot.of(item)));
+    }
+    
+    // Writers read the stored state through this, so the before/after snapshots of their change event
+    // (and the ledger delta taken from them) can't include another transaction's change to the item
+    private Item lockItem(Long id) {
+        return itemRepository.findByIdForUpdate(id)
+            .orElseThrow(() -> new RuntimeException("Item not found with id: " + id));
+    }
+    
+    // Count the items stocked in one warehouse
+    public long countItemsInWarehouse(Long warehouseId) {
+        return itemRepository.countByWarehouseId(warehouseId);
     }
     
     // Get all items (without pagination for simple listing)
@@ -92,6 +233,11 @@ public class ItemService {
     
     // Get items by category with pagination and sorting
     public Page<Item> getItemsByCategory(String category, int page, int size, String sortBy, String sortDir) {
+        Optional<Page<Item>> inMemory = findInColumnarCatalog(null, category, null, page, size, sortBy, sortDir);
+        if (inMemory.isPresent()) {
+            return inMemory.get();
+        }
+        
         Sort sort = sortDir.equalsIgnoreCase(Sort.Direction.ASC.name()) 
             ? Sort.by(sortBy).ascending() 
             : Sort.by(sortBy).descending();
@@ -102,6 +248,9 @@ public class ItemService {
     
     // Search items by name (case-insensitive)
     public Page<Item> searchItemsByName(String name, int page, int size, String sortBy, String sortDir) {
+        if (page == 0) {
+            trafficAnalytics.recordSearch("name", name);
+        }
         Sort sort = sortDir.equalsIgnoreCase(Sort.Direction.ASC.name()) 
             ? Sort.by(sortBy).ascending() 
             : Sort.by(sortBy).descending();
@@ -112,6 +261,9 @@ public class ItemService {
     
     // Search items by brand (case-insensitive)
     public Page<Item> searchItemsByBrand(String brand, int page, int size, String sortBy, String sortDir) {
+        if (page == 0) {
+            trafficAnalytics.recordSearch("brand", brand);
+        }
         Sort sort = sortDir.equalsIgnoreCase(Sort.Direction.ASC.name()) 
             ? Sort.by(sortBy).ascending() 
             : Sort.by(sortBy).descending();
@@ -119,4 +271,14 @@ public class ItemService {
         Pageable pageable = PageRequest.of(page, size, sort);
         return itemRepository.findByBrandContainingIgnoreCase(brand, pageable);
     }
-} 
\ No newline at end of file
+    
+    // Serve browse queries from the in-memory columnar catalog when it is enabled and loaded
+    private Optional<Page<Item>> findInColumnarCatalog(String brand, String category, Integer year,
+                                                       int page, int size, String sortBy, String sortDir) {
+        ColumnarCatalog catalog = columnarCatalog.getIfAvailable();
+        if (catalog == null) {
+            return Optional.empty();
+        }
+        return catalog.findPage(brand, category, year, page, size, sortBy, sortDir);
+    }
+}
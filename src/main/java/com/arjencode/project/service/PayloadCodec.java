@@ -0,0 +1,68 @@
+package com.arjencode.project.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Encodes and decodes distribution center payloads as text JSON or Smile (Jackson's binary JSON),
+// optionally gzipped. Both encodings produce the same JsonNode tree, so callers don't care which was used.
+public final class PayloadCodec {
+
+    public static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+    private final ObjectMapper smileMapper = new SmileMapper();
+
+    // Decode a response body by its Content-Type and Content-Encoding; non-JSON bodies become a text node
+    public JsonNode decode(byte[] body, HttpHeaders headers) {
+        if (body == null || body.length == 0) {
+            return null;
+        }
+        boolean gzip = "gzip".equalsIgnoreCase(headers.getFirst(HttpHeaders.CONTENT_ENCODING));
+        MediaType contentType = headers.getContentType();
+        try (InputStream in = gzip ? new GZIPInputStream(new ByteArrayInputStream(body)) : new ByteArrayInputStream(body)) {
+            if (contentType != null && SMILE.isCompatibleWith(contentType)) {
+                return smileMapper.readTree(in);
+            }
+            if (contentType == null || isJson(contentType)) {
+                return jsonMapper.readTree(in);
+            }
+            return TextNode.valueOf(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unreadable distribution center response", e);
+        }
+    }
+
+    public byte[] encode(Object value, boolean smile, boolean gzip) {
+        try {
+            byte[] encoded = (smile ? smileMapper : jsonMapper).writeValueAsBytes(value);
+            if (!gzip) {
+                return encoded;
+            }
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(encoded.length / 4 + 64);
+            try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+                out.write(encoded);
+            }
+            return compressed.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean isJson(MediaType contentType) {
+        return MediaType.APPLICATION_JSON.isCompatibleWith(contentType)
+            || (contentType.getSubtype() != null && contentType.getSubtype().endsWith("+json"));
+    }
+}
@@ -0,0 +1,210 @@
+package com.arjencode.project.service;
+
+import com.arjencode.project.config.ReorderProperties;
+import com.arjencode.project.event.ItemChangedEvent;
+import com.arjencode.project.event.ItemSnapshot;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Automatic replenishment. Low stock is detected from stock change events (an item crossing below its
+// threshold), never by scanning the items table. Reorder lines are queued per item (so repeated drops
+// don't duplicate), grouped per warehouse and its closest distribution center and sent in periodic batches under a
+// requests-per-minute limit. Closest centers come from the integration service's stock index and the
+// DistanceMatrix, warmed once per batch, not from a find-closest call per line. The distribution center
+// API has no multi-item request endpoint, so a batch still goes out as one request per line.
+// Disabled unless reorder.enabled=true.
+@Service
+public class ReorderEngine {
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final int HISTORY_SIZE = 50;
+
+    private final ReorderProperties properties;
+    private final DistributionCenterIntegrationService distributionCenterService;
+
+    // At most one pending line per item
+    private final Map<Long, ReorderLine> pending = new ConcurrentHashMap<>();
+    private final Map<Long, Instant> lastOrdered = new ConcurrentHashMap<>();
+    private final Deque<Map<String, Object>> history = new ArrayDeque<>();
+    // Requests-per-minute limit, refilled continuously
+    private final TokenBucket rateLimiter;
+    // Batches go out one run at a time; held over HTTP calls, so an explicit lock instead of a monitor
+    private final ReentrantLock batchLock = new ReentrantLock();
+
+    @Autowired
+    public ReorderEngine(ReorderProperties properties, DistributionCenterIntegrationService distributionCenterService) {
+        this.properties = properties;
+        this.distributionCenterService = distributionCenterService;
+        this.rateLimiter = new TokenBucket(Math.max(1, properties.getMaxRequestsPerMinute()), Math.max(1, properties.getMaxRequestsPerMinute()));
+    }
+
+    // Track threshold crossings; the node that made the change handles the reorder
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        if (!properties.isEnabled() || event.isRemote()) {
+            return;
+        }
+        ItemSnapshot after = event.getAfter();
+        if (after == null) {
+            pending.remove(event.getItemId());
+            return;
+        }
+        int threshold = properties.thresholdFor(after.id(), after.category());
+        if (after.quantity() >= threshold) {
+            pending.remove(after.id()); // restocked by other means
+            return;
+        }
+        int quantity = properties.targetFor(threshold) - after.quantity();
+        ReorderLine existing = pending.get(after.id());
+        if (existing != null) {
+            existing.quantity = quantity; // still low: top up to the target, don't add a second line
+            return;
+        }
+        boolean crossedBelow = event.getBefore() == null || event.getBefore().quantity() >= threshold;
+        if (!crossedBelow) {
+            return;
+        }
+        Instant last = lastOrdered.get(after.id());
+        if (last != null && last.plus(Duration.ofMinutes(properties.getDedupWindowMinutes())).isAfter(Instant.now())) {
+            System.out.println("Reorder: " + after.name() + " is low again but was reordered at " + last + ", skipping");
+            return;
+        }
+        pending.put(after.id(), new ReorderLine(after.id(), after.warehouseId(), after.brand(), after.name(), quantity));
+        System.out.println("Reorder: queued " + quantity + " x " + after.name() + " (stock " + after.quantity()
+            + " < threshold " + threshold + ")");
+    }
+
+    // Group queued lines by warehouse and closest center and send them, within the request rate limit
+    @Scheduled(fixedDelayString = "${reorder.batch-interval-ms:30000}")
+    public void sendBatches() {
+        batchLock.lock();
+        try {
+            if (!properties.isEnabled() || pending.isEmpty()) {
+                return;
+            }
+            // One availability scan (usually served from its cache) lets every line resolve locally
+            if (!distributionCenterService.hasStockIndex()) {
+                distributionCenterService.getAvailableItemsByBrand();
+            }
+            boolean resolveLocally = distributionCenterService.hasStockIndex();
+            Map<String, List<ReorderLine>> linesByCenter = new LinkedHashMap<>();
+            Map<String, JsonNode> centers = new HashMap<>();
+            for (ReorderLine line : new ArrayList<>(pending.values())) {
+                // Remote find-closest calls count against the request limit
+                if (!resolveLocally && !rateLimiter.tryAcquire()) {
+                    break;
+                }
+                try {
+                    JsonNode center = distributionCenterService.findClosestCenter(line.warehouseId, line.brand, line.name);
+                    if (center == null) {
+                        recordFailure(line, "no center stocks this item");
+                        continue;
+                    }
+                    String batchKey = line.warehouseId + ":" + center.get("id").asLong();
+                    centers.put(batchKey, center);
+                    linesByCenter.computeIfAbsent(batchKey, key -> new ArrayList<>()).add(line);
+                } catch (Exception e) {
+                    recordFailure(line, e.getMessage());
+                }
+            }
+
+            for (Map.Entry<String, List<ReorderLine>> batch : linesByCenter.entrySet()) {
+                JsonNode center = centers.get(batch.getKey());
+                int units = batch.getValue().stream().mapToInt(line -> line.quantity).sum();
+                System.out.println("Reorder: sending " + batch.getValue().size() + " lines (" + units + " units) to "
+                    + center.get("name").asText() + " for warehouse " + batch.getValue().get(0).warehouseId);
+                for (ReorderLine line : batch.getValue()) {
+                    if (!rateLimiter.tryAcquire()) {
+                        return; // the rest stays queued for the next batch
+                    }
+                    try {
+                        if (distributionCenterService.requestItemFromCenter(line.warehouseId, center, line.brand, line.name, line.quantity)) {
+                            pending.remove(line.itemId);
+                            lastOrdered.put(line.itemId, Instant.now());
+                            addHistory(line, center.get("name").asText(), "ORDERED");
+                        } else {
+                            recordFailure(line, "center rejected the request");
+                        }
+                    } catch (Exception e) {
+                        recordFailure(line, e.getMessage());
+                    }
+                }
+            }
+        } finally {
+            batchLock.unlock();
+        }
+    }
+
+    // Queued lines and recent reorders (JSON for the admin endpoint)
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", properties.isEnabled());
+        List<Map<String, Object>> lines = new ArrayList<>();
+        for (ReorderLine line : pending.values()) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("itemId", line.itemId);
+            entry.put("warehouseId", line.warehouseId);
+            entry.put("brand", line.brand);
+            entry.put("name", line.name);
+            entry.put("quantity", line.quantity);
+            entry.put("attempts", line.attempts);
+            lines.add(entry);
+        }
+        status.put("pending", lines);
+        synchronized (history) {
+            status.put("recent", new ArrayList<>(history));
+        }
+        return status;
+    }
+
+    private void recordFailure(ReorderLine line, String reason) {
+        line.attempts++;
+        if (line.attempts >= MAX_ATTEMPTS) {
+            pending.remove(line.itemId);
+            addHistory(line, null, "FAILED: " + reason);
+            System.err.println("Reorder: giving up on " + line.name + " after " + line.attempts + " attempts: " + reason);
+        }
+    }
+
+    private void addHistory(ReorderLine line, String center, String outcome) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("itemId", line.itemId);
+        entry.put("name", line.name);
+        entry.put("quantity", line.quantity);
+        entry.put("center", center);
+        entry.put("outcome", outcome);
+        entry.put("at", Instant.now().toString());
+        synchronized (history) {
+            history.addFirst(entry);
+            if (history.size() > HISTORY_SIZE) {
+                history.removeLast();
+            }
+        }
+    }
+
+    private static final class ReorderLine {
+        private final Long itemId;
+        private final Long warehouseId;
+        private final String brand;
+        private final String name;
+        private volatile int quantity;
+        private int attempts;
+
+        private ReorderLine(Long itemId, Long warehouseId, String brand, String name, int quantity) {
+            this.itemId = itemId;
+            this.warehouseId = warehouseId;
+            this.brand = brand;
+            this.name = name;
+            this.quantity = quantity;
+        }
+    }
+}
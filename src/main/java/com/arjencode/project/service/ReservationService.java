@@ -0,0 +1,292 @@
+package com.arjencode.project.service;
+
+import com.arjencode.project.event.ItemChangedEvent;
+import com.arjencode.project.event.ItemsBulkChangedEvent;
+import com.arjencode.project.model.Item;
+import com.arjencode.project.repository.ItemRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Stock reservations (holds). Reserving never touches the items table: available-to-promise is on-hand
+// stock minus an in-memory per-item counter of held units, and a hold is taken with a compare-and-set on
+// that counter, so a sale-event rush doesn't queue up on row locks. Holds expire on a timer wheel unless
+// confirmed; confirmed holds are taken out of stock in periodic batches (one transaction, one UPDATE per
+// item). The counters are per node, so another node's holds are invisible here; reservations are refused
+// in scale-out mode (cluster.notify.enabled) rather than overselling.
+@Service
+public class ReservationService {
+
+    public enum State {
+        HELD,
+        CONFIRMED,
+        RELEASED,
+        EXPIRED
+    }
+
+    @Value("${reservation.default-ttl-seconds:600}")
+    private long defaultTtlSeconds;
+
+    @Value("${reservation.max-ttl-seconds:3600}")
+    private long maxTtlSeconds;
+
+    @Value("${reservation.max-quantity:100}")
+    private int maxQuantity;
+
+    @Value("${reservation.wheel.tick-ms:1000}")
+    private long tickMillis;
+
+    @Value("${reservation.wheel.slots:512}")
+    private int wheelSlots;
+
+    @Value("${cluster.notify.enabled:false}")
+    private boolean multiNode;
+
+    private final ItemRepository itemRepository;
+    private final ItemService itemService;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Hold> holds = new ConcurrentHashMap<>();
+    // Units held or confirmed-but-not-yet-written, per item
+    private final Map<Long, AtomicInteger> reserved = new ConcurrentHashMap<>();
+    // Last known stock per item, kept current from item change events
+    private final Map<Long, Integer> onHand = new ConcurrentHashMap<>();
+    private final Queue<Hold> confirmed = new ConcurrentLinkedQueue<>();
+    // One flusher at a time; a lock rather than synchronized, which would pin a virtual thread through the write
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private TimerWheel<Hold> expiryWheel;
+    private Counter rejected;
+    private Counter expired;
+    private Counter shortfall;
+
+    @Autowired
+    public ReservationService(ItemRepository itemRepository, ItemService itemService, MeterRegistry meterRegistry) {
+        this.itemRepository = itemRepository;
+        this.itemService = itemService;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void init() {
+        expiryWheel = new TimerWheel<>(wheelSlots, tickMillis);
+        rejected = meterRegistry.counter("reservations", "outcome", "rejected");
+        expired = meterRegistry.counter("reservations", "outcome", "expired");
+        shortfall = meterRegistry.counter("reservations.shortfall.units");
+        if (multiNode) {
+            System.out.println("Reservations: disabled, holds are per node and scale-out mode runs several nodes");
+        }
+        Gauge.builder("reservations.held", holds, Map::size).register(meterRegistry);
+    }
+
+    // Hold stock of an item; empty when there isn't enough available
+    public Optional<Map<String, Object>> reserve(Long itemId, int quantity, Long ttlSeconds) {
+        if (quantity < 1 || quantity > maxQuantity) {
+            throw new IllegalArgumentException("Quantity must be between 1 and " + maxQuantity);
+        }
+        if (multiNode) {
+            throw new IllegalStateException("Reservations are not available in scale-out mode");
+        }
+        long ttl = ttlSeconds != null ? ttlSeconds : defaultTtlSeconds;
+        if (ttl < 1 || ttl > maxTtlSeconds) {
+            throw new IllegalArgumentException("TTL must be between 1 and " + maxTtlSeconds + " seconds");
+        }
+        int stock = onHandOf(itemId);
+        AtomicInteger counter = reserved.computeIfAbsent(itemId, id -> new AtomicInteger());
+        while (true) {
+            int held = counter.get();
+            if (stock - held < quantity) {
+                rejected.increment();
+                return Optional.empty();
+            }
+            if (counter.compareAndSet(held, held + quantity)) {
+                break;
+            }
+        }
+        Hold hold = new Hold(UUID.randomUUID().toString(), itemId, quantity, Instant.now().plusSeconds(ttl));
+        holds.put(hold.id, hold);
+        expiryWheel.schedule(hold, hold.expiresAt.toEpochMilli());
+        meterRegistry.counter("reservations", "outcome", "held").increment();
+        return Optional.of(hold.toJson());
+    }
+
+    // Make a hold permanent; the stock is taken off the item with the next batch
+    public Map<String, Object> confirm(String holdId) {
+        Hold hold = getHold(holdId);
+        expireIfDue(hold);
+        if (!hold.state.compareAndSet(State.HELD, State.CONFIRMED)) {
+            throw new IllegalStateException("Reservation is " + hold.state.get().name().toLowerCase());
+        }
+        confirmed.add(hold);
+        meterRegistry.counter("reservations", "outcome", "confirmed").increment();
+        return hold.toJson();
+    }
+
+    // Give held stock back before the hold expires
+    public Map<String, Object> release(String holdId) {
+        Hold hold = getHold(holdId);
+        if (!end(hold, State.RELEASED)) {
+            throw new IllegalStateException("Reservation is " + hold.state.get().name().toLowerCase());
+        }
+        meterRegistry.counter("reservations", "outcome", "released").increment();
+        return hold.toJson();
+    }
+
+    public Map<String, Object> getReservation(String holdId) {
+        Hold hold = getHold(holdId);
+        expireIfDue(hold);
+        return hold.toJson();
+    }
+
+    // Stock that can still be promised: on hand minus held and confirmed-but-unwritten units
+    public Map<String, Object> getAvailability(Long itemId) {
+        int stock = onHandOf(itemId);
+        AtomicInteger counter = reserved.get(itemId);
+        int held = counter != null ? counter.get() : 0;
+        Map<String, Object> availability = new LinkedHashMap<>();
+        availability.put("itemId", itemId);
+        availability.put("onHand", stock);
+        availability.put("reserved", held);
+        availability.put("availableToPromise", Math.max(0, stock - held));
+        return availability;
+    }
+
+    // Expire holds whose TTL has passed
+    @Scheduled(fixedDelayString = "${reservation.wheel.tick-ms:1000}")
+    public void expireHolds() {
+        expiryWheel.advance(System.currentTimeMillis(), hold -> {
+            if (end(hold, State.EXPIRED)) {
+                expired.increment();
+            }
+        });
+    }
+
+    // Take confirmed holds out of stock, summed per item, in one transaction
+    @Scheduled(fixedDelayString = "${reservation.flush-ms:1000}")
+    public void flushConfirmed() {
+        flushLock.lock();
+        try {
+            List<Hold> batch = new ArrayList<>();
+            Hold hold;
+            while ((hold = confirmed.poll()) != null) {
+                batch.add(hold);
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            Map<Long, Integer> deltas = new LinkedHashMap<>();
+            for (Hold confirmedHold : batch) {
+                deltas.merge(confirmedHold.itemId, -confirmedHold.quantity, Integer::sum);
+            }
+            Map<Long, Integer> shortfalls;
+            try {
+                shortfalls = itemService.applyStockDeltas(deltas);
+            } catch (RuntimeException e) {
+                // Units stay reserved, so nothing is promised twice; retried with the next batch
+                System.err.println("Reservations: failed to write " + batch.size() + " confirmed holds: " + e.getMessage());
+                confirmed.addAll(batch);
+                return;
+            }
+            // Stock was lowered by other means (or the item deleted) after these holds were confirmed
+            shortfalls.forEach((itemId, units) -> {
+                shortfall.increment(units);
+                System.err.println("Reservations: item " + itemId + " was " + units + " units short of its confirmed holds");
+            });
+            // Stock is down now (on-hand was updated by the change events), so the units are no longer reserved
+            deltas.forEach((itemId, delta) -> reserved.get(itemId).addAndGet(delta));
+            batch.forEach(written -> holds.remove(written.id));
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        if (event.getAfter() == null) {
+            onHand.remove(event.getItemId());
+        } else {
+            onHand.put(event.getItemId(), event.getAfter().quantity());
+        }
+    }
+
+    // No per-item quantities in bulk events: reload stock on next use
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemsBulkChanged(ItemsBulkChangedEvent event) {
+        onHand.clear();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushConfirmed();
+    }
+
+    private int onHandOf(Long itemId) {
+        return onHand.computeIfAbsent(itemId, id -> itemRepository.findById(id)
+            .map(Item::getQuantity)
+            .orElseThrow(() -> new NoSuchElementException("Item not found with id: " + id)));
+    }
+
+    private Hold getHold(String holdId) {
+        Hold hold = holds.get(holdId);
+        if (hold == null) {
+            throw new NoSuchElementException("Reservation not found: " + holdId);
+        }
+        return hold;
+    }
+
+    // The wheel may run up to a tick late; a hold past its TTL is expired on access too
+    private void expireIfDue(Hold hold) {
+        if (hold.state.get() == State.HELD && Instant.now().isAfter(hold.expiresAt) && end(hold, State.EXPIRED)) {
+            expired.increment();
+        }
+    }
+
+    // Release a held hold's units; only one of release/expire/confirm wins
+    private boolean end(Hold hold, State state) {
+        if (!hold.state.compareAndSet(State.HELD, state)) {
+            return false;
+        }
+        reserved.get(hold.itemId).addAndGet(-hold.quantity);
+        holds.remove(hold.id);
+        return true;
+    }
+
+    private static final class Hold {
+        private final String id;
+        private final Long itemId;
+        private final int quantity;
+        private final Instant expiresAt;
+        private final AtomicReference<State> state = new AtomicReference<>(State.HELD);
+
+        private Hold(String id, Long itemId, int quantity, Instant expiresAt) {
+            this.id = id;
+            this.itemId = itemId;
+            this.quantity = quantity;
+            this.expiresAt = expiresAt;
+        }
+
+        private Map<String, Object> toJson() {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("id", id);
+            json.put("itemId", itemId);
+            json.put("quantity", quantity);
+            json.put("state", state.get());
+            json.put("expiresAt", expiresAt);
+            return json;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.arjencode.project.service;
+
+import java.util.*;
+
+// Heavy hitters over a sliding time window: a ring of Count-Min/top-K sketches, one per time bucket.
+// A bucket is reset when the ring wraps around to it, so memory stays fixed however much traffic arrives.
+// Queries add up the sketches of the last N buckets and rank the union of their top-K candidates.
+public class SlidingHeavyHitters {
+
+    private final CountMinTopK[] buckets;
+    private final long[] bucketEpochs;
+    private final long bucketMillis;
+    private final int topK;
+
+    public SlidingHeavyHitters(int bucketCount, long bucketMillis, int depth, int width, int topK) {
+        this.buckets = new CountMinTopK[bucketCount];
+        this.bucketEpochs = new long[bucketCount];
+        this.bucketMillis = bucketMillis;
+        this.topK = topK;
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = new CountMinTopK(depth, width, topK);
+            bucketEpochs[i] = -1;
+        }
+    }
+
+    public synchronized void add(String key, long count) {
+        long epoch = System.currentTimeMillis() / bucketMillis;
+        int index = (int) (epoch % buckets.length);
+        if (bucketEpochs[index] != epoch) {
+            buckets[index].clear();
+            bucketEpochs[index] = epoch;
+        }
+        buckets[index].add(key, count);
+    }
+
+    // Top keys over the last windowBuckets buckets (the current one included), highest estimate first
+    public synchronized Map<String, Object> top(int windowBuckets, int limit) {
+        int window = Math.max(1, Math.min(windowBuckets, buckets.length));
+        long epoch = System.currentTimeMillis() / bucketMillis;
+        long[][] table = buckets[0].emptyTable();
+        Set<String> keys = new HashSet<>();
+        long total = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            if (bucketEpochs[i] > epoch - window && bucketEpochs[i] <= epoch) {
+                buckets[i].mergeInto(table);
+                buckets[i].candidateKeys().forEach(keys::add);
+                total += buckets[i].total();
+            }
+        }
+
+        CountMinTopK estimator = buckets[0];
+        List<Map.Entry<String, Long>> ranked = new ArrayList<>();
+        for (String key : keys) {
+            ranked.add(Map.entry(key, estimator.estimate(table, key)));
+        }
+        ranked.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+
+        List<Map<String, Object>> entries = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : ranked.subList(0, Math.min(Math.min(limit, topK), ranked.size()))) {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("key", entry.getKey());
+            json.put("estimate", entry.getValue());
+            entries.add(json);
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("windowMinutes", window * bucketMillis / 60000);
+        result.put("total", total);
+        result.put("top", entries);
+        return result;
+    }
+
+    public int getBucketCount() {
+        return buckets.length;
+    }
+
+    public long getBucketMillis() {
+        return bucketMillis;
+    }
+}
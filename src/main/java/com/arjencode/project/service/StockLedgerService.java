@@ -0,0 +1,244 @@
+package com.arjencode.project.service;
+
+import com.arjencode.project.event.ItemChangedEvent;
+import com.arjencode.project.model.StockLedgerLock;
+import com.arjencode.project.model.StockMovement;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Append-only stock ledger. Every committed stock change becomes a stock_movements row; rows are
+// buffered and written in JDBC batches. Periodic snapshots checkpoint each changed item's running
+// total, so a point-in-time query reads one snapshot and only the movements recorded after it.
+// Appends and the snapshot watermark are serialized on the stock_ledger_lock row (see StockLedgerLock).
+@Service
+public class StockLedgerService {
+
+    private static final String INSERT_MOVEMENT_SQL =
+        "INSERT INTO stock_movements (item_id, delta, reason, center_id, occurred_at) VALUES (?, ?, ?, ?, ?)";
+
+    // Running totals for every item that moved since the last snapshot run. as_of is cumulative
+    // (never earlier than the previous snapshot's), which keeps "snapshot as_of <= T" lookups exact.
+    private static final String SNAPSHOT_SQL =
+        "INSERT INTO stock_snapshots (item_id, quantity, last_movement_id, as_of) " +
+        "SELECT m.item_id, " +
+        "COALESCE((SELECT s.quantity FROM stock_snapshots s WHERE s.item_id = m.item_id " +
+        "ORDER BY s.last_movement_id DESC LIMIT 1), 0) + SUM(m.delta), ?, " +
+        "GREATEST(MAX(m.occurred_at), COALESCE((SELECT s.as_of FROM stock_snapshots s WHERE s.item_id = m.item_id " +
+        "ORDER BY s.last_movement_id DESC LIMIT 1), MAX(m.occurred_at))) " +
+        "FROM stock_movements m WHERE m.id > ? AND m.id <= ? GROUP BY m.item_id";
+
+    private static final String LOCK_SQL = "SELECT id FROM stock_ledger_lock WHERE id = ? FOR UPDATE";
+
+    @Value("${stock.ledger.batch-size:500}")
+    private int batchSize;
+
+    private final JdbcTemplate jdbcTemplate;
+    // Own transactions on the primary: flushes also run from after-commit listeners, where the
+    // finished transaction's connection is still bound to the thread
+    private final TransactionTemplate ledgerTransaction;
+    private final Queue<Object[]> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    // Serializes flushes and snapshot runs (reentrant: a snapshot run flushes first). Held across JDBC
+    // calls, so it is not a monitor, which would keep a virtual thread pinned to its carrier.
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    @Autowired
+    public StockLedgerService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ledgerTransaction = new TransactionTemplate(transactionManager);
+        this.ledgerTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // Items that existed before the ledger (seed data, generated catalogs) get an opening balance
+    @EventListener(ApplicationReadyEvent.class)
+    public void recordOpeningBalances() {
+        int opened = ledgerTransaction.execute(status -> {
+            lockForAppend();
+            Integer movements = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stock_movements", Integer.class);
+            if (movements != null && movements > 0) {
+                return -1;
+            }
+            return jdbcTemplate.update(
+                "INSERT INTO stock_movements (item_id, delta, reason, center_id, occurred_at) " +
+                "SELECT id, quantity, '" + StockMovement.Reason.OPENING.name() + "', NULL, COALESCE(created_at, ?) FROM items WHERE quantity <> 0",
+                Timestamp.valueOf(LocalDateTime.now()));
+        });
+        if (opened >= 0) {
+            System.out.println("Stock ledger: recorded opening balances for " + opened + " items");
+        }
+    }
+
+    // Take the ledger lock for the rest of the current transaction. Everything that inserts stock
+    // movements calls this first (in the same transaction), so snapshots never skip a late commit.
+    public void lockForAppend() {
+        if (jdbcTemplate.queryForList(LOCK_SQL, Long.class, StockLedgerLock.ID).isEmpty()) {
+            createLockRow();
+            jdbcTemplate.queryForList(LOCK_SQL, Long.class, StockLedgerLock.ID);
+        }
+    }
+
+    // In a transaction of its own, so losing the race to another node doesn't abort the caller's
+    private void createLockRow() {
+        try {
+            ledgerTransaction.executeWithoutResult(status ->
+                jdbcTemplate.update("INSERT INTO stock_ledger_lock (id) VALUES (?)", StockLedgerLock.ID));
+        } catch (DuplicateKeyException e) {
+            // another node created it first
+        }
+    }
+
+    // Queue a ledger entry for each committed local change; remote replays were recorded by their own node
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        if (event.isRemote()) {
+            return;
+        }
+        int before = event.getBefore() != null ? event.getBefore().quantity() : 0;
+        int after = event.getAfter() != null ? event.getAfter().quantity() : 0;
+        int delta = after - before;
+        if (delta == 0) {
+            return;
+        }
+        pending.add(new Object[] {
+            event.getItemId(), delta, reasonFor(event).name(), event.getCenterId(), Timestamp.valueOf(LocalDateTime.now())
+        });
+        if (pendingCount.incrementAndGet() >= batchSize) {
+            flush();
+        }
+    }
+
+    // Write queued entries in batches, in one transaction holding the ledger lock.
+    // Entries are put back if the write fails, so the next flush retries them.
+    @Scheduled(fixedDelayString = "${stock.ledger.flush-ms:1000}")
+    public void flush() {
+        writeLock.lock();
+        try {
+            List<Object[]> entries = new ArrayList<>();
+            Object[] entry;
+            while ((entry = pending.poll()) != null) {
+                pendingCount.decrementAndGet();
+                entries.add(entry);
+            }
+            if (entries.isEmpty()) {
+                return;
+            }
+            try {
+                ledgerTransaction.executeWithoutResult(status -> {
+                    lockForAppend();
+                    for (int from = 0; from < entries.size(); from += batchSize) {
+                        jdbcTemplate.batchUpdate(INSERT_MOVEMENT_SQL, entries.subList(from, Math.min(from + batchSize, entries.size())));
+                    }
+                });
+            } catch (RuntimeException e) {
+                entries.forEach(pending::add);
+                pendingCount.addAndGet(entries.size());
+                System.err.println("Stock ledger: error writing " + entries.size() + " movements, will retry: " + e.getMessage());
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Checkpoint running totals of every item that moved since the previous run
+    @Scheduled(initialDelayString = "${stock.ledger.snapshot-interval-ms:3600000}",
+               fixedDelayString = "${stock.ledger.snapshot-interval-ms:3600000}")
+    public int takeSnapshots() {
+        writeLock.lock();
+        try {
+            flush();
+            // Read under the ledger lock, the highest id is a commit-safe watermark: no movement at or below
+            // it is still uncommitted, and later appends get higher ids
+            Long lastMovement = ledgerTransaction.execute(status -> {
+                lockForAppend();
+                return jdbcTemplate.queryForObject("SELECT MAX(id) FROM stock_movements", Long.class);
+            });
+            Long covered = jdbcTemplate.queryForObject("SELECT MAX(last_movement_id) FROM stock_snapshots", Long.class);
+            long from = covered != null ? covered : 0;
+            if (lastMovement == null || lastMovement <= from) {
+                return 0;
+            }
+            long start = System.nanoTime();
+            int items = jdbcTemplate.update(SNAPSHOT_SQL, lastMovement, from, lastMovement);
+            System.out.println("Stock ledger: snapshot of " + items + " items up to movement " + lastMovement
+                + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+            return items;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Stock of one item at a point in time: latest snapshot valid at that time plus the later deltas
+    public Map<String, Object> getStockAt(Long itemId, LocalDateTime at) {
+        flush();
+        Timestamp timestamp = Timestamp.valueOf(at);
+        List<Map<String, Object>> snapshots = jdbcTemplate.queryForList(
+            "SELECT quantity, last_movement_id, as_of FROM stock_snapshots WHERE item_id = ? AND as_of <= ? " +
+            "ORDER BY last_movement_id DESC LIMIT 1", itemId, timestamp);
+
+        long base = 0;
+        long afterMovement = 0;
+        Object snapshotAsOf = null;
+        if (!snapshots.isEmpty()) {
+            Map<String, Object> snapshot = snapshots.get(0);
+            base = ((Number) snapshot.get("quantity")).longValue();
+            afterMovement = ((Number) snapshot.get("last_movement_id")).longValue();
+            snapshotAsOf = snapshot.get("as_of");
+        }
+        Map<String, Object> tail = jdbcTemplate.queryForMap(
+            "SELECT COALESCE(SUM(delta), 0) AS delta, COUNT(*) AS movements FROM stock_movements " +
+            "WHERE item_id = ? AND id > ? AND occurred_at <= ?", itemId, afterMovement, timestamp);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("itemId", itemId);
+        result.put("at", at);
+        result.put("quantity", base + ((Number) tail.get("delta")).longValue());
+        result.put("snapshotAsOf", snapshotAsOf);
+        result.put("movementsScanned", ((Number) tail.get("movements")).longValue());
+        return result;
+    }
+
+    // Units received from each distribution center in a time window
+    public List<Map<String, Object>> getReplenishmentByCenter(LocalDateTime from, LocalDateTime to) {
+        flush();
+        return jdbcTemplate.queryForList(
+            "SELECT center_id AS \"centerId\", SUM(delta) AS \"units\", COUNT(*) AS \"movements\" " +
+            "FROM stock_movements WHERE reason = ? AND occurred_at >= ? AND occurred_at < ? " +
+            "GROUP BY center_id ORDER BY SUM(delta) DESC",
+            StockMovement.Reason.REPLENISHED.name(), Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private static StockMovement.Reason reasonFor(ItemChangedEvent event) {
+        if (event.getCenterId() != null) {
+            return StockMovement.Reason.REPLENISHED;
+        }
+        return switch (event.getType()) {
+            case CREATED -> StockMovement.Reason.CREATED;
+            case UPDATED -> StockMovement.Reason.EDITED;
+            case DELETED -> StockMovement.Reason.DELETED;
+            case STOCK_CHANGED -> StockMovement.Reason.ADJUSTED;
+        };
+    }
+}
@@ -0,0 +1,67 @@
+package com.arjencode.project.service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+// Hashed timer wheel: deadlines are dropped into one of N slots by tick, so scheduling is O(1) and each
+// tick only looks at one slot, however many timers are pending. Deadlines further out than one turn of
+// the wheel wait for extra rounds. Cancelled timers aren't removed; the expiry callback ignores them.
+// schedule() is thread-safe; advance() must be called from one thread at a time.
+public class TimerWheel<T> {
+
+    private final Queue<Timer<T>>[] slots;
+    private final long tickMillis;
+    private volatile long currentTick;
+
+    @SuppressWarnings("unchecked")
+    public TimerWheel(int slotCount, long tickMillis) {
+        this.slots = (Queue<Timer<T>>[]) new Queue<?>[slotCount];
+        for (int i = 0; i < slotCount; i++) {
+            slots[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.tickMillis = tickMillis;
+        this.currentTick = System.currentTimeMillis() / tickMillis;
+    }
+
+    public void schedule(T value, long deadlineMillis) {
+        // Never into a slot the wheel has already passed: at the earliest the next tick
+        long deadlineTick = Math.max(deadlineMillis / tickMillis, currentTick + 1);
+        slots[(int) (deadlineTick % slots.length)].add(new Timer<>(value, deadlineTick));
+    }
+
+    // Move the wheel up to now, handing every timer that came due to the callback
+    public void advance(long nowMillis, Consumer<T> expired) {
+        long nowTick = nowMillis / tickMillis;
+        // After a long pause one turn of the wheel covers every slot
+        long from = Math.max(currentTick + 1, nowTick - slots.length + 1);
+        // Published first, so timers scheduled meanwhile land in slots still ahead of the wheel
+        currentTick = Math.max(currentTick, nowTick);
+        List<T> due = new ArrayList<>();
+        for (long tick = from; tick <= nowTick; tick++) {
+            Iterator<Timer<T>> timers = slots[(int) (tick % slots.length)].iterator();
+            while (timers.hasNext()) {
+                Timer<T> timer = timers.next();
+                if (timer.deadlineTick <= nowTick) {
+                    timers.remove();
+                    due.add(timer.value);
+                }
+            }
+        }
+        due.forEach(expired);
+    }
+
+    public int size() {
+        int size = 0;
+        for (Queue<Timer<T>> slot : slots) {
+            size += slot.size();
+        }
+        return size;
+    }
+
+    private record Timer<T>(T value, long deadlineTick) {
+    }
+}
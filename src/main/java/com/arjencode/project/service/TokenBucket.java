@@ -0,0 +1,47 @@
+package com.arjencode.project.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Lock-free token bucket in its GCRA form: the only state is the time at which the bucket will be full
+// again, advanced by one token's worth of time per acquire with a single CAS. Starts full.
+public final class TokenBucket {
+
+    private final long nanosPerToken;
+    private final long capacityNanos;
+    private final AtomicLong fullAt;
+
+    public TokenBucket(double tokensPerMinute, int capacity) {
+        if (tokensPerMinute <= 0 || capacity < 1) {
+            throw new IllegalArgumentException("A token bucket needs a positive rate and a capacity of at least 1");
+        }
+        this.nanosPerToken = Math.max(1, (long) (TimeUnit.MINUTES.toNanos(1) / tokensPerMinute));
+        this.capacityNanos = nanosPerToken * capacity;
+        this.fullAt = new AtomicLong(System.nanoTime());
+    }
+
+    public boolean tryAcquire() {
+        long now = System.nanoTime();
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + nanosPerToken;
+            if (next - now > capacityNanos) {
+                return false;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    // How long until tryAcquire can succeed (0 when a token is available now)
+    public long nanosUntilAvailable() {
+        long now = System.nanoTime();
+        return Math.max(0, Math.max(fullAt.get(), now) + nanosPerToken - now - capacityNanos);
+    }
+
+    // Nothing taken that hasn't been refilled; such a bucket can be dropped and recreated later
+    public boolean isFull() {
+        return fullAt.get() - System.nanoTime() <= 0;
+    }
+}
@@ -0,0 +1,91 @@
+package com.arjencode.project.service;
+
+import com.arjencode.project.event.ItemChangedEvent;
+import com.arjencode.project.event.ItemSnapshot;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// Heavy-hitter analytics: which SKUs are replenished most (by units received from distribution centers)
+// and which search terms are hot, over a sliding window. Backed by Count-Min sketches with a top-K list per
+// time bucket, so memory is fixed by the configuration no matter how much traffic is recorded.
+// Counts are approximate (never under, slightly over for rare keys) and per node.
+@Service
+public class TrafficAnalyticsService {
+
+    private static final int MAX_TERM_LENGTH = 64;
+
+    @Value("${analytics.heavy-hitters.enabled:true}")
+    private boolean enabled;
+
+    @Value("${analytics.heavy-hitters.width:2048}")
+    private int width;
+
+    @Value("${analytics.heavy-hitters.depth:4}")
+    private int depth;
+
+    @Value("${analytics.heavy-hitters.top-k:20}")
+    private int topK;
+
+    @Value("${analytics.heavy-hitters.bucket-minutes:5}")
+    private int bucketMinutes;
+
+    @Value("${analytics.heavy-hitters.buckets:12}")
+    private int bucketCount;
+
+    private SlidingHeavyHitters replenishedSkus;
+    private SlidingHeavyHitters searchTerms;
+
+    @PostConstruct
+    public void init() {
+        long bucketMillis = Math.max(1, bucketMinutes) * 60_000L;
+        replenishedSkus = new SlidingHeavyHitters(Math.max(1, bucketCount), bucketMillis, depth, width, topK);
+        searchTerms = new SlidingHeavyHitters(Math.max(1, bucketCount), bucketMillis, depth, width, topK);
+    }
+
+    // Units received from a distribution center, per SKU (brand / name)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        if (!enabled || event.isRemote() || event.getCenterId() == null || event.getAfter() == null) {
+            return;
+        }
+        ItemSnapshot after = event.getAfter();
+        int received = after.quantity() - (event.getBefore() == null ? 0 : event.getBefore().quantity());
+        if (received > 0) {
+            replenishedSkus.add(after.brand() + " / " + after.name(), received);
+        }
+    }
+
+    // Called by ItemService for the first page of each search; later pages are the same search
+    public void recordSearch(String kind, String term) {
+        if (!enabled || term == null) {
+            return;
+        }
+        String normalized = term.trim().toLowerCase(Locale.ROOT);
+        if (normalized.isEmpty()) {
+            return;
+        }
+        if (normalized.length() > MAX_TERM_LENGTH) {
+            normalized = normalized.substring(0, MAX_TERM_LENGTH);
+        }
+        searchTerms.add(kind + ":" + normalized, 1);
+    }
+
+    // Top replenished SKUs and search terms over the last windowMinutes (rounded up to whole buckets)
+    public Map<String, Object> getReport(int windowMinutes, int limit) {
+        int windowBuckets = (Math.max(1, windowMinutes) + bucketMinutes - 1) / Math.max(1, bucketMinutes);
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("enabled", enabled);
+        report.put("bucketMinutes", bucketMinutes);
+        report.put("maxWindowMinutes", bucketMinutes * bucketCount);
+        report.put("sketchBytes", 2L * bucketCount * depth * width * Long.BYTES);
+        report.put("replenishedSkus", replenishedSkus.top(windowBuckets, limit));
+        report.put("searchTerms", searchTerms.top(windowBuckets, limit));
+        return report;
+    }
+}
@@ -0,0 +1,160 @@
+package com.arjencode.project.service;
+
+import com.arjencode.project.model.Warehouse;
+import com.arjencode.project.repository.ItemRepository;
+import com.arjencode.project.repository.WarehouseRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Warehouses and their rows in the distance matrix. The warehouse.* location from the configuration
+// is the default warehouse: items saved without one (seed data, the add form, older rows) belong to it.
+@Service
+public class WarehouseService {
+
+    @Value("${warehouse.code:MAIN}")
+    private String defaultCode;
+
+    @Value("${warehouse.name:Downtown Toronto}")
+    private String defaultName;
+
+    @Value("${warehouse.latitude:43.6532}")
+    private double defaultLatitude;
+
+    @Value("${warehouse.longitude:-79.3832}")
+    private double defaultLongitude;
+
+    private final WarehouseRepository warehouseRepository;
+    private final ItemRepository itemRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final DistanceMatrix distanceMatrix;
+
+    // Warehouses rarely change; lookups by id don't need a query (other nodes' additions are loaded on a miss)
+    private final Map<Long, Warehouse> warehouses = new ConcurrentHashMap<>();
+    private volatile Long defaultWarehouseId;
+
+    @Autowired
+    public WarehouseService(WarehouseRepository warehouseRepository, ItemRepository itemRepository,
+                            JdbcTemplate jdbcTemplate, DistanceMatrix distanceMatrix) {
+        this.warehouseRepository = warehouseRepository;
+        this.itemRepository = itemRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.distanceMatrix = distanceMatrix;
+    }
+
+    // Make sure the default warehouse exists and matches the configuration, then load all warehouses
+    @PostConstruct
+    public void init() {
+        Warehouse main = warehouseRepository.findByCode(defaultCode).orElse(null);
+        if (main == null) {
+            try {
+                main = warehouseRepository.save(new Warehouse(defaultCode, defaultName, defaultLatitude, defaultLongitude));
+            } catch (DataIntegrityViolationException e) {
+                main = warehouseRepository.findByCode(defaultCode).orElseThrow(() -> e); // created by another node
+            }
+        } else if (main.getLatitude() != defaultLatitude || main.getLongitude() != defaultLongitude) {
+            main.setLatitude(defaultLatitude);
+            main.setLongitude(defaultLongitude);
+            main = warehouseRepository.save(main);
+        }
+        defaultWarehouseId = main.getId();
+        for (Warehouse warehouse : warehouseRepository.findAll()) {
+            register(warehouse);
+        }
+    }
+
+    // Items written before warehouses existed (or seeded by SQL) go to the default warehouse.
+    // Runs ahead of the other startup loads (inventory summary) so they see every item in a warehouse.
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void assignUnpartitionedItems() {
+        int assigned = jdbcTemplate.update("UPDATE items SET warehouse_id = ? WHERE warehouse_id IS NULL", defaultWarehouseId);
+        if (assigned > 0) {
+            System.out.println("Assigned " + assigned + " items to warehouse " + defaultCode);
+        }
+    }
+
+    public Long getDefaultWarehouseId() {
+        return defaultWarehouseId;
+    }
+
+    // The given warehouse id, or the default warehouse when none is given
+    public Long resolve(Long warehouseId) {
+        return warehouseId != null ? getWarehouse(warehouseId).getId() : defaultWarehouseId;
+    }
+
+    public Warehouse getWarehouse(Long id) {
+        Warehouse warehouse = warehouses.get(id);
+        if (warehouse == null) {
+            warehouse = warehouseRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Warehouse not found with id: " + id));
+            register(warehouse);
+        }
+        return warehouse;
+    }
+
+    // All warehouses, default first
+    public List<Warehouse> getAllWarehouses() {
+        List<Warehouse> all = new ArrayList<>(warehouses.values());
+        all.sort(Comparator.comparing((Warehouse w) -> !w.getId().equals(defaultWarehouseId)).thenComparing(Warehouse::getCode));
+        return all;
+    }
+
+    // Add a warehouse; only its matrix row is computed
+    public Warehouse createWarehouse(String code, String name, Double latitude, Double longitude) {
+        if (code == null || code.isBlank() || name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Warehouse code and name are required");
+        }
+        if (latitude == null || latitude < -90 || latitude > 90 || longitude == null || longitude < -180 || longitude > 180) {
+            throw new IllegalArgumentException("Latitude must be within [-90, 90] and longitude within [-180, 180]");
+        }
+        if (warehouseRepository.findByCode(code.trim()).isPresent()) {
+            throw new IllegalArgumentException("Warehouse code already exists: " + code.trim());
+        }
+        Warehouse saved = warehouseRepository.save(new Warehouse(code.trim(), name.trim(), latitude, longitude));
+        register(saved);
+        return saved;
+    }
+
+    // Warehouses with item counts and their nearest distribution centers (JSON)
+    public List<Map<String, Object>> getWarehouseSummaries(int nearest) {
+        List<Map<String, Object>> summaries = new ArrayList<>();
+        for (Warehouse warehouse : getAllWarehouses()) {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("id", warehouse.getId());
+            summary.put("code", warehouse.getCode());
+            summary.put("name", warehouse.getName());
+            summary.put("latitude", warehouse.getLatitude());
+            summary.put("longitude", warehouse.getLongitude());
+            summary.put("default", warehouse.getId().equals(defaultWarehouseId));
+            summary.put("itemCount", itemRepository.countByWarehouseId(warehouse.getId()));
+
+            List<Map<String, Object>> centers = new ArrayList<>();
+            long[] ranked = distanceMatrix.rankedCenters(warehouse.getId());
+            for (int i = 0; i < Math.min(nearest, ranked.length); i++) {
+                Map<String, Object> center = new LinkedHashMap<>();
+                center.put("centerId", ranked[i]);
+                center.put("distanceKm", Math.round(distanceMatrix.distanceKm(warehouse.getId(), ranked[i]) * 100.0) / 100.0);
+                centers.add(center);
+            }
+            summary.put("nearestCenters", centers);
+            summaries.add(summary);
+        }
+        return summaries;
+    }
+
+    private void register(Warehouse warehouse) {
+        warehouses.put(warehouse.getId(), warehouse);
+        distanceMatrix.putWarehouse(warehouse.getId(), warehouse.getLatitude(), warehouse.getLongitude());
+    }
+}
@@ -2,8 +2,11 @@ package com.arjencode.project;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
 
+// Tests fail on statement budget overruns instead of only warning (see application-test.properties)
 @SpringBootTest
+@ActiveProfiles("test")
 class ProjectApplicationTests {
 
 	@Test
@@ -0,0 +1,90 @@
+package com.arjencode.project.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The delegate stands in for the BCrypt check; the cache must spare it only for credentials it accepted
+class CachedCredentialsAuthenticationProviderTests {
+
+    private final CountingProvider bcrypt = new CountingProvider();
+
+    @Test
+    void verifiedCredentialsAreCheckedOncePerTtl() {
+        CachedCredentialsAuthenticationProvider provider = new CachedCredentialsAuthenticationProvider(bcrypt, Duration.ofMinutes(1), 100);
+
+        provider.authenticate(login("admin", "admin123"));
+        Authentication cached = provider.authenticate(login("admin", "admin123"));
+
+        assertEquals(1, bcrypt.calls);
+        assertTrue(cached.isAuthenticated());
+        assertEquals("admin", cached.getName());
+        assertEquals(AuthorityUtils.createAuthorityList("ROLE_ADMIN"), cached.getAuthorities());
+        assertNull(cached.getCredentials());
+    }
+
+    @Test
+    void failedAttemptsAreNotCached() {
+        CachedCredentialsAuthenticationProvider provider = new CachedCredentialsAuthenticationProvider(bcrypt, Duration.ofMinutes(1), 100);
+
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(login("admin", "guess")));
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(login("admin", "guess")));
+
+        assertEquals(2, bcrypt.calls);
+    }
+
+    // A cached entry is for one username/password pair; another password is checked again
+    @Test
+    void otherPasswordIsNotServedFromTheCache() {
+        CachedCredentialsAuthenticationProvider provider = new CachedCredentialsAuthenticationProvider(bcrypt, Duration.ofMinutes(1), 100);
+
+        provider.authenticate(login("admin", "admin123"));
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(login("admin", "admin1234")));
+
+        assertEquals(2, bcrypt.calls);
+    }
+
+    @Test
+    void credentialsAreCheckedAgainAfterTheTtl() throws InterruptedException {
+        CachedCredentialsAuthenticationProvider provider = new CachedCredentialsAuthenticationProvider(bcrypt, Duration.ofMillis(100), 100);
+
+        provider.authenticate(login("admin", "admin123"));
+        Thread.sleep(300);
+        provider.authenticate(login("admin", "admin123"));
+
+        assertEquals(2, bcrypt.calls);
+    }
+
+    private static Authentication login(String username, String password) {
+        return UsernamePasswordAuthenticationToken.unauthenticated(username, password);
+    }
+
+    private static final class CountingProvider implements AuthenticationProvider {
+        private int calls;
+
+        @Override
+        public Authentication authenticate(Authentication authentication) {
+            calls++;
+            if (!"admin".equals(authentication.getName()) || !"admin123".equals(authentication.getCredentials())) {
+                throw new BadCredentialsException("Bad credentials");
+            }
+            return UsernamePasswordAuthenticationToken.authenticated(authentication.getName(), null,
+                AuthorityUtils.createAuthorityList("ROLE_ADMIN"));
+        }
+
+        @Override
+        public boolean supports(Class<?> authentication) {
+            return UsernamePasswordAuthenticationToken.class.isAssignableFrom(authentication);
+        }
+    }
+}
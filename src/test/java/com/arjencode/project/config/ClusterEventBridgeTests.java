@@ -0,0 +1,113 @@
+package com.arjencode.project.config;
+
+import com.arjencode.project.event.ItemChangedEvent;
+import com.arjencode.project.event.ItemSnapshot;
+import com.arjencode.project.event.ItemsBulkChangedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Two bridges on one PostgreSQL database, as two scale-out nodes would be. Needs a real server, so it
+// only runs when one is given:
+//   ./mvnw test -Dtest=ClusterEventBridgeTests -Dit.postgres.url=jdbc:postgresql://localhost:5432/clothes_warehouse \
+//       -Dit.postgres.username=postgres -Dit.postgres.password=postgres
+@EnabledIfSystemProperty(named = "it.postgres.url", matches = ".+")
+class ClusterEventBridgeTests {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private final BlockingQueue<Object> receivedByA = new LinkedBlockingQueue<>();
+    private final BlockingQueue<Object> receivedByB = new LinkedBlockingQueue<>();
+    private ClusterEventBridge nodeA;
+    private ClusterEventBridge nodeB;
+
+    @BeforeEach
+    void start() throws InterruptedException {
+        String channel = "catalog_changes_test_" + System.nanoTime();
+        nodeA = bridge(channel, receivedByA);
+        nodeB = bridge(channel, receivedByB);
+
+        // Wait until B's listener has run LISTEN: broadcast until one arrives
+        Object probe = null;
+        for (int attempt = 0; attempt < 50 && probe == null; attempt++) {
+            nodeA.onItemsBulkChanged(new ItemsBulkChangedEvent(ItemsBulkChangedEvent.Operation.PRICE_ADJUSTED, 0));
+            probe = receivedByB.poll(200, TimeUnit.MILLISECONDS);
+        }
+        assertNotNull(probe, "node B never received a notification");
+        Thread.sleep(500);
+        receivedByA.clear();
+        receivedByB.clear();
+    }
+
+    @AfterEach
+    void stop() {
+        nodeA.stop();
+        nodeB.stop();
+    }
+
+    @Test
+    void itemChangeReachesTheOtherNodeAsARemoteEvent() throws InterruptedException {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        ItemSnapshot before = new ItemSnapshot(42L, "Air Max", "Nike", "Shoes", new BigDecimal("129.99"), 2024, 5, 1L, now, now, 3L);
+        ItemSnapshot after = new ItemSnapshot(42L, "Air Max", "Nike", "Shoes", new BigDecimal("129.99"), 2024, 8, 1L, now, now.plusSeconds(1), 3L);
+        nodeA.onItemChanged(ItemChangedEvent.stockChanged(before, after));
+
+        ItemChangedEvent received = assertInstanceOf(ItemChangedEvent.class, receivedByB.poll(5, TimeUnit.SECONDS));
+        assertTrue(received.isRemote());
+        assertEquals(ItemChangedEvent.Type.STOCK_CHANGED, received.getType());
+        assertEquals(before, received.getBefore());
+        assertEquals(after, received.getAfter());
+        // A skips its own notification
+        assertNull(receivedByA.poll(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void bulkChangeReachesTheOtherNode() throws InterruptedException {
+        nodeA.onItemsBulkChanged(new ItemsBulkChangedEvent(ItemsBulkChangedEvent.Operation.DELETED, 12));
+
+        ItemsBulkChangedEvent received = assertInstanceOf(ItemsBulkChangedEvent.class, receivedByB.poll(5, TimeUnit.SECONDS));
+        assertTrue(received.isRemote());
+        assertEquals(ItemsBulkChangedEvent.Operation.DELETED, received.getOperation());
+        assertEquals(12, received.getAffectedRows());
+    }
+
+    // A remote event republished on B is not sent back out
+    @Test
+    void remoteEventsAreNotRebroadcast() throws InterruptedException {
+        nodeB.onItemsBulkChanged(new ItemsBulkChangedEvent(ItemsBulkChangedEvent.Operation.DELETED, 1, true));
+        assertNull(receivedByA.poll(1, TimeUnit.SECONDS));
+    }
+
+    private ClusterEventBridge bridge(String channel, BlockingQueue<Object> received) {
+        String url = System.getProperty("it.postgres.url");
+        String username = System.getProperty("it.postgres.username", "");
+        String password = System.getProperty("it.postgres.password", "");
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(url, username, password);
+        ClusterEventBridge bridge = new ClusterEventBridge(new JdbcTemplate(dataSource),
+            new DataSourceTransactionManager(dataSource), received::add, objectMapper);
+        ReflectionTestUtils.setField(bridge, "channel", channel);
+        ReflectionTestUtils.setField(bridge, "datasourceUrl", url);
+        ReflectionTestUtils.setField(bridge, "datasourceUsername", username);
+        ReflectionTestUtils.setField(bridge, "datasourcePassword", password);
+        bridge.start();
+        return bridge;
+    }
+}
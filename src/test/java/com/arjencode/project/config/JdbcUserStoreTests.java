@@ -0,0 +1,57 @@
+package com.arjencode.project.config;
+
+import com.arjencode.project.repository.ItemRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// With security.users.store=jdbc (scale-out profile) accounts live in the shared users/authorities tables
+@SpringBootTest(properties = "security.users.store=jdbc")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class JdbcUserStoreTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Test
+    void builtInAccountsAreSeededOnce() {
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE username = 'admin'", Integer.class));
+        assertEquals("ROLE_ADMIN", jdbcTemplate.queryForObject(
+            "SELECT authority FROM authorities WHERE username = 'admin'", String.class));
+    }
+
+    @Test
+    void apiCallsAuthenticateAgainstTheTable() throws Exception {
+        Long id = itemRepository.findAll(PageRequest.of(0, 1)).getContent().get(0).getId();
+        mockMvc.perform(get("/api/reservations/availability/" + id).with(httpBasic("user", "user123")))
+            .andExpect(status().isOk());
+        mockMvc.perform(get("/api/reservations/availability/" + id).with(httpBasic("user", "wrong")))
+            .andExpect(status().isUnauthorized());
+    }
+
+    // Disabling an account in the table locks it out (once its cached credentials expire)
+    @Test
+    void disabledAccountIsRejected() throws Exception {
+        jdbcTemplate.update("INSERT INTO users (username, password, enabled) SELECT 'temp', password, FALSE FROM users WHERE username = 'user'");
+        jdbcTemplate.update("INSERT INTO authorities (username, authority) VALUES ('temp', 'ROLE_USER')");
+        mockMvc.perform(get("/api/reservations/availability/1").with(httpBasic("temp", "user123")))
+            .andExpect(status().isUnauthorized());
+    }
+}
@@ -0,0 +1,48 @@
+package com.arjencode.project.config;
+
+import com.arjencode.project.service.AvailableItemsService;
+import com.arjencode.project.service.DistributionCenterDetailPrefetcher;
+import com.arjencode.project.service.ReservationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// With lazy initialization on (as in the fast-startup profile), beans with scheduled jobs and the
+// cluster bridge are still created at startup; everything else waits for its first use
+@SpringBootTest(properties = "spring.main.lazy-initialization=true")
+@ActiveProfiles("test")
+class LazyInitializationConfigTests {
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @Test
+    void scheduledBeansAreCreatedAtStartup() {
+        ConfigurableListableBeanFactory beanFactory = context.getBeanFactory();
+
+        assertTrue(beanFactory.containsSingleton(beanName(ReservationService.class)));
+        assertTrue(beanFactory.containsSingleton(beanName(DistributionCenterDetailPrefetcher.class)));
+        assertFalse(beanFactory.containsSingleton(beanName(AvailableItemsService.class)));
+    }
+
+    @Test
+    void clusterBridgeIsExcludedFromLazyInitialization() {
+        RootBeanDefinition definition = new RootBeanDefinition(ClusterEventBridge.class);
+
+        assertTrue(LazyInitializationConfig.clusterEventBridgeExcludeFilter()
+            .isExcluded("clusterEventBridge", definition, ClusterEventBridge.class));
+        assertFalse(LazyInitializationConfig.clusterEventBridgeExcludeFilter()
+            .isExcluded("availableItemsService", definition, AvailableItemsService.class));
+    }
+
+    private String beanName(Class<?> type) {
+        return context.getBeanNamesForType(type)[0];
+    }
+}
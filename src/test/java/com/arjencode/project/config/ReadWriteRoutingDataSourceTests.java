@@ -0,0 +1,84 @@
+package com.arjencode.project.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Two databases that each know their own name, wired like ReadReplicaConfig does
+class ReadWriteRoutingDataSourceTests {
+
+    private DriverManagerDataSource primary;
+    private DriverManagerDataSource replica;
+    private JdbcTemplate jdbcTemplate;
+    private DataSourceTransactionManager transactionManager;
+
+    @BeforeEach
+    void createDatabases() {
+        primary = database("routing_primary");
+        replica = database("routing_replica");
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource();
+        routing.setTargetDataSources(Map.of(
+            ReadWriteRoutingDataSource.PRIMARY, primary,
+            ReadWriteRoutingDataSource.REPLICA, replica));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionManager = new DataSourceTransactionManager(dataSource);
+    }
+
+    @AfterEach
+    void dropDatabases() {
+        ReadWriteRoutingDataSource.clearPin();
+        new JdbcTemplate(primary).execute("DROP TABLE node");
+        new JdbcTemplate(replica).execute("DROP TABLE node");
+    }
+
+    @Test
+    void readOnlyTransactionsUseTheReplica() {
+        assertEquals("routing_replica", nodeName(true));
+    }
+
+    @Test
+    void readWriteTransactionsUseThePrimary() {
+        assertEquals("routing_primary", nodeName(false));
+    }
+
+    @Test
+    void nonTransactionalCallsUseThePrimary() {
+        assertEquals("routing_primary", jdbcTemplate.queryForObject("SELECT name FROM node", String.class));
+    }
+
+    // A request that just wrote reads its own write from the primary
+    @Test
+    void pinnedRequestsReadThePrimary() {
+        ReadWriteRoutingDataSource.pinToPrimary(true);
+        assertEquals("routing_primary", nodeName(true));
+        ReadWriteRoutingDataSource.clearPin();
+        assertEquals("routing_replica", nodeName(true));
+    }
+
+    private String nodeName(boolean readOnly) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(readOnly);
+        return transaction.execute(status -> jdbcTemplate.queryForObject("SELECT name FROM node", String.class));
+    }
+
+    private static DriverManagerDataSource database(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE node (name VARCHAR(50))");
+        jdbcTemplate.update("INSERT INTO node VALUES (?)", name);
+        return dataSource;
+    }
+}
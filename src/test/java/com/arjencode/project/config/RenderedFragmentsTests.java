@@ -0,0 +1,93 @@
+package com.arjencode.project.config;
+
+import com.arjencode.project.model.Item;
+import com.arjencode.project.service.ItemService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// With the fragment cache on, pages must still show the current item and the markup of the viewer's role
+@SpringBootTest(properties = "rendering.fragment-cache.enabled=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RenderedFragmentsTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void repeatedDetailsAreServedFromTheCache() throws Exception {
+        Item item = newItem("Cached Tee", "Fragment " + System.nanoTime());
+        page("/items/" + item.getId(), "USER");
+        double hits = hits();
+
+        String html = page("/items/" + item.getId(), "USER");
+
+        assertEquals(hits + 1, hits());
+        assertTrue(html.contains("Cached Tee"));
+    }
+
+    // The key carries the item's version, so an edit renders a new entry rather than serving the old one
+    @Test
+    void changedItemIsRenderedAgain() throws Exception {
+        Item item = newItem("Before Tee", "Fragment " + System.nanoTime());
+        page("/items/" + item.getId(), "USER");
+
+        item.setName("After Tee");
+        itemService.saveItem(item);
+        String html = page("/items/" + item.getId(), "USER");
+
+        assertTrue(html.contains("After Tee"));
+        assertFalse(html.contains("Before Tee"));
+    }
+
+    @Test
+    void adminRowsAreNotServedToUsers() throws Exception {
+        String brand = "Fragment " + System.nanoTime();
+        Item item = newItem("Role Tee", brand);
+        String editLink = "/items/edit/" + item.getId();
+
+        assertTrue(page("/items/brand/" + brand, "ADMIN").contains(editLink));
+        assertFalse(page("/items/brand/" + brand, "USER").contains(editLink));
+    }
+
+    private String page(String path, String role) throws Exception {
+        return mockMvc.perform(get(path).with(user(role.toLowerCase()).roles(role)))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+    }
+
+    private double hits() {
+        return meterRegistry.counter("rendering.fragments", "result", "hit").count();
+    }
+
+    private Item newItem(String name, String brand) {
+        Item item = new Item();
+        item.setName(name);
+        item.setBrand(brand);
+        item.setCategory("T-Shirts");
+        item.setPrice(new BigDecimal("10.00"));
+        item.setYear(2024);
+        item.setQuantity(5);
+        return itemService.saveItem(item);
+    }
+}
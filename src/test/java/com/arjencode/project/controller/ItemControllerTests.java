@@ -0,0 +1,94 @@
+package com.arjencode.project.controller;
+
+import com.arjencode.project.model.Item;
+import com.arjencode.project.service.ItemService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Submits the edit form: details are only saved over the version the form was loaded with
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(username = "admin", roles = "ADMIN")
+class ItemControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Test
+    void editWithCurrentVersionIsSaved() throws Exception {
+        Item item = newItem();
+
+        mockMvc.perform(editForm(item, "Renamed Tee").param("version", item.getVersion().toString()))
+            .andExpect(status().is3xxRedirection())
+            .andExpect(redirectedUrl("/items/list"));
+
+        assertEquals("Renamed Tee", itemService.getItemById(item.getId()).getName());
+    }
+
+    @Test
+    void editOfAStaleVersionIsAConflict() throws Exception {
+        Item item = newItem();
+        Long loadedVersion = item.getVersion();
+        item.setPrice(new BigDecimal("12.00"));
+        itemService.saveItem(item);
+
+        mockMvc.perform(editForm(item, "Stale Tee").param("version", loadedVersion.toString()))
+            .andExpect(status().isConflict())
+            .andExpect(model().attributeExists("conflictMessage"));
+
+        assertEquals("Conflict Tee", itemService.getItemById(item.getId()).getName());
+    }
+
+    @Test
+    void editWithoutAVersionIsAConflict() throws Exception {
+        Item item = newItem();
+
+        mockMvc.perform(editForm(item, "Unversioned Tee"))
+            .andExpect(status().isConflict())
+            .andExpect(model().attributeExists("conflictMessage"));
+
+        assertEquals("Conflict Tee", itemService.getItemById(item.getId()).getName());
+    }
+
+    private MockHttpServletRequestBuilder editForm(Item item, String name) {
+        return post("/items/edit/" + item.getId())
+            .with(csrf())
+            .param("name", name)
+            .param("brand", item.getBrand())
+            .param("category", item.getCategory())
+            .param("price", "10.00")
+            .param("year", item.getYear().toString())
+            .param("quantity", item.getQuantity().toString())
+            .param("originalQuantity", item.getQuantity().toString());
+    }
+
+    private Item newItem() {
+        Item item = new Item();
+        item.setName("Conflict Tee");
+        item.setBrand("Test");
+        item.setCategory("T-Shirts");
+        item.setPrice(new BigDecimal("10.00"));
+        item.setYear(2024);
+        item.setQuantity(5);
+        return itemService.saveItem(item);
+    }
+}
@@ -0,0 +1,100 @@
+package com.arjencode.project.controller;
+
+import com.arjencode.project.model.Item;
+import com.arjencode.project.repository.ItemRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Drives the budgeted endpoints (diagnostics.queries.budgets.*). The test profile sets
+// fail-on-budget-exceeded, so a request over its statement budget fails instead of only warning.
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(username = "admin", roles = "ADMIN")
+class QueryBudgetTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Test
+    void itemListsStayWithinBudget() throws Exception {
+        mockMvc.perform(get("/items/list")).andExpect(status().isOk());
+        mockMvc.perform(get("/items/list").param("page", "1").param("sortBy", "price").param("sortDir", "desc"))
+            .andExpect(status().isOk());
+        mockMvc.perform(get("/items/brand/Nike")).andExpect(status().isOk());
+        mockMvc.perform(get("/items/year/2022")).andExpect(status().isOk());
+        mockMvc.perform(get("/items/filter").param("brand", "Adidas")).andExpect(status().isOk());
+    }
+
+    @Test
+    void itemDetailsStayWithinBudget() throws Exception {
+        Long id = itemRepository.findAll(PageRequest.of(0, 1)).getContent().get(0).getId();
+        mockMvc.perform(get("/items/" + id)).andExpect(status().isOk());
+    }
+
+    @Test
+    void dashboardStaysWithinBudget() throws Exception {
+        mockMvc.perform(get("/admin/dashboard")).andExpect(status().isOk());
+    }
+
+    @Test
+    void perRowQueryLoopTripsTheBudget() {
+        Exception failure = assertThrows(Exception.class, () -> mockMvc.perform(get("/test/n-plus-one")));
+        Throwable cause = failure;
+        while (!(cause instanceof IllegalStateException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        assertTrue(cause.getMessage().startsWith("Query budget exceeded"), cause.getMessage());
+        assertTrue(cause.getMessage().contains("most repeated"), cause.getMessage());
+    }
+
+    @TestConfiguration
+    static class NPlusOneConfig {
+
+        @Bean
+        NPlusOneController nPlusOneController(ItemRepository itemRepository, JdbcTemplate jdbcTemplate) {
+            return new NPlusOneController(itemRepository, jdbcTemplate);
+        }
+    }
+
+    // One page of items, then one query per item: the shape the budgets exist to catch
+    @RestController
+    static class NPlusOneController {
+
+        private final ItemRepository itemRepository;
+        private final JdbcTemplate jdbcTemplate;
+
+        NPlusOneController(ItemRepository itemRepository, JdbcTemplate jdbcTemplate) {
+            this.itemRepository = itemRepository;
+            this.jdbcTemplate = jdbcTemplate;
+        }
+
+        @GetMapping("/test/n-plus-one")
+        int nPlusOne() {
+            int total = 0;
+            for (Item item : itemRepository.findAll(PageRequest.of(0, 30))) {
+                total += jdbcTemplate.queryForObject("SELECT quantity FROM items WHERE id = ?", Integer.class, item.getId());
+            }
+            return total;
+        }
+    }
+}
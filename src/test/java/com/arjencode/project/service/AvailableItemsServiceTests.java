@@ -0,0 +1,89 @@
+package com.arjencode.project.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Serves one brand's items page by page from the availability aggregate; the distribution center side is a mock
+class AvailableItemsServiceTests {
+
+    private final DistributionCenterIntegrationService centers = mock(DistributionCenterIntegrationService.class);
+    private AvailableItemsService service;
+
+    @BeforeEach
+    void createService() {
+        Map<String, Integer> nike = new TreeMap<>();
+        for (int i = 0; i < 25; i++) {
+            nike.put(String.format("Air Max %02d", i), i + 1);
+        }
+        nike.put("Pegasus", 4);
+        when(centers.getAvailableItemsByBrand()).thenReturn(Map.of(
+            "brands", List.of("Adidas", "Nike"),
+            "itemsByBrand", Map.of("Nike", nike, "Adidas", Map.of("Samba", 2))));
+        service = new AvailableItemsService(centers);
+    }
+
+    @Test
+    void brandsComeFromTheAggregate() {
+        assertEquals(List.of("Adidas", "Nike"), service.getAvailableBrands());
+    }
+
+    @Test
+    void noBrandsWhenTheAggregateFailed() {
+        when(centers.getAvailableItemsByBrand()).thenReturn(Map.of());
+        assertTrue(service.getAvailableBrands().isEmpty());
+        assertEquals(0, service.getAvailableItems("Nike", null, 0, 10).get("totalItems"));
+    }
+
+    @Test
+    void pagesOnlyTheRequestedBrand() {
+        Map<String, Object> page = service.getAvailableItems("Nike", null, 2, 10);
+
+        assertEquals(26, page.get("totalItems"));
+        assertEquals(3, page.get("totalPages"));
+        assertEquals(List.of("Air Max 20", "Air Max 21", "Air Max 22", "Air Max 23", "Air Max 24", "Pegasus"),
+            names(page));
+    }
+
+    @Test
+    void filtersByACaseInsensitiveNameFragment() {
+        Map<String, Object> page = service.getAvailableItems("Nike", "  PEGA ", 0, 10);
+
+        assertEquals("pega", page.get("query"));
+        assertEquals(1, page.get("totalItems"));
+        assertEquals(List.of("Pegasus"), names(page));
+    }
+
+    @Test
+    void pageSizeAndNumberAreClamped() {
+        Map<String, Object> page = service.getAvailableItems("Nike", "", -3, 1000);
+
+        assertEquals(0, page.get("page"));
+        assertEquals(100, page.get("size"));
+        assertEquals(26, names(page).size());
+    }
+
+    @Test
+    void unknownBrandIsAnEmptyPage() {
+        Map<String, Object> page = service.getAvailableItems("Puma", null, 0, 10);
+
+        assertEquals(0, page.get("totalItems"));
+        assertEquals(0, page.get("totalPages"));
+        assertTrue(names(page).isEmpty());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> names(Map<String, Object> page) {
+        return ((List<Map<String, Object>>) page.get("items")).stream()
+            .map(item -> (String) item.get("name"))
+            .toList();
+    }
+}
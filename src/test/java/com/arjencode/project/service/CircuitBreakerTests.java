@@ -0,0 +1,50 @@
+package com.arjencode.project.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class CircuitBreakerTests {
+
+    @Test
+    void opensAtTheFailureRateAndClosesAfterASuccessfulTrial() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker("test", 4, 4, 0.5, 200);
+        for (int i = 0; i < 4; i++) {
+            long permission = breaker.tryAcquirePermission();
+            if (i % 2 == 0) {
+                breaker.onSuccess(permission);
+            } else {
+                breaker.onError(permission);
+            }
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(CircuitBreaker.REJECTED, breaker.tryAcquirePermission());
+
+        Thread.sleep(300);
+        long trial = breaker.tryAcquirePermission();
+        assertNotEquals(CircuitBreaker.REJECTED, trial);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertEquals(CircuitBreaker.REJECTED, breaker.tryAcquirePermission()); // one trial at a time
+        breaker.onSuccess(trial);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void lateOutcomeFromBeforeATransitionIsIgnored() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker("test", 2, 2, 0.5, 200);
+        long slowCall = breaker.tryAcquirePermission(); // granted while closed, answers much later
+        breaker.onError(breaker.tryAcquirePermission());
+        breaker.onError(breaker.tryAcquirePermission());
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        Thread.sleep(300);
+        long trial = breaker.tryAcquirePermission();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        breaker.onSuccess(slowCall);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        breaker.onError(trial);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+}
@@ -0,0 +1,194 @@
+package com.arjencode.project.service;
+
+import com.arjencode.project.event.ItemChangedEvent;
+import com.arjencode.project.event.ItemSnapshot;
+import com.arjencode.project.event.ItemsBulkChangedEvent;
+import com.arjencode.project.model.Item;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Random item changes applied as events must leave every sort permutation equal to a full re-sort
+class ColumnarCatalogTests {
+
+    private static final String[] BRANDS = { "Nike", "Adidas", "Puma", "Zara" };
+    private static final String[] CATEGORIES = { "Shoes", "Jackets", "Hoodies" };
+    private static final Map<String, Comparator<ItemSnapshot>> ORDERS = new LinkedHashMap<>();
+
+    static {
+        ORDERS.put("id", Comparator.comparing(ItemSnapshot::id));
+        ORDERS.put("name", Comparator.comparing(ItemSnapshot::name));
+        ORDERS.put("brand", Comparator.comparing(ItemSnapshot::brand));
+        ORDERS.put("category", Comparator.comparing(ItemSnapshot::category));
+        ORDERS.put("price", Comparator.comparing(ItemSnapshot::price));
+        ORDERS.put("year", Comparator.comparing(ItemSnapshot::year));
+        ORDERS.put("quantity", Comparator.comparing(ItemSnapshot::quantity));
+    }
+
+    private DriverManagerDataSource dataSource;
+    private ColumnarCatalog catalog;
+    private final Random random = new Random(7);
+    private final Map<Long, ItemSnapshot> expected = new HashMap<>();
+    private long nextId = 1;
+
+    @BeforeEach
+    void createTable() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:columnar_catalog_test;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE items (id BIGINT PRIMARY KEY, name VARCHAR(255), brand VARCHAR(255), "
+            + "category VARCHAR(255), price DECIMAL(10, 2), item_year INT, quantity INT, created_at TIMESTAMP, "
+            + "updated_at TIMESTAMP, version BIGINT, warehouse_id BIGINT)");
+        for (int i = 0; i < 200; i++) {
+            ItemSnapshot item = randomItem(nextId++, 0L);
+            jdbcTemplate.update("INSERT INTO items VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", item.id(), item.name(),
+                item.brand(), item.category(), item.price(), item.year(), item.quantity(), item.createdAt(),
+                item.updatedAt(), item.version(), item.warehouseId());
+            expected.put(item.id(), item);
+        }
+        catalog = new ColumnarCatalog(dataSource, new DataSourceTransactionManager(dataSource));
+    }
+
+    @AfterEach
+    void dropTable() {
+        catalog.shutdown();
+        new JdbcTemplate(dataSource).execute("DROP TABLE items");
+    }
+
+    @Test
+    void loadMatchesTheTable() {
+        catalog.load();
+        assertMatchesBruteForce();
+        Item first = catalog.findPage(null, null, null, 0, 1, "id", "asc").orElseThrow().getContent().get(0);
+        ItemSnapshot row = expected.get(1L);
+        assertEquals(row.version(), first.getVersion());
+        assertEquals(row.warehouseId(), first.getWarehouseId());
+        assertEquals(row.price(), first.getPrice());
+    }
+
+    @Test
+    void permutationsStayOrderedThroughRandomChanges() {
+        catalog.load();
+        List<Long> ids = new ArrayList<>(expected.keySet());
+        for (int step = 1; step <= 1_500; step++) {
+            int action = random.nextInt(10);
+            if (action == 0) {
+                ItemSnapshot created = randomItem(nextId++, 0L);
+                ids.add(created.id());
+                expected.put(created.id(), created);
+                catalog.onItemChanged(ItemChangedEvent.created(created));
+            } else if (action == 1 && ids.size() > 50) {
+                ItemSnapshot removed = expected.remove(ids.remove(random.nextInt(ids.size())));
+                catalog.onItemChanged(ItemChangedEvent.deleted(removed));
+            } else {
+                ItemSnapshot before = expected.get(ids.get(random.nextInt(ids.size())));
+                ItemSnapshot after = changeOneField(before);
+                expected.put(after.id(), after);
+                catalog.onItemChanged(ItemChangedEvent.updated(before, after));
+            }
+            if (step % 250 == 0) {
+                assertMatchesBruteForce();
+            }
+        }
+    }
+
+    // An event older than the row's state (lower version) must not roll it back
+    @Test
+    void staleEventsAreIgnored() {
+        catalog.load();
+        ItemSnapshot current = expected.get(5L);
+        ItemSnapshot newer = withVersion(current, current.version() + 1, current.quantity() + 10);
+        catalog.onItemChanged(ItemChangedEvent.updated(current, newer));
+        catalog.onItemChanged(ItemChangedEvent.updated(current, withVersion(current, current.version(), 0)));
+        expected.put(newer.id(), newer);
+        assertMatchesBruteForce();
+    }
+
+    // After a bulk statement the old snapshot must not be served: reads fall back to the database (empty)
+    // until the reload has picked up the new values
+    @Test
+    void bulkChangeIsNotServedFromTheOldSnapshot() throws InterruptedException {
+        catalog.load();
+        int updated = new JdbcTemplate(dataSource).update("UPDATE items SET quantity = 999 WHERE brand = 'Nike'");
+        catalog.onItemsBulkChanged(new ItemsBulkChangedEvent(ItemsBulkChangedEvent.Operation.QUANTITY_SET, updated));
+
+        Optional<Page<Item>> nike = Optional.empty();
+        for (int attempt = 0; attempt < 100 && nike.isEmpty(); attempt++) {
+            nike = catalog.findPage("Nike", null, null, 0, 10_000, "id", "asc");
+            nike.ifPresent(page -> page.getContent().forEach(item -> assertEquals(999, item.getQuantity())));
+            Thread.sleep(20);
+        }
+        assertEquals(updated, nike.orElseThrow().getTotalElements());
+    }
+
+    private void assertMatchesBruteForce() {
+        for (Map.Entry<String, Comparator<ItemSnapshot>> order : ORDERS.entrySet()) {
+            List<Long> ascending = expected.values().stream()
+                .sorted(order.getValue().thenComparing(ItemSnapshot::id))
+                .map(ItemSnapshot::id)
+                .toList();
+            assertEquals(ascending, pageIds(null, order.getKey(), "asc"), order.getKey() + " asc");
+            List<Long> descending = new ArrayList<>(ascending);
+            Collections.reverse(descending);
+            assertEquals(descending, pageIds(null, order.getKey(), "desc"), order.getKey() + " desc");
+
+            List<Long> nike = expected.values().stream()
+                .filter(item -> item.brand().equals("Nike"))
+                .sorted(order.getValue().thenComparing(ItemSnapshot::id))
+                .map(ItemSnapshot::id)
+                .toList();
+            assertEquals(nike, pageIds("Nike", order.getKey(), "asc"), order.getKey() + " Nike");
+        }
+    }
+
+    private List<Long> pageIds(String brand, String sortBy, String sortDir) {
+        return catalog.findPage(brand, null, null, 0, 10_000, sortBy, sortDir).orElseThrow()
+            .getContent().stream().map(Item::getId).toList();
+    }
+
+    private ItemSnapshot randomItem(long id, Long version) {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        return new ItemSnapshot(id, "Item " + random.nextInt(100), pick(BRANDS), pick(CATEGORIES),
+            BigDecimal.valueOf(random.nextInt(20_000), 2), 2015 + random.nextInt(10), random.nextInt(50),
+            (long) (1 + random.nextInt(3)), now, now, version);
+    }
+
+    // Change one sortable field (sometimes to an equal value), bumping version and updatedAt like a real save
+    private ItemSnapshot changeOneField(ItemSnapshot item) {
+        ItemSnapshot other = randomItem(item.id(), item.version() + 1);
+        Function<ItemSnapshot, ItemSnapshot> change = switch (random.nextInt(6)) {
+            case 0 -> base -> copy(base, other.name(), base.brand(), base.category(), base.price(), base.year(), base.quantity());
+            case 1 -> base -> copy(base, base.name(), other.brand(), base.category(), base.price(), base.year(), base.quantity());
+            case 2 -> base -> copy(base, base.name(), base.brand(), other.category(), base.price(), base.year(), base.quantity());
+            case 3 -> base -> copy(base, base.name(), base.brand(), base.category(), other.price(), base.year(), base.quantity());
+            case 4 -> base -> copy(base, base.name(), base.brand(), base.category(), base.price(), other.year(), base.quantity());
+            default -> base -> copy(base, base.name(), base.brand(), base.category(), base.price(), base.year(), other.quantity());
+        };
+        return change.apply(item);
+    }
+
+    private static ItemSnapshot copy(ItemSnapshot base, String name, String brand, String category, BigDecimal price,
+                                     Integer year, Integer quantity) {
+        return new ItemSnapshot(base.id(), name, brand, category, price, year, quantity, base.warehouseId(),
+            base.createdAt(), base.updatedAt().plusSeconds(1), base.version() + 1);
+    }
+
+    private static ItemSnapshot withVersion(ItemSnapshot base, Long version, Integer quantity) {
+        return new ItemSnapshot(base.id(), base.name(), base.brand(), base.category(), base.price(), base.year(),
+            quantity, base.warehouseId(), base.createdAt(), base.updatedAt(), version);
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,73 @@
+package com.arjencode.project.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CountMinTopKTests {
+
+    // Estimates never undercount, and overcount by no more than the e / width bound (with high probability)
+    @Test
+    void estimatesStayWithinTheErrorBound() {
+        CountMinTopK sketch = new CountMinTopK(4, 1024, 10);
+        Map<String, Long> exact = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 50_000; i++) {
+            String key = "sku-" + (int) Math.abs(random.nextGaussian() * 500);
+            sketch.add(key, 1);
+            exact.merge(key, 1L, Long::sum);
+        }
+        assertEquals(50_000, sketch.total());
+        double bound = Math.E / 1024 * sketch.total();
+        for (Map.Entry<String, Long> entry : exact.entrySet()) {
+            long estimate = sketch.estimate(entry.getKey());
+            assertTrue(estimate >= entry.getValue(), entry.getKey() + " undercounted");
+            assertTrue(estimate - entry.getValue() <= bound, entry.getKey() + " overcounted by " + (estimate - entry.getValue()));
+        }
+    }
+
+    @Test
+    void tracksTheHeaviestKeys() {
+        CountMinTopK sketch = new CountMinTopK(4, 2048, 5);
+        for (int heavy = 0; heavy < 5; heavy++) {
+            sketch.add("heavy-" + heavy, 1_000 + heavy);
+        }
+        for (int light = 0; light < 5_000; light++) {
+            sketch.add("light-" + light, 1);
+        }
+        Set<String> candidates = new HashSet<>();
+        sketch.candidateKeys().forEach(candidates::add);
+        assertEquals(Set.of("heavy-0", "heavy-1", "heavy-2", "heavy-3", "heavy-4"), candidates);
+    }
+
+    // Sketches of one shape add up to the sketch of the combined stream
+    @Test
+    void mergedTablesMatchOneSketchOfEverything() {
+        CountMinTopK first = new CountMinTopK(3, 256, 5);
+        CountMinTopK second = new CountMinTopK(3, 256, 5);
+        CountMinTopK combined = new CountMinTopK(3, 256, 5);
+        for (int i = 0; i < 2_000; i++) {
+            String key = "key-" + (i % 97);
+            (i % 2 == 0 ? first : second).add(key, 1);
+            combined.add(key, 1);
+        }
+        long[][] table = first.emptyTable();
+        first.mergeInto(table);
+        second.mergeInto(table);
+        for (int k = 0; k < 97; k++) {
+            assertEquals(combined.estimate("key-" + k), first.estimate(table, "key-" + k));
+        }
+
+        first.clear();
+        assertEquals(0, first.total());
+        assertEquals(0, first.estimate("key-1"));
+        assertTrue(!first.candidateKeys().iterator().hasNext());
+    }
+}
@@ -0,0 +1,111 @@
+package com.arjencode.project.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Random incremental changes (warehouses and centers added, moved, removed) must leave every distance and
+// ranking equal to a computation from scratch
+class DistanceMatrixTests {
+
+    private final DistanceMatrix matrix = new DistanceMatrix();
+    private final Random random = new Random(11);
+    private final Map<Long, double[]> warehouses = new HashMap<>();
+    private final Map<Long, double[]> centers = new HashMap<>();
+
+    @Test
+    void incrementalChangesMatchAFullComputation() {
+        for (int step = 1; step <= 600; step++) {
+            int action = random.nextInt(10);
+            if (action < 3) {
+                long id = 1 + random.nextInt(15);
+                double[] location = randomLocation();
+                warehouses.put(id, location);
+                matrix.putWarehouse(id, location[0], location[1]);
+            } else if (action < 8) {
+                long id = 100 + random.nextInt(30);
+                double[] location = randomLocation();
+                centers.put(id, location);
+                matrix.putCenter(id, location[0], location[1]);
+            } else if (!centers.isEmpty()) {
+                long id = new ArrayList<>(centers.keySet()).get(random.nextInt(centers.size()));
+                centers.remove(id);
+                matrix.removeCenter(id);
+            }
+            if (step % 50 == 0) {
+                assertMatchesBruteForce();
+            }
+        }
+    }
+
+    @Test
+    void retainCentersDropsTheOthers() {
+        matrix.putWarehouse(1, 43.65, -79.38);
+        matrix.putCenter(10, 45.50, -73.57);
+        matrix.putCenter(11, 49.28, -123.12);
+        matrix.putCenter(12, 51.05, -114.07);
+
+        matrix.retainCenters(List.of(10L, 12L));
+
+        assertEquals(2, matrix.centerCount());
+        assertArrayEquals(new long[] { 10, 12 }, matrix.rankedCenters(1));
+        assertTrue(Double.isNaN(matrix.distanceKm(1, 11)));
+    }
+
+    // Toronto to Montreal is about 504 km
+    @Test
+    void distanceIsGreatCircle() {
+        matrix.putWarehouse(1, 43.6532, -79.3832);
+        matrix.putCenter(10, 45.5017, -73.5673);
+        assertEquals(504, matrix.distanceKm(1, 10), 5);
+    }
+
+    @Test
+    void nearestCenterSkipsIneligibleOnes() {
+        matrix.putWarehouse(1, 43.65, -79.38);
+        matrix.putCenter(10, 43.70, -79.40);
+        matrix.putCenter(11, 45.50, -73.57);
+        matrix.putCenter(12, 49.28, -123.12);
+
+        assertEquals(10, matrix.nearestCenter(1, id -> true));
+        assertEquals(11, matrix.nearestCenter(1, id -> id != 10));
+        assertEquals(-1, matrix.nearestCenter(1, id -> false));
+        assertEquals(-1, matrix.nearestCenter(99, id -> true));
+    }
+
+    private void assertMatchesBruteForce() {
+        assertEquals(warehouses.size(), matrix.warehouseCount());
+        assertEquals(centers.size(), matrix.centerCount());
+        for (Map.Entry<Long, double[]> warehouse : warehouses.entrySet()) {
+            long warehouseId = warehouse.getKey();
+            Map<Long, Double> expected = new HashMap<>();
+            centers.forEach((centerId, location) -> expected.put(centerId, haversine(warehouse.getValue(), location)));
+
+            long[] ranked = matrix.rankedCenters(warehouseId);
+            assertEquals(expected.size(), ranked.length);
+            for (int k = 0; k < ranked.length; k++) {
+                assertEquals(expected.get(ranked[k]), matrix.distanceKm(warehouseId, ranked[k]), 1e-6);
+                if (k > 0) {
+                    assertTrue(expected.get(ranked[k - 1]) <= expected.get(ranked[k]), "ranking of warehouse " + warehouseId);
+                }
+            }
+        }
+    }
+
+    private double[] randomLocation() {
+        return new double[] { -60 + random.nextDouble() * 120, -180 + random.nextDouble() * 360 };
+    }
+
+    private static double haversine(double[] from, double[] to) {
+        double lat1 = Math.toRadians(from[0]);
+        double lat2 = Math.toRadians(to[0]);
+        double sinLat = Math.sin((lat2 - lat1) / 2);
+        double sinLon = Math.sin(Math.toRadians(to[1] - from[1]) / 2);
+        double a = sinLat * sinLat + Math.cos(lat1) * Math.cos(lat2) * sinLon * sinLon;
+        return 6371 * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+}
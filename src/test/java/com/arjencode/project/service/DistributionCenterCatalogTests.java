@@ -0,0 +1,216 @@
+package com.arjencode.project.service;
+
+import com.arjencode.project.repository.ItemRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+// Reads the availability catalog from a local API: center summaries, then each stocked center's items
+// three to a page. Center 1 has seven items, center 2 none and center 3 four.
+class DistributionCenterCatalogTests {
+
+    private static final int PAGE_SIZE = 3;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Map<Long, List<Map<String, Object>>> centerItems = new LinkedHashMap<>();
+    private final Queue<String> requests = new ConcurrentLinkedQueue<>();
+    private volatile boolean pagedApi = true;
+    private volatile long pageDelayMs;
+
+    private HttpServer server;
+    private DistributionCenterClient client;
+    private DistributionCenterIntegrationService service;
+
+    @BeforeEach
+    void start() throws IOException {
+        List<Map<String, Object>> first = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            first.add(item(i + 1, "Nike Run " + i, "Nike", 1));
+        }
+        centerItems.put(1L, first);
+        centerItems.put(2L, List.of());
+        centerItems.put(3L, List.of(
+            item(20, "Nike Run 0", "Nike", 5),
+            item(21, "Samba", "Adidas", 2),
+            item(22, "Gazelle", "Adidas", 0),
+            item(23, "Suede", "Puma", 3)));
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api/distribution-centers", this::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+
+        client = new DistributionCenterClient(new SimpleMeterRegistry(), new MockEnvironment());
+        ReflectionTestUtils.setField(client, "connectTimeoutMs", 1000);
+        ReflectionTestUtils.setField(client, "defaultDeadlineMs", 3000L);
+        ReflectionTestUtils.setField(client, "writeTimeoutMs", 30000);
+        ReflectionTestUtils.setField(client, "maxConcurrentCalls", 8);
+        ReflectionTestUtils.setField(client, "bulkheadMaxWaitMs", 100L);
+        ReflectionTestUtils.setField(client, "hedgingEnabled", false);
+        ReflectionTestUtils.setField(client, "hedgePercentile", 0.95);
+        ReflectionTestUtils.setField(client, "defaultHedgeDelayMs", 500L);
+        ReflectionTestUtils.setField(client, "encoding", "json");
+        ReflectionTestUtils.setField(client, "gzip", false);
+        ReflectionTestUtils.setField(client, "circuitWindowSize", 20);
+        ReflectionTestUtils.setField(client, "circuitMinimumCalls", 10);
+        ReflectionTestUtils.setField(client, "circuitFailureRateThreshold", 0.5);
+        ReflectionTestUtils.setField(client, "circuitOpenDurationMs", 30000L);
+        client.init();
+
+        service = new DistributionCenterIntegrationService(mock(ItemRepository.class), mock(ItemService.class),
+            mock(ApplicationEventPublisher.class), mock(WarehouseService.class), new DistanceMatrix(), client,
+            new MockEnvironment());
+        ReflectionTestUtils.setField(service, "distributionCenterApiUrl",
+            "http://localhost:" + server.getAddress().getPort() + "/api/distribution-centers");
+        ReflectionTestUtils.setField(service, "apiUsername", "admin");
+        ReflectionTestUtils.setField(service, "apiPassword", "admin123");
+        ReflectionTestUtils.setField(service, "pagedApiEnabled", true);
+        ReflectionTestUtils.setField(service, "pageSize", PAGE_SIZE);
+        ReflectionTestUtils.setField(service, "fetchParallelism", 2);
+        ReflectionTestUtils.setField(service, "catalogDeadlineMs", 5000L);
+        ReflectionTestUtils.setField(service, "stockIndexTtlSeconds", 60L);
+        service.init();
+    }
+
+    @AfterEach
+    void stop() {
+        service.shutdown();
+        client.shutdown();
+        server.stop(0);
+    }
+
+    @Test
+    void pagesOfEveryStockedCenterAreMerged() {
+        assertCatalog(service.getAvailableItemsByBrand());
+
+        assertTrue(requests.contains("/summaries"));
+        for (int page = 0; page < 3; page++) {
+            assertEquals(1, Collections.frequency(requests, "/1/items?page=" + page));
+        }
+        assertEquals(1, Collections.frequency(requests, "/3/items?page=0"));
+        assertFalse(requests.contains("/2/items?page=0"));
+        assertFalse(requests.contains(""));
+    }
+
+    @Test
+    void apiWithoutPagedEndpointsFallsBackToTheFullListing() {
+        pagedApi = false;
+
+        assertCatalog(service.getAvailableItemsByBrand());
+
+        assertTrue(requests.contains(""));
+        assertTrue(requests.stream().noneMatch(path -> path.contains("/items")));
+    }
+
+    // All page reads share the catalog deadline; a catalog that can't be read in time is not returned half-built
+    @Test
+    void slowPagesEndAtTheCatalogDeadline() {
+        ReflectionTestUtils.setField(service, "catalogDeadlineMs", 300L);
+        pageDelayMs = 1500;
+
+        long start = System.nanoTime();
+        Map<String, Object> catalog = service.getAvailableItemsByBrand();
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000L;
+
+        assertTrue(catalog.isEmpty());
+        assertTrue(elapsedMs < 1000, "catalog took " + elapsedMs + " ms");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void assertCatalog(Map<String, Object> catalog) {
+        assertEquals(List.of("Adidas", "Nike", "Puma"), catalog.get("brands"));
+        Map<String, Map<String, Integer>> itemsByBrand = (Map<String, Map<String, Integer>>) catalog.get("itemsByBrand");
+        assertEquals(7, itemsByBrand.get("Nike").size());
+        assertEquals(6, itemsByBrand.get("Nike").get("Nike Run 0"));
+        assertEquals(Map.of("Samba", 2), itemsByBrand.get("Adidas"));
+        assertEquals(Map.of("Suede", 3), itemsByBrand.get("Puma"));
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath().substring("/api/distribution-centers".length());
+        String query = exchange.getRequestURI().getQuery();
+        Object body = null;
+        if (path.equals("/summaries")) {
+            if (pagedApi) {
+                List<Map<String, Object>> summaries = new ArrayList<>();
+                centerItems.forEach((id, items) -> summaries.add(center(id, items.size(), null)));
+                body = summaries;
+            }
+        } else if (path.endsWith("/items") && pagedApi) {
+            int page = Integer.parseInt(query.replaceAll(".*page=(\\d+).*", "$1"));
+            path += "?page=" + page;
+            sleep(pageDelayMs);
+            List<Map<String, Object>> items = centerItems.get(Long.parseLong(path.split("/")[1]));
+            int from = Math.min(page * PAGE_SIZE, items.size());
+            body = Map.of(
+                "content", items.subList(from, Math.min(from + PAGE_SIZE, items.size())),
+                "number", page,
+                "totalPages", Math.max(1, (items.size() + PAGE_SIZE - 1) / PAGE_SIZE));
+        } else if (path.isEmpty()) {
+            List<Map<String, Object>> centers = new ArrayList<>();
+            centerItems.forEach((id, items) -> centers.add(center(id, items.size(), items)));
+            body = centers;
+        }
+        requests.add(path);
+
+        byte[] response = body != null ? mapper.writeValueAsBytes(body) : new byte[0];
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(body != null ? 200 : 404, body != null ? response.length : -1);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(response);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Map<String, Object> center(long id, int itemCount, List<Map<String, Object>> items) {
+        Map<String, Object> center = new HashMap<>();
+        center.put("id", id);
+        center.put("name", "Center " + id);
+        center.put("latitude", 43.6 + id / 10.0);
+        center.put("longitude", -79.4);
+        if (items != null) {
+            center.put("items", items);
+        } else {
+            center.put("itemCount", itemCount);
+        }
+        return center;
+    }
+
+    private static Map<String, Object> item(long id, String name, String brand, int quantity) {
+        Map<String, Object> item = new HashMap<>();
+        item.put("id", id);
+        item.put("name", name);
+        item.put("brand", brand);
+        item.put("category", "Shoes");
+        item.put("price", 59.99);
+        item.put("year", 2024);
+        item.put("quantity", quantity);
+        return item;
+    }
+}
@@ -0,0 +1,100 @@
+package com.arjencode.project.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Runs the client against a local API that answers slowly: idempotent queries end at the caller's
+// deadline, while calls that change state wait for their answer.
+class DistributionCenterClientTests {
+
+    private static final long API_DELAY_MS = 1500;
+
+    private HttpServer server;
+    private DistributionCenterClient client;
+    private String baseUrl;
+
+    @BeforeEach
+    void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            try {
+                Thread.sleep(API_DELAY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "{\"id\":1,\"name\":\"Slow Center\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+
+        client = new DistributionCenterClient(new SimpleMeterRegistry(), new MockEnvironment());
+        ReflectionTestUtils.setField(client, "connectTimeoutMs", 1000);
+        ReflectionTestUtils.setField(client, "defaultDeadlineMs", 3000L);
+        ReflectionTestUtils.setField(client, "writeTimeoutMs", 30000);
+        ReflectionTestUtils.setField(client, "maxConcurrentCalls", 4);
+        ReflectionTestUtils.setField(client, "bulkheadMaxWaitMs", 100L);
+        ReflectionTestUtils.setField(client, "hedgingEnabled", true);
+        ReflectionTestUtils.setField(client, "hedgePercentile", 0.95);
+        ReflectionTestUtils.setField(client, "defaultHedgeDelayMs", 500L);
+        ReflectionTestUtils.setField(client, "encoding", "json");
+        ReflectionTestUtils.setField(client, "gzip", false);
+        ReflectionTestUtils.setField(client, "circuitWindowSize", 20);
+        ReflectionTestUtils.setField(client, "circuitMinimumCalls", 10);
+        ReflectionTestUtils.setField(client, "circuitFailureRateThreshold", 0.5);
+        ReflectionTestUtils.setField(client, "circuitOpenDurationMs", 30000L);
+        client.init();
+    }
+
+    @AfterEach
+    void stop() {
+        client.shutdown();
+        server.stop(0);
+    }
+
+    @Test
+    void slowFindClosestReturnsWithinTheDeadline() {
+        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(Map.of("brand", "Nike", "name", "Air Max"));
+        long start = System.nanoTime();
+        assertThrows(DistributionCenterUnavailableException.class, () -> client.withDeadline(300,
+            () -> client.query("find-closest", HttpMethod.POST, baseUrl + "/find-closest", entity)));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000L;
+        assertTrue(elapsedMs < 1000, "find-closest took " + elapsedMs + " ms");
+    }
+
+    @Test
+    void slowStateChangeIsWaitedForPastTheDeadline() throws Exception {
+        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(Map.of("brand", "Nike", "name", "Air Max", "quantity", 5));
+        long start = System.nanoTime();
+        ResponseEntity<JsonNode> response = client.withDeadline(300,
+            () -> client.exchange("request-item", HttpMethod.POST, baseUrl + "/1/request", entity));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000L;
+        assertEquals("Slow Center", response.getBody().get("name").asText());
+        assertTrue(elapsedMs >= API_DELAY_MS, "request-item returned after " + elapsedMs + " ms");
+    }
+}
@@ -0,0 +1,131 @@
+package com.arjencode.project.service;
+
+import com.arjencode.project.event.DistributionCenterChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Warehouse 1 in Toronto with centers in Montreal (10), Calgary (11) and Vancouver (12); the API is a mock
+class DistributionCenterDetailPrefetcherTests {
+
+    private final DistributionCenterIntegrationService centers = mock(DistributionCenterIntegrationService.class);
+    private final WarehouseService warehouseService = mock(WarehouseService.class);
+    private final ConcurrentMapCacheManager cacheManager =
+        new ConcurrentMapCacheManager(DistributionCenterDetailPrefetcher.CACHE_NAME);
+    private DistributionCenterDetailPrefetcher prefetcher;
+    private Cache cache;
+
+    @BeforeEach
+    void createPrefetcher() {
+        DistanceMatrix distanceMatrix = new DistanceMatrix();
+        distanceMatrix.putWarehouse(1, 43.65, -79.38);
+        distanceMatrix.putCenter(10, 45.50, -73.57);
+        distanceMatrix.putCenter(11, 51.05, -114.07);
+        distanceMatrix.putCenter(12, 49.28, -123.12);
+        when(warehouseService.resolve(1L)).thenReturn(1L);
+        when(centers.getDistributionCenterById(anyLong()))
+            .thenAnswer(invocation -> center(invocation.getArgument(0)));
+
+        prefetcher = new DistributionCenterDetailPrefetcher(centers, warehouseService, distanceMatrix,
+            cacheManager, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(prefetcher, "enabled", true);
+        ReflectionTestUtils.setField(prefetcher, "nearestCenters", 2);
+        ReflectionTestUtils.setField(prefetcher, "mostVisitedCenters", 1);
+        ReflectionTestUtils.setField(prefetcher, "threads", 1);
+        ReflectionTestUtils.setField(prefetcher, "queueCapacity", 16);
+        ReflectionTestUtils.setField(prefetcher, "activeWindowMs", 600000L);
+        prefetcher.init();
+        cache = cacheManager.getCache(DistributionCenterDetailPrefetcher.CACHE_NAME);
+    }
+
+    @AfterEach
+    void stop() {
+        prefetcher.shutdown();
+    }
+
+    @Test
+    void detailsAreLoadedOnceAndThenServedFromTheCache() {
+        assertEquals("Center 10", prefetcher.getCenterDetails(10L).get("name"));
+        assertEquals("Center 10", prefetcher.getCenterDetails(10L).get("name"));
+
+        verify(centers, times(1)).getDistributionCenterById(10L);
+    }
+
+    @Test
+    void dashboardWarmsTheNearestAndMostVisitedCenters() throws InterruptedException {
+        prefetcher.getCenterDetails(12L);
+        cache.clear();
+
+        prefetcher.prefetchFor(1L);
+
+        awaitCached(10L);
+        awaitCached(11L);
+        awaitCached(12L);
+    }
+
+    @Test
+    void onlyTheNearestCentersArePrefetchedWithoutVisits() throws InterruptedException {
+        prefetcher.prefetchFor(1L);
+
+        awaitCached(10L);
+        awaitCached(11L);
+        Thread.sleep(200);
+        verify(centers, never()).getDistributionCenterById(12L);
+    }
+
+    @Test
+    void changedCenterIsReloaded() {
+        prefetcher.getCenterDetails(10L);
+        prefetcher.getCenterDetails(11L);
+
+        prefetcher.onDistributionCenterChanged(new DistributionCenterChangedEvent(10L));
+
+        assertNull(cache.get(10L));
+        assertNotNull(cache.get(11L));
+        prefetcher.getCenterDetails(10L);
+        verify(centers, times(2)).getDistributionCenterById(10L);
+    }
+
+    // The center changes while its details are on the way; the stale answer is returned but not kept
+    @Test
+    void loadRacingAChangeIsNotCached() {
+        when(centers.getDistributionCenterById(10L)).thenAnswer(invocation -> {
+            prefetcher.onDistributionCenterChanged(new DistributionCenterChangedEvent(10L));
+            return center(10L);
+        });
+
+        assertNotNull(prefetcher.getCenterDetails(10L));
+        assertNull(cache.get(10L));
+    }
+
+    private void awaitCached(Long centerId) throws InterruptedException {
+        for (int attempt = 0; attempt < 50 && cache.get(centerId) == null; attempt++) {
+            Thread.sleep(20);
+        }
+        assertNotNull(cache.get(centerId), "center " + centerId + " was not prefetched");
+    }
+
+    private static Map<String, Object> center(Long id) {
+        Map<String, Object> center = new HashMap<>();
+        center.put("id", id);
+        center.put("name", "Center " + id);
+        return center;
+    }
+}
@@ -0,0 +1,65 @@
+package com.arjencode.project.service;
+
+import com.arjencode.project.model.Item;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class InventorySummaryServiceTests {
+
+    @Autowired
+    private InventorySummaryService inventorySummaryService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private BulkItemService bulkItemService;
+
+    // The rebuild after a bulk statement runs off the request thread; the totals catch up once it completes
+    @Test
+    void bulkChangeIsRebuiltInTheBackground() throws InterruptedException {
+        String brand = "Summary Bulk " + System.nanoTime();
+        for (int i = 0; i < 3; i++) {
+            newItem("Bulk Tee " + i, brand, 1);
+        }
+
+        bulkItemService.setQuantity(BulkItemFilter.of(brand, null, null), 7, false);
+
+        long units = -1;
+        for (int attempt = 0; attempt < 100 && units != 21; attempt++) {
+            Thread.sleep(100);
+            units = brandUnits(brand);
+        }
+        assertEquals(21, units);
+    }
+
+    private long brandUnits(String brand) {
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> groups = (List<Map<String, Object>>) inventorySummaryService.getSummary(null, "brand").get("groups");
+        return groups.stream()
+            .filter(group -> brand.equals(group.get("brand")))
+            .mapToLong(group -> ((Number) group.get("units")).longValue())
+            .findFirst().orElse(0);
+    }
+
+    private Item newItem(String name, String brand, int quantity) {
+        Item item = new Item();
+        item.setName(name);
+        item.setBrand(brand);
+        item.setCategory("T-Shirts");
+        item.setPrice(new BigDecimal("10.00"));
+        item.setYear(2024);
+        item.setQuantity(quantity);
+        return itemService.saveItem(item);
+    }
+}
@@ -0,0 +1,95 @@
+package com.arjencode.project.service;
+
+import com.arjencode.project.model.Item;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+// Subscribes to /items/stream and reads what the emitter writes to the (mock) response
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(username = "user", roles = "USER")
+class ItemEventStreamServiceTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private BulkItemService bulkItemService;
+
+    // Subscribers of a brand get its changes with the latest state, and nothing from other brands
+    @Test
+    void changesReachSubscribersOfTheirBrand() throws Exception {
+        String brand = "Stream " + System.nanoTime();
+        MockHttpServletResponse mine = subscribe(brand);
+        MockHttpServletResponse other = subscribe("Stream Other " + System.nanoTime());
+
+        Item item = newItem(brand);
+        for (int i = 0; i < 5; i++) {
+            itemService.adjustStock(item.getId(), 1);
+        }
+
+        assertTrue(await(mine, body -> body.contains("\"quantity\":10")), mine.getContentAsString());
+        assertTrue(mine.getContentAsString().contains("event:item-changed"));
+        assertFalse(other.getContentAsString().contains("item-changed"));
+    }
+
+    @Test
+    void bulkChangeIsAnnouncedToEverySubscriber() throws Exception {
+        String brand = "Stream Bulk " + System.nanoTime();
+        newItem(brand);
+        MockHttpServletResponse all = subscribe(null);
+        MockHttpServletResponse other = subscribe("Stream Other " + System.nanoTime());
+
+        bulkItemService.setQuantity(BulkItemFilter.of(brand, null, null), 3, false);
+
+        assertTrue(await(all, body -> body.contains("event:catalog-changed")), all.getContentAsString());
+        assertTrue(await(other, body -> body.contains("event:catalog-changed")), other.getContentAsString());
+    }
+
+    private MockHttpServletResponse subscribe(String brand) throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(brand == null ? get("/items/stream") : get("/items/stream").param("brand", brand))
+            .andExpect(request().asyncStarted())
+            .andReturn().getResponse();
+        assertTrue(await(response, body -> body.contains("event:connected")));
+        return response;
+    }
+
+    private static boolean await(MockHttpServletResponse response, Predicate<String> condition) throws Exception {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            if (condition.test(response.getContentAsString())) {
+                return true;
+            }
+            Thread.sleep(50);
+        }
+        return false;
+    }
+
+    private Item newItem(String brand) {
+        Item item = new Item();
+        item.setName("Stream Tee");
+        item.setBrand(brand);
+        item.setCategory("T-Shirts");
+        item.setPrice(new BigDecimal("10.00"));
+        item.setYear(2024);
+        item.setQuantity(5);
+        return itemService.saveItem(item);
+    }
+}
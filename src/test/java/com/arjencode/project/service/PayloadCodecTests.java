@@ -0,0 +1,74 @@
+package com.arjencode.project.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PayloadCodecTests {
+
+    private final PayloadCodec codec = new PayloadCodec();
+
+    private final Map<String, Object> payload = Map.of(
+        "id", 7,
+        "name", "Toronto",
+        "items", List.of(Map.of("brand", "Nike", "name", "Air Max", "price", 129.99, "quantity", 12)));
+
+    @Test
+    void everyEncodingDecodesToTheSameTree() {
+        JsonNode expected = decode(codec.encode(payload, false, false), MediaType.APPLICATION_JSON, false);
+        assertEquals("Air Max", expected.path("items").path(0).path("name").asText());
+        for (boolean smile : new boolean[] { false, true }) {
+            for (boolean gzip : new boolean[] { false, true }) {
+                byte[] encoded = codec.encode(payload, smile, gzip);
+                JsonNode decoded = decode(encoded, smile ? PayloadCodec.SMILE : MediaType.APPLICATION_JSON, gzip);
+                assertEquals(expected, decoded, "smile=" + smile + " gzip=" + gzip);
+            }
+        }
+    }
+
+    @Test
+    void smileIsSmallerThanJson() {
+        assertTrue(codec.encode(payload, true, false).length < codec.encode(payload, false, false).length);
+    }
+
+    @Test
+    void missingContentTypeIsReadAsJsonAndOtherTypesAsText() {
+        byte[] json = "{\"ok\":true}".getBytes(StandardCharsets.UTF_8);
+        assertTrue(codec.decode(json, new HttpHeaders()).path("ok").asBoolean());
+
+        HttpHeaders problem = new HttpHeaders();
+        problem.setContentType(MediaType.APPLICATION_PROBLEM_JSON);
+        assertTrue(codec.decode(json, problem).path("ok").asBoolean());
+
+        HttpHeaders text = new HttpHeaders();
+        text.setContentType(MediaType.TEXT_PLAIN);
+        assertEquals("Insufficient stock", codec.decode("Insufficient stock".getBytes(StandardCharsets.UTF_8), text).asText());
+    }
+
+    @Test
+    void emptyBodiesDecodeToNullAndGarbageFails() {
+        assertNull(codec.decode(new byte[0], new HttpHeaders()));
+        assertNull(codec.decode(null, new HttpHeaders()));
+
+        HttpHeaders gzipped = new HttpHeaders();
+        gzipped.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        assertThrows(UncheckedIOException.class, () -> codec.decode("not gzip".getBytes(StandardCharsets.UTF_8), gzipped));
+    }
+
+    private JsonNode decode(byte[] body, MediaType contentType, boolean gzip) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(contentType);
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return codec.decode(body, headers);
+    }
+}
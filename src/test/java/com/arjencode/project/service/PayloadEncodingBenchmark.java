@@ -0,0 +1,96 @@
+package com.arjencode.project.service;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+// Compares the distribution center payload encodings on synthetic item pages of increasing size:
+// encoded bytes (what goes over the wire) and decode time to a JsonNode (what the client pays per call).
+// Tooling, not a test: scripts/dc-encoding-benchmark.sh runs main() on the test classpath and prints
+// one CSV row (items,format,compression,bytes,decode median us,decode p95 us) per encoding.
+public class PayloadEncodingBenchmark {
+
+    private static final String[] BRANDS = { "Nike", "Adidas", "Levi's", "Calvin Klein", "Tommy Hilfiger", "Puma" };
+    private static final String[] CATEGORIES = { "Shoes", "Shirts", "Pants", "Jackets", "Hoodies", "Shorts" };
+    private static final int WARMUP_ITERATIONS = 50;
+
+    private final PayloadCodec codec = new PayloadCodec();
+
+    // Arguments are page sizes (default 10 100 1000 5000); -Diterations sets the timed decodes per encoding
+    public static void main(String[] args) {
+        List<Integer> itemCounts = new ArrayList<>();
+        for (String arg : args.length > 0 ? args : new String[] { "10", "100", "1000", "5000" }) {
+            itemCounts.add(Integer.parseInt(arg));
+        }
+        int iterations = Integer.getInteger("iterations", 200);
+        for (Map<String, Object> row : new PayloadEncodingBenchmark().run(itemCounts, iterations)) {
+            System.out.printf(Locale.ROOT, "%d,%s,%s,%d,%.1f,%.1f%n", row.get("items"), row.get("format"),
+                row.get("compression"), row.get("bytes"), row.get("decodeMedianMicros"), row.get("decodeP95Micros"));
+        }
+    }
+
+    public List<Map<String, Object>> run(List<Integer> itemCounts, int iterations) {
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (int itemCount : itemCounts) {
+            Map<String, Object> page = page(itemCount);
+            for (boolean smile : new boolean[] { false, true }) {
+                for (boolean gzip : new boolean[] { false, true }) {
+                    byte[] encoded = codec.encode(page, smile, gzip);
+                    HttpHeaders headers = new HttpHeaders();
+                    headers.setContentType(smile ? PayloadCodec.SMILE : MediaType.APPLICATION_JSON);
+                    if (gzip) {
+                        headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+                    }
+                    for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+                        codec.decode(encoded, headers);
+                    }
+                    long[] samples = new long[Math.max(1, iterations)];
+                    for (int i = 0; i < samples.length; i++) {
+                        long start = System.nanoTime();
+                        codec.decode(encoded, headers);
+                        samples[i] = System.nanoTime() - start;
+                    }
+                    Arrays.sort(samples);
+
+                    Map<String, Object> result = new LinkedHashMap<>();
+                    result.put("items", itemCount);
+                    result.put("format", smile ? "smile" : "json");
+                    result.put("compression", gzip ? "gzip" : "none");
+                    result.put("bytes", encoded.length);
+                    result.put("decodeMedianMicros", samples[samples.length / 2] / 1000.0);
+                    result.put("decodeP95Micros", samples[Math.min(samples.length - 1, (int) (samples.length * 0.95))] / 1000.0);
+                    results.add(result);
+                }
+            }
+        }
+        return results;
+    }
+
+    // Shaped like a page of GET /{id}/items
+    private static Map<String, Object> page(int itemCount) {
+        SplittableRandom random = new SplittableRandom(itemCount);
+        List<Map<String, Object>> items = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            String brand = BRANDS[random.nextInt(BRANDS.length)];
+            String category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("id", (long) i + 1);
+            item.put("name", brand + " Classic " + category + " " + random.nextInt(500));
+            item.put("brand", brand);
+            item.put("category", category);
+            item.put("price", BigDecimal.valueOf(1000 + random.nextInt(20000), 2));
+            item.put("year", 2019 + random.nextInt(6));
+            item.put("quantity", random.nextInt(100));
+            items.add(item);
+        }
+        Map<String, Object> page = new LinkedHashMap<>();
+        page.put("content", items);
+        page.put("number", 0);
+        page.put("size", itemCount);
+        page.put("totalElements", itemCount);
+        page.put("totalPages", 1);
+        return page;
+    }
+}
@@ -0,0 +1,123 @@
+package com.arjencode.project.service;
+
+import com.arjencode.project.config.ReorderProperties;
+import com.arjencode.project.event.ItemChangedEvent;
+import com.arjencode.project.event.ItemSnapshot;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Threshold 5 and target 20 (the defaults); the distribution center side is a mock
+class ReorderEngineTests {
+
+    private final DistributionCenterIntegrationService centers = mock(DistributionCenterIntegrationService.class);
+    private ReorderEngine engine;
+    private JsonNode toronto;
+
+    @BeforeEach
+    void createEngine() throws Exception {
+        ReorderProperties properties = new ReorderProperties();
+        properties.setEnabled(true);
+        engine = new ReorderEngine(properties, centers);
+        toronto = new ObjectMapper().readTree("{\"id\":1,\"name\":\"Toronto\"}");
+        when(centers.hasStockIndex()).thenReturn(true);
+        when(centers.findClosestCenter(anyLong(), anyString(), anyString())).thenReturn(toronto);
+    }
+
+    // Crossing below the threshold queues one line up to the target; further drops top it up
+    @Test
+    void crossingBelowQueuesOneLine() {
+        engine.onItemChanged(stockChange(7L, 6, 3));
+        engine.onItemChanged(stockChange(7L, 3, 1));
+
+        List<Map<String, Object>> lines = pending();
+        assertEquals(1, lines.size());
+        assertEquals(19, lines.get(0).get("quantity"));
+    }
+
+    // Detection is by crossing: an item that was already low, or a change made on another node, doesn't queue
+    @Test
+    void onlyLocalCrossingsQueue() {
+        engine.onItemChanged(stockChange(7L, 3, 2));
+        engine.onItemChanged(new ItemChangedEvent(ItemChangedEvent.Type.STOCK_CHANGED, item(8L, 6), item(8L, 1), true));
+        assertTrue(pending().isEmpty());
+    }
+
+    @Test
+    void restockDropsTheLine() {
+        engine.onItemChanged(stockChange(7L, 6, 3));
+        engine.onItemChanged(stockChange(7L, 3, 30));
+        assertTrue(pending().isEmpty());
+    }
+
+    // A sent line isn't queued again while the dedup window lasts
+    @Test
+    void orderedItemIsNotReorderedWithinTheWindow() throws Exception {
+        when(centers.requestItemFromCenter(eq(1L), eq(toronto), eq("Nike"), anyString(), eq(17))).thenReturn(true);
+        engine.onItemChanged(stockChange(7L, 6, 3));
+
+        engine.sendBatches();
+        engine.onItemChanged(stockChange(7L, 20, 2));
+
+        assertTrue(pending().isEmpty());
+        assertEquals("ORDERED", recent().get(0).get("outcome"));
+    }
+
+    @Test
+    void lineIsDroppedAfterThreeFailures() throws Exception {
+        when(centers.requestItemFromCenter(anyLong(), any(), anyString(), anyString(), anyInt())).thenReturn(false);
+        engine.onItemChanged(stockChange(7L, 6, 3));
+
+        for (int attempt = 0; attempt < 3; attempt++) {
+            engine.sendBatches();
+        }
+
+        assertTrue(pending().isEmpty());
+        assertTrue(recent().get(0).get("outcome").toString().startsWith("FAILED"));
+    }
+
+    @Test
+    void disabledEngineSendsNothing() throws Exception {
+        ReorderEngine disabled = new ReorderEngine(new ReorderProperties(), centers);
+        disabled.onItemChanged(stockChange(7L, 6, 3));
+        disabled.sendBatches();
+        verify(centers, never()).requestItemFromCenter(anyLong(), any(), anyString(), anyString(), anyInt());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> pending() {
+        return (List<Map<String, Object>>) engine.getStatus().get("pending");
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> recent() {
+        return (List<Map<String, Object>>) engine.getStatus().get("recent");
+    }
+
+    private static ItemChangedEvent stockChange(Long id, int before, int after) {
+        return ItemChangedEvent.stockChanged(item(id, before), item(id, after));
+    }
+
+    private static ItemSnapshot item(Long id, int quantity) {
+        LocalDateTime now = LocalDateTime.now();
+        return new ItemSnapshot(id, "Air Max " + id, "Nike", "Shoes", new BigDecimal("129.99"), 2024, quantity, 1L, now, now, 0L);
+    }
+}
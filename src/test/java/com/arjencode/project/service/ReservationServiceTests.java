@@ -0,0 +1,63 @@
+package com.arjencode.project.service;
+
+import com.arjencode.project.model.Item;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ReservationServiceTests {
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void holdsNeverPromiseMoreThanOnHand() {
+        Item item = newItem(5);
+        assertTrue(reservationService.reserve(item.getId(), 3, null).isPresent());
+        assertTrue(reservationService.reserve(item.getId(), 3, null).isEmpty());
+        assertTrue(reservationService.reserve(item.getId(), 2, null).isPresent());
+        assertEquals(0, reservationService.getAvailability(item.getId()).get("availableToPromise"));
+    }
+
+    // Stock lowered by an edit after a hold was confirmed: the write stops at zero and reports what was missing
+    @Test
+    void confirmedHoldsBeyondStockAreReportedAsShortfall() {
+        Item item = newItem(5);
+        Map<String, Object> hold = reservationService.reserve(item.getId(), 3, null).orElseThrow();
+        itemService.adjustStock(item.getId(), -4);
+        reservationService.confirm((String) hold.get("id"));
+        double shortfallBefore = meterRegistry.counter("reservations.shortfall.units").count();
+
+        reservationService.flushConfirmed();
+
+        assertEquals(0, itemService.getItemById(item.getId()).getQuantity());
+        assertEquals(2.0, meterRegistry.counter("reservations.shortfall.units").count() - shortfallBefore);
+    }
+
+    private Item newItem(int quantity) {
+        Item item = new Item();
+        item.setName("Reservation Test Tee " + System.nanoTime());
+        item.setBrand("Test");
+        item.setCategory("T-Shirts");
+        item.setPrice(new BigDecimal("10.00"));
+        item.setYear(2024);
+        item.setQuantity(quantity);
+        return itemService.saveItem(item);
+    }
+}
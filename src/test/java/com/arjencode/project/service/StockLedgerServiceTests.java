@@ -0,0 +1,180 @@
+package com.arjencode.project.service;
+
+import com.arjencode.project.event.ItemChangedEvent;
+import com.arjencode.project.event.ItemSnapshot;
+import com.arjencode.project.model.Item;
+import com.arjencode.project.repository.ItemRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class StockLedgerServiceTests {
+
+    @Autowired
+    private StockLedgerService stockLedgerService;
+
+    @Autowired
+    private BulkItemService bulkItemService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // A bulk INSERT ... SELECT gets its movement ids before it commits. A snapshot taken while it is still
+    // open (after a later movement of the same item was written) must not cover those ids, or the bulk
+    // deltas fall between the snapshot and the tail that point-in-time queries read.
+    @Test
+    void snapshotDoesNotSkipMovementsOfATransactionThatCommitsLater() throws Exception {
+        Item item = itemRepository.findAll().stream()
+            .filter(candidate -> "Adidas".equals(candidate.getBrand()))
+            .findFirst().orElseThrow();
+        ItemSnapshot before = ItemSnapshot.of(item);
+        item.setQuantity(item.getQuantity() + 5);
+        ItemSnapshot after = ItemSnapshot.of(item);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch bulkInserted = new CountDownLatch(1);
+        CountDownLatch commitBulk = new CountDownLatch(1);
+        try {
+            Future<?> bulk = executor.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                bulkItemService.setQuantity(BulkItemFilter.of("Adidas", null, null), 77, false);
+                bulkInserted.countDown();
+                try {
+                    commitBulk.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertTrue(bulkInserted.await(10, TimeUnit.SECONDS));
+
+            Future<Integer> snapshot = executor.submit(() -> {
+                stockLedgerService.onItemChanged(ItemChangedEvent.stockChanged(before, after));
+                return stockLedgerService.takeSnapshots();
+            });
+            // Without the ledger lock the movement and the snapshot complete in this window
+            Thread.sleep(300);
+            commitBulk.countDown();
+            bulk.get(10, TimeUnit.SECONDS);
+            snapshot.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        stockLedgerService.takeSnapshots();
+
+        Long ledgerTotal = jdbcTemplate.queryForObject(
+            "SELECT SUM(delta) FROM stock_movements WHERE item_id = ?", Long.class, item.getId());
+        Map<String, Object> stock = stockLedgerService.getStockAt(item.getId(), LocalDateTime.now().plusMinutes(1));
+        assertEquals(82L, ledgerTotal);
+        assertEquals(ledgerTotal, ((Number) stock.get("quantity")).longValue());
+    }
+
+    // Each change event carries the item's state before and after it. Concurrent adjustments of one item
+    // (some stopped at zero) must each record exactly the change they made, so the ledger adds up to the stock.
+    @Test
+    void concurrentAdjustmentsOfOneItemAddUpToItsStock() throws Exception {
+        Item item = new Item();
+        item.setName("Ledger Race Tee " + System.nanoTime());
+        item.setBrand("Test");
+        item.setCategory("T-Shirts");
+        item.setPrice(new BigDecimal("10.00"));
+        item.setYear(2024);
+        item.setQuantity(5);
+        Long id = itemService.saveItem(item).getId();
+
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int worker = 0; worker < 6; worker++) {
+                int delta = worker % 2 == 0 ? 2 : -3;
+                workers.add(executor.submit(() -> {
+                    for (int i = 0; i < 20; i++) {
+                        itemService.adjustStock(id, delta);
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        stockLedgerService.flush();
+
+        Long ledgerTotal = jdbcTemplate.queryForObject(
+            "SELECT SUM(delta) FROM stock_movements WHERE item_id = ?", Long.class, id);
+        assertEquals(itemService.getItemById(id).getQuantity().longValue(), ledgerTotal);
+    }
+
+    // A bulk set records each item's change from the quantity it replaces. Adjustments racing with it must
+    // either land before that read or wait for the update, so every item's ledger still adds up to its stock.
+    @Test
+    void bulkSetDuringAdjustmentsKeepsTheLedgerEqualToStock() throws Exception {
+        String brand = "Ledger Bulk " + System.nanoTime();
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Item item = new Item();
+            item.setName("Bulk Race Tee " + i);
+            item.setBrand(brand);
+            item.setCategory("T-Shirts");
+            item.setPrice(new BigDecimal("10.00"));
+            item.setYear(2024);
+            item.setQuantity(10);
+            ids.add(itemService.saveItem(item).getId());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int worker = 0; worker < 3; worker++) {
+                workers.add(executor.submit(() -> {
+                    for (int i = 0; i < 30; i++) {
+                        for (Long id : ids) {
+                            itemService.adjustStock(id, 1);
+                        }
+                    }
+                }));
+            }
+            workers.add(executor.submit(() -> {
+                for (int i = 0; i < 20; i++) {
+                    bulkItemService.setQuantity(BulkItemFilter.of(brand, null, null), 7, false);
+                }
+            }));
+            for (Future<?> worker : workers) {
+                worker.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        stockLedgerService.flush();
+
+        for (Long id : ids) {
+            Long ledgerTotal = jdbcTemplate.queryForObject(
+                "SELECT SUM(delta) FROM stock_movements WHERE item_id = ?", Long.class, id);
+            assertEquals(itemService.getItemById(id).getQuantity().longValue(), ledgerTotal);
+        }
+    }
+}
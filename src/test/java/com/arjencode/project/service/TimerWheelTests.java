@@ -0,0 +1,73 @@
+package com.arjencode.project.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimerWheelTests {
+
+    private static final long TICK = 10;
+
+    @Test
+    void firesTimersOnceTheirTickHasPassed() {
+        TimerWheel<String> wheel = new TimerWheel<>(8, TICK);
+        long now = System.currentTimeMillis();
+        wheel.schedule("soon", now + 3 * TICK);
+        wheel.schedule("later", now + 6 * TICK);
+        List<String> fired = new ArrayList<>();
+
+        wheel.advance(now + TICK, fired::add);
+        assertTrue(fired.isEmpty());
+        wheel.advance(now + 4 * TICK, fired::add);
+        assertEquals(List.of("soon"), fired);
+        wheel.advance(now + 7 * TICK, fired::add);
+        assertEquals(List.of("soon", "later"), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    // A deadline several turns ahead shares a slot with nearer ticks but waits for its own round
+    @Test
+    void deadlinesBeyondOneTurnWaitForTheirRound() {
+        TimerWheel<String> wheel = new TimerWheel<>(8, TICK);
+        long now = System.currentTimeMillis();
+        wheel.schedule("far", now + 20 * TICK);
+        List<String> fired = new ArrayList<>();
+
+        for (int tick = 1; tick < 19; tick++) {
+            wheel.advance(now + tick * TICK, fired::add);
+        }
+        assertTrue(fired.isEmpty());
+        assertEquals(1, wheel.size());
+        wheel.advance(now + 21 * TICK, fired::add);
+        assertEquals(List.of("far"), fired);
+    }
+
+    // After a long pause one advance covers every slot and fires everything that came due
+    @Test
+    void catchesUpAfterAPause() {
+        TimerWheel<Integer> wheel = new TimerWheel<>(8, TICK);
+        long now = System.currentTimeMillis();
+        for (int i = 1; i <= 30; i++) {
+            wheel.schedule(i, now + i * TICK);
+        }
+        List<Integer> fired = new ArrayList<>();
+        wheel.advance(now + 100 * TICK, fired::add);
+        assertEquals(30, fired.size());
+        assertEquals(0, wheel.size());
+    }
+
+    // A deadline already in the past lands in the next tick, not in a slot the wheel has passed
+    @Test
+    void pastDeadlinesFireOnTheNextTick() {
+        TimerWheel<String> wheel = new TimerWheel<>(8, TICK);
+        long now = System.currentTimeMillis();
+        wheel.schedule("late", now - 5 * TICK);
+        List<String> fired = new ArrayList<>();
+        wheel.advance(now + 2 * TICK, fired::add);
+        assertEquals(List.of("late"), fired);
+    }
+}
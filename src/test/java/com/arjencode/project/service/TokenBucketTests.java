@@ -0,0 +1,69 @@
+package com.arjencode.project.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTests {
+
+    @Test
+    void startsFullAndRejectsOnceEmpty() {
+        TokenBucket bucket = new TokenBucket(60, 3); // one token per second
+        assertTrue(bucket.isFull());
+        assertEquals(0, bucket.nanosUntilAvailable());
+        for (int i = 0; i < 3; i++) {
+            assertTrue(bucket.tryAcquire());
+        }
+        assertFalse(bucket.tryAcquire());
+        assertFalse(bucket.isFull());
+        long wait = bucket.nanosUntilAvailable();
+        assertTrue(wait > 0 && wait <= TimeUnit.SECONDS.toNanos(1), "wait " + wait);
+    }
+
+    @Test
+    void refillsAtTheConfiguredRate() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(600, 1); // one token per 100 ms
+        assertTrue(bucket.tryAcquire());
+        assertFalse(bucket.tryAcquire());
+        Thread.sleep(150);
+        assertTrue(bucket.tryAcquire());
+        assertFalse(bucket.tryAcquire());
+    }
+
+    // Concurrent callers never get more tokens than the capacity
+    @Test
+    void concurrentAcquiresNeverExceedCapacity() throws Exception {
+        TokenBucket bucket = new TokenBucket(1, 100); // effectively no refill during the test
+        AtomicInteger granted = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            for (int thread = 0; thread < 8; thread++) {
+                executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 50; i++) {
+                        if (bucket.tryAcquire()) {
+                            granted.incrementAndGet();
+                        }
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(100, granted.get());
+    }
+
+    @Test
+    void rejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(10, 0));
+    }
+}